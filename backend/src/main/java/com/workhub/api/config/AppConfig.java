@@ -1,14 +1,58 @@
 package com.workhub.api.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class AppConfig {
 
+    @Value("${app.http.connect-timeout:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.http.read-timeout:10000}")
+    private long readTimeoutMs;
+
+    @Value("${app.http.max-per-host:20}")
+    private int maxPerHost;
+
+    @Value("${app.http.max-retries:2}")
+    private int maxRetries;
+
+    /**
+     * HttpClient dùng chung cho mọi lời gọi ra ngoài (Aptos node, Google): giữ kết nối keep-alive,
+     * HTTP/2 khi server hỗ trợ, nên không phải bắt tay TCP/TLS lại mỗi request.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public HttpClient outboundHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "outbound-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient outboundHttpClient, MeterRegistry meterRegistry) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(outboundHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setInterceptors(List.of(
+                new OutboundHttpInterceptor(meterRegistry, maxPerHost, connectTimeoutMs + readTimeoutMs, maxRetries)));
+        return restTemplate;
     }
 }
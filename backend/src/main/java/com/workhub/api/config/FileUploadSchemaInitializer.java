@@ -0,0 +1,43 @@
+package com.workhub.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * file_uploads.public_id từng là unique; từ khi dedup nội dung, nhiều FileUpload dùng chung một object
+ * trên storage nên ràng buộc cũ phải bỏ. ddl-auto=update không tự xóa ràng buộc nên làm ở đây.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class FileUploadSchemaInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FileUploadSchemaInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void dropPublicIdUniqueConstraint() {
+        try {
+            List<String> constraints = jdbcTemplate.queryForList(
+                    "SELECT c.conname FROM pg_constraint c " +
+                    "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey) " +
+                    "WHERE c.conrelid = 'file_uploads'::regclass AND c.contype = 'u' " +
+                    "AND a.attname = 'public_id' AND array_length(c.conkey, 1) = 1",
+                    String.class);
+            for (String constraint : constraints) {
+                jdbcTemplate.execute("ALTER TABLE file_uploads DROP CONSTRAINT IF EXISTS " + constraint);
+                log.info("Dropped unique constraint {} on file_uploads.public_id", constraint);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to drop unique constraint on file_uploads.public_id: {}", e.getMessage());
+        }
+    }
+}
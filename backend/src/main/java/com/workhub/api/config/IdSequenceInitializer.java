@@ -0,0 +1,82 @@
+package com.workhub.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bảng chuyển từ IDENTITY sang sequence giữ dữ liệu cũ, còn sequence do ddl-auto tạo bắt đầu từ 1.
+ * Đẩy sequence vượt MAX(id) trước khi scheduler / request đầu tiên insert (chạy lúc khởi tạo bean,
+ * sau khi EntityManagerFactory đã cập nhật schema).
+ * outbox_events giữ IDENTITY (dispatcher gửi theo thứ tự id): nếu bảng được tạo lúc còn dùng sequence
+ * thì cột id chưa có default, gắn lại identity và đẩy nó vượt MAX(id).
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    // table, sequence, allocationSize của @SequenceGenerator
+    private static final String[][] SEQUENCES = {
+        {"notifications", "notifications_seq", "50"},
+        {"job_histories", "job_histories_seq", "50"},
+        {"chat_messages", "chat_messages_seq", "50"}
+    };
+
+    // table có cột id phải là IDENTITY
+    private static final String[] IDENTITY_TABLES = {"outbox_events"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void syncSequences() {
+        for (String[] sequence : SEQUENCES) {
+            String table = sequence[0];
+            String name = sequence[1];
+            int allocationSize = Integer.parseInt(sequence[2]);
+            try {
+                // Pooled optimizer dùng nextval làm cận trên của khối id, nên sequence phải >= MAX(id) + allocationSize
+                Long value = jdbcTemplate.queryForObject(
+                        "SELECT setval('" + name + "', GREATEST(" +
+                        "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + allocationSize + ", " +
+                        "(SELECT last_value FROM " + name + ")))",
+                        Long.class);
+                log.debug("Sequence {} synced to {}", name, value);
+            } catch (Exception e) {
+                log.warn("Failed to sync sequence {}: {}", name, e.getMessage());
+            }
+        }
+        for (String table : IDENTITY_TABLES) {
+            try {
+                restoreIdentity(table);
+            } catch (Exception e) {
+                log.warn("Failed to restore identity on {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private void restoreIdentity(String table) {
+        String sequence = jdbcTemplate.queryForObject(
+                "SELECT pg_get_serial_sequence('" + table + "', 'id')", String.class);
+        if (sequence == null) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+            jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + table + "_seq");
+            sequence = jdbcTemplate.queryForObject(
+                    "SELECT pg_get_serial_sequence('" + table + "', 'id')", String.class);
+            log.info("Restored identity column on {}", table);
+        }
+        // Identity vừa gắn bắt đầu từ 1 trong khi bảng đã có dòng
+        Long value = jdbcTemplate.queryForObject(
+                "SELECT setval('" + sequence + "', GREATEST(" +
+                "(SELECT COALESCE(MAX(id), 0) FROM " + table + "), " +
+                "(SELECT last_value FROM " + sequence + ")))",
+                Long.class);
+        log.debug("Identity {} synced to {}", sequence, value);
+    }
+}
@@ -0,0 +1,117 @@
+package com.workhub.api.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tạo cột tsvector + GIN index cho tìm kiếm job.
+ * Hibernate (ddl-auto=update) không quản lý cột này nên trigger tự cập nhật khi ghi jobs / job_skills.
+ * Trọng số: title (A) > description (B) > requirements, skills (C).
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class JobSearchIndexInitializer implements CommandLineRunner {
+
+    private static final String[] STATEMENTS = {
+        "CREATE EXTENSION IF NOT EXISTS unaccent",
+
+        // unaccent() mặc định là STABLE, cần bản IMMUTABLE để dùng trong trigger/index
+        "CREATE OR REPLACE FUNCTION workhub_unaccent(text) RETURNS text AS $$ " +
+        "SELECT public.unaccent('public.unaccent', $1) $$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT",
+
+        "CREATE OR REPLACE FUNCTION job_search_vector(p_id BIGINT, p_title TEXT, p_description TEXT, p_requirements TEXT) " +
+        "RETURNS tsvector AS $$ " +
+        "SELECT setweight(to_tsvector('simple', workhub_unaccent(coalesce(p_title, ''))), 'A') || " +
+        "       setweight(to_tsvector('simple', workhub_unaccent(coalesce(p_description, ''))), 'B') || " +
+        "       setweight(to_tsvector('simple', workhub_unaccent(coalesce(p_requirements, ''))), 'C') || " +
+        "       setweight(to_tsvector('simple', workhub_unaccent(coalesce(" +
+        "           (SELECT string_agg(s.skill, ' ') FROM job_skills s WHERE s.job_id = p_id), ''))), 'C') " +
+        "$$ LANGUAGE sql STABLE",
+
+        "ALTER TABLE jobs ADD COLUMN IF NOT EXISTS search_vector tsvector",
+
+        "CREATE OR REPLACE FUNCTION jobs_search_vector_trigger() RETURNS trigger AS $$ " +
+        "BEGIN " +
+        "  NEW.search_vector := job_search_vector(NEW.id, NEW.title, NEW.description, NEW.requirements); " +
+        "  RETURN NEW; " +
+        "END $$ LANGUAGE plpgsql",
+
+        "DROP TRIGGER IF EXISTS trg_jobs_search_vector_insert ON jobs",
+        "CREATE TRIGGER trg_jobs_search_vector_insert BEFORE INSERT ON jobs " +
+        "FOR EACH ROW EXECUTE FUNCTION jobs_search_vector_trigger()",
+
+        // Hibernate UPDATE ghi lại mọi cột nên chỉ tính lại khi nội dung thực sự đổi
+        "DROP TRIGGER IF EXISTS trg_jobs_search_vector_update ON jobs",
+        "CREATE TRIGGER trg_jobs_search_vector_update BEFORE UPDATE ON jobs " +
+        "FOR EACH ROW WHEN (OLD.title IS DISTINCT FROM NEW.title " +
+        "OR OLD.description IS DISTINCT FROM NEW.description " +
+        "OR OLD.requirements IS DISTINCT FROM NEW.requirements) " +
+        "EXECUTE FUNCTION jobs_search_vector_trigger()",
+
+        // Skills được insert sau job (ElementCollection) nên cần trigger riêng.
+        // Trigger mức statement + transition table: thêm/xóa N skill của một job chỉ tính lại vector một lần
+        // (reWriteBatchedInserts gộp batch insert của Hibernate thành một statement)
+        "CREATE OR REPLACE FUNCTION job_skills_search_vector_trigger() RETURNS trigger AS $$ " +
+        "BEGIN " +
+        "  IF TG_OP = 'UPDATE' THEN " +
+        "    UPDATE jobs SET search_vector = job_search_vector(id, title, description, requirements) " +
+        "    WHERE id IN (SELECT job_id FROM changed_skills UNION SELECT job_id FROM old_skills); " +
+        "  ELSE " +
+        "    UPDATE jobs SET search_vector = job_search_vector(id, title, description, requirements) " +
+        "    WHERE id IN (SELECT DISTINCT job_id FROM changed_skills); " +
+        "  END IF; " +
+        "  RETURN NULL; " +
+        "END $$ LANGUAGE plpgsql",
+
+        "DROP TRIGGER IF EXISTS trg_job_skills_search_vector ON job_skills",
+
+        // Transition table chỉ cho phép một loại sự kiện mỗi trigger
+        "DROP TRIGGER IF EXISTS trg_job_skills_search_vector_insert ON job_skills",
+        "CREATE TRIGGER trg_job_skills_search_vector_insert AFTER INSERT ON job_skills " +
+        "REFERENCING NEW TABLE AS changed_skills " +
+        "FOR EACH STATEMENT EXECUTE FUNCTION job_skills_search_vector_trigger()",
+
+        "DROP TRIGGER IF EXISTS trg_job_skills_search_vector_update ON job_skills",
+        "CREATE TRIGGER trg_job_skills_search_vector_update AFTER UPDATE ON job_skills " +
+        "REFERENCING OLD TABLE AS old_skills NEW TABLE AS changed_skills " +
+        "FOR EACH STATEMENT EXECUTE FUNCTION job_skills_search_vector_trigger()",
+
+        "DROP TRIGGER IF EXISTS trg_job_skills_search_vector_delete ON job_skills",
+        "CREATE TRIGGER trg_job_skills_search_vector_delete AFTER DELETE ON job_skills " +
+        "REFERENCING OLD TABLE AS changed_skills " +
+        "FOR EACH STATEMENT EXECUTE FUNCTION job_skills_search_vector_trigger()",
+
+        "UPDATE jobs SET search_vector = job_search_vector(id, title, description, requirements) " +
+        "WHERE search_vector IS NULL",
+
+        "CREATE INDEX IF NOT EXISTS idx_jobs_search_vector ON jobs USING GIN (search_vector)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean available = false;
+
+    @Override
+    public void run(String... args) {
+        log.info("Initializing job full-text search index...");
+        try {
+            for (String sql : STATEMENTS) {
+                jdbcTemplate.execute(sql);
+            }
+            available = true;
+            log.info("Job full-text search index ready");
+        } catch (Exception e) {
+            log.warn("Job full-text search unavailable, falling back to LIKE search: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
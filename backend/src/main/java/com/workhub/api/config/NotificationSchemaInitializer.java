@@ -0,0 +1,44 @@
+package com.workhub.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * notifications.last_aggregated_at được ddl-auto thêm vào dưới dạng cột nullable; dòng có từ trước
+ * nhận giá trị created_at (thời điểm hoạt động cuối của chúng) rồi cột được đặt NOT NULL để feed
+ * sắp xếp và phân trang keyset không phải xử lý NULL.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class NotificationSchemaInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationSchemaInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfillLastAggregatedAt() {
+        try {
+            Boolean nullable = jdbcTemplate.queryForObject(
+                    "SELECT is_nullable = 'YES' FROM information_schema.columns " +
+                    "WHERE table_schema = current_schema() AND table_name = 'notifications' " +
+                    "AND column_name = 'last_aggregated_at'",
+                    Boolean.class);
+            if (!Boolean.TRUE.equals(nullable)) {
+                return;
+            }
+            int updated = jdbcTemplate.update(
+                    "UPDATE notifications SET last_aggregated_at = created_at WHERE last_aggregated_at IS NULL");
+            jdbcTemplate.execute("ALTER TABLE notifications ALTER COLUMN last_aggregated_at SET NOT NULL");
+            log.info("Backfilled last_aggregated_at on {} notification(s)", updated);
+        } catch (Exception e) {
+            log.warn("Failed to backfill notifications.last_aggregated_at: {}", e.getMessage());
+        }
+    }
+}
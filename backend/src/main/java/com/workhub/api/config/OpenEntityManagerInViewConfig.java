@@ -0,0 +1,32 @@
+package com.workhub.api.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open EntityManager in View cho request HTTP, trừ các endpoint upload.
+ * Với OSIV, connection lấy ở lần truy cập DB đầu tiên được giữ tới hết request; request upload
+ * stream file lên storage hàng chục giây nên sẽ chiếm connection của pool trong suốt thời gian đó.
+ * FileUploadService chỉ dùng DB trong các transaction ngắn và dựng response từ entity đã nạp đủ.
+ */
+@Configuration
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    private static final String[] UPLOAD_PATHS = {"/api/files", "/api/files/image", "/api/files/document"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OpenEntityManagerInViewConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns(UPLOAD_PATHS);
+    }
+}
@@ -0,0 +1,119 @@
+package com.workhub.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Interceptor chung cho mọi lời gọi HTTP ra ngoài:
+ * giới hạn số request đồng thời mỗi host, retry GET (idempotent) với backoff có jitter,
+ * và Micrometer timer theo host + endpoint.
+ * Phải là interceptor cuối cùng vì retry gọi lại execution.execute().
+ */
+@Slf4j
+public class OutboundHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String METRIC_NAME = "workhub.http.client.requests";
+    private static final long BASE_BACKOFF_MS = 200;
+    private static final long MAX_BACKOFF_MS = 2000;
+    // Đoạn path là id/hash/địa chỉ ví -> gom về {id} để metric không bị bùng số lượng tag
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(0x[0-9a-fA-F]+|[0-9]+|[0-9a-fA-F]{16,})(?=/|$)");
+
+    private final MeterRegistry meterRegistry;
+    private final int maxPerHost;
+    private final long acquireTimeoutMs;
+    private final int maxRetries;
+    private final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+
+    public OutboundHttpInterceptor(MeterRegistry meterRegistry, int maxPerHost, long acquireTimeoutMs, int maxRetries) {
+        this.meterRegistry = meterRegistry;
+        this.maxPerHost = maxPerHost;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String host = request.getURI().getHost();
+        Semaphore limit = hostLimits.computeIfAbsent(host, key -> new Semaphore(maxPerHost));
+        try {
+            if (!limit.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Too many concurrent requests to " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for connection slot to " + host);
+        }
+
+        try {
+            return executeWithRetry(request, body, execution, host);
+        } finally {
+            limit.release();
+        }
+    }
+
+    private ClientHttpResponse executeWithRetry(HttpRequest request, byte[] body,
+                                                ClientHttpRequestExecution execution, String host) throws IOException {
+        boolean retryable = request.getMethod() == HttpMethod.GET;
+        String endpoint = ID_SEGMENT.matcher(request.getURI().getPath()).replaceAll("/{id}");
+
+        for (int attempt = 0; ; attempt++) {
+            boolean lastAttempt = !retryable || attempt >= maxRetries;
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                int status = response.getStatusCode().value();
+                record(host, request.getMethod(), endpoint, String.valueOf(status), start);
+
+                if (lastAttempt || (status < 500 && status != 429)) {
+                    return response;
+                }
+                response.close();
+                log.debug("Retrying {} {} after status {}", request.getMethod(), request.getURI(), status);
+            } catch (IOException e) {
+                record(host, request.getMethod(), endpoint, "IO_ERROR", start);
+                if (lastAttempt) {
+                    throw e;
+                }
+                log.debug("Retrying {} {} after {}", request.getMethod(), request.getURI(), e.getMessage());
+            }
+            sleepBackoff(attempt);
+        }
+    }
+
+    // Full jitter: ngẫu nhiên trong [0, min(max, base * 2^attempt)]
+    private void sleepBackoff(int attempt) throws InterruptedIOException {
+        long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    private void record(String host, HttpMethod method, String endpoint, String outcome, long startNanos) {
+        Timer.builder(METRIC_NAME)
+                .tag("host", host != null ? host : "unknown")
+                .tag("method", method.name())
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
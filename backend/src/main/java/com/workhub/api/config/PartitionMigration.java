@@ -0,0 +1,364 @@
+package com.workhub.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migration có version chuyển một bảng thường thành bảng partition theo tháng (RANGE created_at), không copy dữ liệu.
+ * Mỗi bảng chạy đúng một lần, ghi vào schema_migrations (version = partition-{table}-v1).
+ * Các bước nặng chạy online, trước khi lấy khóa ACCESS EXCLUSIVE:
+ * 1. CHECK (created_at IS NOT NULL AND created_at < cận trên) NOT VALID rồi VALIDATE: quét bảng dưới
+ *    SHARE UPDATE EXCLUSIVE, đọc/ghi vẫn chạy; ATTACH sau đó dựa vào CHECK này nên không quét lại.
+ * 2. CREATE UNIQUE INDEX CONCURRENTLY (id, created_at) làm sẵn khóa chính mới.
+ * 3. Một transaction ngắn (lock_timeout) chỉ đổi catalog: đổi tên, thay khóa chính bằng index ở bước 2,
+ *    tạo bảng cha, ATTACH, gắn index/FK tương đương của partition vào bảng cha.
+ * FK từ bảng khác trỏ vào bảng này không giữ được (khóa chính có thêm created_at): bị bỏ, định nghĩa được
+ * log WARN và lưu trong schema_migrations.notes để tạo lại bằng tay nếu cần.
+ * Toàn bộ lịch sử nằm trong một partition legacy (MINVALUE -> cận trên); splitLegacyMonth tách dần từng tháng
+ * cũ nhất ra partition riêng theo lịch bảo trì để archiver lưu trữ/xóa được theo tháng như dữ liệu mới.
+ */
+@Slf4j
+@Component
+public class PartitionMigration {
+
+    private static final String LOCK_TIMEOUT = "10s";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    /**
+     * skipped = instance khác đang giữ khóa migration của bảng; lượt bảo trì sau kiểm tra lại.
+     */
+    public record Result(boolean skipped, List<String> droppedForeignKeys) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PartitionMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static String version(String table) {
+        return "partition-" + table + "-v1";
+    }
+
+    /**
+     * Chạy migration của bảng nếu chưa chạy và bảng còn là bảng thường.
+     * Trả về định nghĩa các FK bị bỏ (rỗng nếu không có hoặc không cần chuyển).
+     * Không chờ khóa: pg_advisory_lock đang chờ giữ snapshot mà CREATE INDEX CONCURRENTLY của instance
+     * giữ khóa phải đợi, hai bên chờ nhau mãi. Khóa bận thì bỏ qua, lần sau kiểm tra lại schema_migrations.
+     */
+    public Result migrate(TablePartitionManager.PartitionedTable table) {
+        return jdbcTemplate.execute((ConnectionCallback<Result>) connection -> {
+            connection.setAutoCommit(true);
+            execute(connection, "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                    "version VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT now(), notes TEXT)");
+            String lockKey = lockKey(table.name());
+            if (!tryLock(connection, lockKey)) {
+                log.info("Partition migration of {} is running on another instance, skipping", table.name());
+                return new Result(true, List.of());
+            }
+            try {
+                if (applied(connection, table.name()) || !"r".equals(relationKind(connection, table.name()))) {
+                    return new Result(false, List.of());
+                }
+                return new Result(false, convert(connection, table));
+            } finally {
+                unlock(connection, lockKey);
+            }
+        });
+    }
+
+    /**
+     * Tách tháng cũ nhất còn trong {table}_p_legacy ra partition {table}_pYYYYMM (mỗi lần gọi một tháng).
+     * Trong một transaction (lock_timeout): chép dòng của tháng sang bảng mới và xóa khỏi legacy khi legacy
+     * chỉ còn đọc được, thêm CHECK cận dưới mới cho legacy (quét phần legacy còn lại, lúc này chặn cả đọc),
+     * rồi DETACH legacy, ATTACH lại với cận dưới mới và ATTACH partition tháng. Chạy ngoài giờ cao điểm.
+     * Khi legacy chỉ còn một tháng thì đổi tên thành partition của tháng đó; legacy rỗng thì bỏ đi.
+     * Trả về false khi không còn legacy hoặc instance khác đang giữ khóa.
+     */
+    public boolean splitLegacyMonth(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            connection.setAutoCommit(true);
+            String lockKey = lockKey(table);
+            if (!tryLock(connection, lockKey)) {
+                return false;
+            }
+            try {
+                String legacy = table + "_p_legacy";
+                List<String[]> bounds = queryRows(connection,
+                        "SELECT pg_get_expr(c.relpartbound, c.oid) FROM pg_class c " +
+                        "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                        "WHERE n.nspname = current_schema() AND c.relname = ? AND c.relispartition", legacy);
+                if (bounds.isEmpty()) {
+                    return false;
+                }
+                Matcher matcher = UPPER_BOUND.matcher(bounds.get(0)[0]);
+                if (!matcher.find()) {
+                    log.warn("Unexpected partition bound of {}: {}", legacy, bounds.get(0)[0]);
+                    return false;
+                }
+                YearMonth upper = YearMonth.from(Timestamp.valueOf(matcher.group(1)).toLocalDateTime());
+
+                Timestamp oldest = queryTimestamp(connection, "SELECT MIN(created_at) FROM " + legacy);
+                if (oldest == null) {
+                    inTransaction(connection, () -> {
+                        execute(connection, "SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+                        execute(connection, "ALTER TABLE " + table + " DETACH PARTITION " + legacy);
+                        execute(connection, "DROP TABLE " + legacy);
+                    });
+                    log.info("Dropped empty {}", legacy);
+                    return true;
+                }
+                YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+                String partition = table + "_p" + month.format(SUFFIX);
+                if (!month.isBefore(upper.minusMonths(1))) {
+                    inTransaction(connection, () -> {
+                        execute(connection, "SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+                        execute(connection, "ALTER TABLE " + legacy + " RENAME TO " + partition);
+                    });
+                    log.info("{} holds a single month now, renamed to {}", legacy, partition);
+                    return true;
+                }
+                long moved = moveMonth(connection, table, legacy, partition, month, upper);
+                log.info("Split {} row(s) of {} from {} into {}", moved, month, legacy, partition);
+                return true;
+            } finally {
+                unlock(connection, lockKey);
+            }
+        }));
+    }
+
+    private long moveMonth(Connection connection, String table, String legacy, String partition,
+                           YearMonth month, YearMonth upper) throws SQLException {
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String until = upper.atDay(1).toString();
+        String inMonth = " WHERE created_at >= TIMESTAMP '" + from + "' AND created_at < TIMESTAMP '" + to + "'";
+        String bound = legacy + "_split_bound";
+        long[] moved = new long[1];
+        inTransaction(connection, () -> {
+            execute(connection, "SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+            // Bảng cha: chặn DDL khác nhưng không chặn ghi vào các tháng khác; legacy: chỉ còn đọc
+            execute(connection, "LOCK TABLE ONLY " + table + " IN SHARE UPDATE EXCLUSIVE MODE");
+            execute(connection, "LOCK TABLE " + legacy + " IN EXCLUSIVE MODE");
+
+            // Có sẵn index như bảng cha để ATTACH gắn vào thay vì build trong lúc giữ khóa
+            execute(connection, "CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING INDEXES)");
+            moved[0] = update(connection, "INSERT INTO " + partition + " SELECT * FROM " + legacy + inMonth);
+            update(connection, "DELETE FROM " + legacy + inMonth);
+
+            execute(connection, "ALTER TABLE " + legacy + " ADD CONSTRAINT " + bound +
+                    " CHECK (created_at >= TIMESTAMP '" + to + "' AND created_at < TIMESTAMP '" + until + "')");
+            execute(connection, "ALTER TABLE " + table + " DETACH PARTITION " + legacy);
+            execute(connection, "ALTER TABLE " + table + " ATTACH PARTITION " + legacy +
+                    " FOR VALUES FROM ('" + to + "') TO ('" + until + "')");
+            execute(connection, "ALTER TABLE " + legacy + " DROP CONSTRAINT " + bound);
+            execute(connection, "ALTER TABLE " + table + " ATTACH PARTITION " + partition +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        });
+        return moved[0];
+    }
+
+    private List<String> convert(Connection connection, TablePartitionManager.PartitionedTable table) throws SQLException {
+        String name = table.name();
+        String legacy = name + "_p_legacy";
+        String bound = name + "_partition_bound";
+        String key = name + "_id_created_key";
+        log.info("Converting {} to a monthly partitioned table...", name);
+
+        // Legacy giữ cả tháng hiện tại để dòng insert trong lúc chuyển vẫn thỏa CHECK
+        Timestamp latest = queryTimestamp(connection, "SELECT MAX(created_at) FROM " + name);
+        LocalDateTime newest = latest == null || latest.toLocalDateTime().isBefore(LocalDateTime.now())
+                ? LocalDateTime.now()
+                : latest.toLocalDateTime();
+        String upper = YearMonth.from(newest).plusMonths(1).atDay(1).toString();
+
+        execute(connection, "UPDATE " + name + " SET created_at = TIMESTAMP '" + upper + "' - INTERVAL '1 second' " +
+                "WHERE created_at IS NULL");
+        execute(connection, "ALTER TABLE " + name + " DROP CONSTRAINT IF EXISTS " + bound);
+        execute(connection, "ALTER TABLE " + name + " ADD CONSTRAINT " + bound +
+                " CHECK (created_at IS NOT NULL AND created_at < TIMESTAMP '" + upper + "') NOT VALID");
+        execute(connection, "ALTER TABLE " + name + " VALIDATE CONSTRAINT " + bound);
+
+        // Lần chạy trước bị ngắt giữa chừng có thể để lại index INVALID
+        execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + key);
+        execute(connection, "CREATE UNIQUE INDEX CONCURRENTLY " + key + " ON " + name + " (id, created_at)");
+
+        List<String> droppedForeignKeys = new ArrayList<>();
+        connection.setAutoCommit(false);
+        try {
+            execute(connection, "SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+            execute(connection, "LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+
+            for (String[] fk : queryRows(connection,
+                    "SELECT conrelid::regclass::text, conname, pg_get_constraintdef(oid) FROM pg_constraint " +
+                    "WHERE contype = 'f' AND confrelid = ?::regclass", name)) {
+                String definition = fk[0] + "." + fk[1] + ": " + fk[2];
+                log.warn("Dropping foreign key {} that references {} (not supported on partitioned tables)",
+                        definition, name);
+                execute(connection, "ALTER TABLE " + fk[0] + " DROP CONSTRAINT " + fk[1]);
+                droppedForeignKeys.add(definition);
+            }
+
+            // Khóa chính cũ (id) nhường chỗ cho index (id, created_at) đã build sẵn
+            for (String[] pk : queryRows(connection,
+                    "SELECT conname FROM pg_constraint WHERE contype = 'p' AND conrelid = ?::regclass", name)) {
+                execute(connection, "ALTER TABLE " + name + " DROP CONSTRAINT " + pk[0]);
+            }
+            execute(connection, "ALTER TABLE " + name + " ALTER COLUMN created_at SET NOT NULL");
+            execute(connection, "ALTER TABLE " + name + " ADD CONSTRAINT " + legacy + "_pkey PRIMARY KEY USING INDEX " + key);
+            execute(connection, "ALTER TABLE " + name + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            execute(connection, "ALTER TABLE " + name + " ALTER COLUMN id DROP DEFAULT");
+
+            execute(connection, "ALTER TABLE " + name + " RENAME TO " + legacy);
+            // Tên index là duy nhất trong schema: đổi tên để bảng cha dùng lại tên cũ
+            for (String[] index : queryRows(connection,
+                    "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ? " +
+                    "AND indexname <> ?", legacy, legacy + "_pkey")) {
+                execute(connection, "ALTER INDEX " + index[0] + " RENAME TO " + index[0] + "_legacy");
+            }
+
+            execute(connection, "CREATE TABLE " + name + " (LIKE " + legacy + " INCLUDING DEFAULTS) " +
+                    "PARTITION BY RANGE (created_at)");
+            execute(connection, "ALTER TABLE " + name + " ADD CONSTRAINT " + name + "_pkey PRIMARY KEY (id, created_at)");
+            execute(connection, "ALTER TABLE " + name + " ATTACH PARTITION " + legacy +
+                    " FOR VALUES FROM (MINVALUE) TO ('" + upper + "')");
+            execute(connection, "ALTER TABLE " + legacy + " DROP CONSTRAINT " + bound);
+
+            // Partition đã có index/FK tương đương thì được gắn vào bảng cha, không build hay validate lại
+            for (String index : table.indexes()) {
+                execute(connection, "CREATE INDEX IF NOT EXISTS " + index.replaceFirst(" ", " ON " + name + " "));
+            }
+            for (String[] fk : queryRows(connection,
+                    "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint " +
+                    "WHERE contype = 'f' AND conrelid = ?::regclass", legacy)) {
+                execute(connection, "ALTER TABLE " + name + " ADD CONSTRAINT " + fk[0] + " " + fk[1]);
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO schema_migrations (version, notes) VALUES (?, ?)")) {
+                statement.setString(1, version(name));
+                statement.setString(2, droppedForeignKeys.isEmpty() ? null
+                        : "Dropped foreign keys:\n" + String.join("\n", droppedForeignKeys));
+                statement.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        log.info("{} is now partitioned, existing rows kept in {} (until {})", name, legacy, upper);
+        return droppedForeignKeys;
+    }
+
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    private static void inTransaction(Connection connection, SqlWork work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Khóa phiên theo bảng, dùng chung cho migrate và splitLegacyMonth
+    private static String lockKey(String table) {
+        return "partition:" + table;
+    }
+
+    private static boolean tryLock(Connection connection, String lockKey) throws SQLException {
+        return queryLong(connection,
+                "SELECT CASE WHEN pg_try_advisory_lock(hashtext(?)) THEN 1 ELSE 0 END", lockKey) == 1;
+    }
+
+    private static void unlock(Connection connection, String lockKey) throws SQLException {
+        queryLong(connection, "SELECT 1 FROM (SELECT pg_advisory_unlock(hashtext(?))) l", lockKey);
+    }
+
+    private boolean applied(Connection connection, String table) throws SQLException {
+        return !queryRows(connection, "SELECT version FROM schema_migrations WHERE version = ?", version(table)).isEmpty();
+    }
+
+    private String relationKind(Connection connection, String table) throws SQLException {
+        List<String[]> kinds = queryRows(connection,
+                "SELECT c.relkind::text FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = current_schema() AND c.relname = ?", table);
+        return kinds.isEmpty() ? null : kinds.get(0)[0];
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long update(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeLargeUpdate(sql);
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql, String parameter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, parameter);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static Timestamp queryTimestamp(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getTimestamp(1);
+        }
+    }
+
+    // Mỗi dòng là mảng các cột kiểu text
+    private static List<String[]> queryRows(Connection connection, String sql, String... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<String[]> rows = new ArrayList<>();
+                int columns = resultSet.getMetaData().getColumnCount();
+                while (resultSet.next()) {
+                    String[] row = new String[columns];
+                    for (int i = 0; i < columns; i++) {
+                        row[i] = resultSet.getString(i + 1);
+                    }
+                    rows.add(row);
+                }
+                return rows;
+            }
+        }
+    }
+}
@@ -1,76 +1,60 @@
 package com.workhub.api.config;
 
-import lombok.RequiredArgsConstructor;
+import com.workhub.api.service.RateLimiter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
 
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
+/**
+ * Policy rate limit cho các route /api/** (RateLimitFilter); việc đếm do RateLimiter thực hiện.
+ */
 @Configuration
-@RequiredArgsConstructor
 public class RateLimitConfig {
 
-    private final RedisTemplate<String, Object> redisTemplate;
-
-    @Value("${app.rate-limit.register.capacity}")
-    private int registerCapacity;
-
-    @Value("${app.rate-limit.register.refill-duration}")
-    private long registerRefillDuration;
-
-    @Value("${app.rate-limit.login.capacity}")
-    private int loginCapacity;
-
-    @Value("${app.rate-limit.login.refill-duration}")
-    private long loginRefillDuration;
-
-    public boolean isAllowed(String key, int limit, long windowSeconds) {
-        String redisKey = "rate:" + key;
-        Long count = redisTemplate.opsForValue().increment(redisKey);
-
-        if (count != null && count == 1) {
-            redisTemplate.expire(redisKey, windowSeconds, TimeUnit.SECONDS);
+    public record Policy(String name, HttpMethod method, String pattern, int limit, long windowSeconds,
+                         boolean perUser) {
+    }
+
+    private final RateLimiter rateLimiter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Policy> policies;
+
+    public RateLimitConfig(RateLimiter rateLimiter,
+                           @Value("${app.rate-limit.register.capacity}") int registerCapacity,
+                           @Value("${app.rate-limit.register.refill-duration}") long registerRefillDuration,
+                           @Value("${app.rate-limit.login.capacity}") int loginCapacity,
+                           @Value("${app.rate-limit.login.refill-duration}") long loginRefillDuration,
+                           @Value("${app.rate-limit.api.write.capacity:60}") int writeCapacity,
+                           @Value("${app.rate-limit.api.read.capacity:300}") int readCapacity) {
+        this.rateLimiter = rateLimiter;
+        // Policy đầu tiên khớp method + path được áp dụng
+        this.policies = List.of(
+                new Policy("register", HttpMethod.POST, "/api/auth/register", registerCapacity, registerRefillDuration, false),
+                new Policy("login", HttpMethod.POST, "/api/auth/login", loginCapacity, loginRefillDuration, false),
+                new Policy("otp", HttpMethod.POST, "/api/auth/verify-otp", 5, 600, false),
+                new Policy("otp", HttpMethod.POST, "/api/auth/resend-otp", 5, 600, false),
+                new Policy("forgot", HttpMethod.POST, "/api/auth/forgot-password", 3, 3600, false),
+                new Policy("forgot", HttpMethod.POST, "/api/auth/reset-password", 3, 3600, false),
+                new Policy("auth", HttpMethod.POST, "/api/auth/**", 20, 60, false),
+                new Policy("api-read", HttpMethod.GET, "/api/**", readCapacity, 60, true),
+                new Policy("api-write", null, "/api/**", writeCapacity, 60, true)
+        );
+    }
+
+    public Policy resolvePolicy(String method, String path) {
+        for (Policy policy : policies) {
+            if ((policy.method() == null || policy.method().matches(method))
+                    && pathMatcher.match(policy.pattern(), path)) {
+                return policy;
+            }
         }
-
-        return count != null && count <= limit;
-    }
-
-    public long getRetryAfter(String key) {
-        String redisKey = "rate:" + key;
-        Long ttl = redisTemplate.getExpire(redisKey, TimeUnit.SECONDS);
-        return ttl != null && ttl > 0 ? ttl : 0;
-    }
-
-    public boolean isRegisterAllowed(String ip) {
-        return isAllowed("register:" + ip, registerCapacity, registerRefillDuration);
-    }
-
-    public boolean isLoginAllowed(String ip) {
-        return isAllowed("login:" + ip, loginCapacity, loginRefillDuration);
-    }
-
-    public boolean isOtpAllowed(String ip) {
-        return isAllowed("otp:" + ip, 5, 600); // 5 attempts per 10 minutes
-    }
-
-    public boolean isForgotPasswordAllowed(String ip) {
-        return isAllowed("forgot:" + ip, 3, 3600); // 3 attempts per hour
-    }
-
-    public long getRegisterRetryAfter(String ip) {
-        return getRetryAfter("register:" + ip);
-    }
-
-    public long getLoginRetryAfter(String ip) {
-        return getRetryAfter("login:" + ip);
-    }
-
-    public long getOtpRetryAfter(String ip) {
-        return getRetryAfter("otp:" + ip);
+        return null;
     }
 
-    public long getForgotPasswordRetryAfter(String ip) {
-        return getRetryAfter("forgot:" + ip);
+    public RateLimiter.Result check(Policy policy, String subject) {
+        return rateLimiter.tryAcquire(policy.name(), subject, policy.limit(), policy.windowSeconds());
     }
 }
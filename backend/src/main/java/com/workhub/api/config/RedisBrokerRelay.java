@@ -0,0 +1,124 @@
+package com.workhub.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Chuyển tiếp message server gửi tới "/user/..." và "/topic/..." sang các instance khác qua Redis pub/sub.
+ * Simple broker chỉ biết session trên JVM của nó; instance nhận được sẽ đưa message vào brokerChannel
+ * của mình để UserDestinationMessageHandler tự resolve ra session local (không có thì bỏ qua).
+ * Bật khi app.websocket.broker-mode=redis.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker-mode", havingValue = "redis", matchIfMissing = true)
+public class RedisBrokerRelay implements ChannelInterceptor, MessageListener {
+
+    private static final String CHANNEL = "ws:broker";
+    // Đánh dấu message đến từ instance khác để không phát lại vòng tròn
+    private static final String RELAYED_HEADER = "workhubRelayed";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplateProvider;
+    private final ObjectMapper objectMapper;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private record Envelope(String origin, String destination, String contentType, byte[] payload) {
+    }
+
+    public RedisBrokerRelay(StringRedisTemplate stringRedisTemplate,
+                            RedisMessageListenerContainer redisMessageListenerContainer,
+                            ObjectProvider<SimpMessagingTemplate> messagingTemplateProvider,
+                            ObjectMapper objectMapper) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.messagingTemplateProvider = messagingTemplateProvider;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || destination == null
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || !(destination.startsWith("/user/") || destination.startsWith("/topic/"))) {
+            return message;
+        }
+
+        byte[] payload = payloadBytes(message.getPayload());
+        if (payload == null) {
+            log.warn("Cannot relay message to {}: unsupported payload {}", destination,
+                    message.getPayload().getClass().getSimpleName());
+            return message;
+        }
+
+        MimeType contentType = accessor.getContentType();
+        try {
+            Envelope envelope = new Envelope(instanceId, destination,
+                    contentType != null ? contentType.toString() : null, payload);
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(envelope));
+        } catch (Exception e) {
+            log.warn("Failed to relay message to {}: {}", destination, e.getMessage());
+        }
+        return message; // vẫn giao cho session trên instance này như bình thường
+    }
+
+    @Override
+    public void onMessage(org.springframework.data.redis.connection.Message message, byte[] pattern) {
+        try {
+            Envelope envelope = objectMapper.readValue(message.getBody(), Envelope.class);
+            if (instanceId.equals(envelope.origin())) {
+                return;
+            }
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(envelope.destination());
+            if (envelope.contentType() != null) {
+                accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, true);
+
+            messagingTemplateProvider.getObject().getMessageChannel()
+                    .send(MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.warn("Failed to deliver relayed message: {}", e.getMessage());
+        }
+    }
+
+    private byte[] payloadBytes(Object payload) {
+        if (payload instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (payload instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+}
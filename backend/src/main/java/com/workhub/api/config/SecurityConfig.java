@@ -1,5 +1,6 @@
 package com.workhub.api.config;
 
+import com.workhub.api.security.RateLimitFilter;
 import com.workhub.api.security.UserDetailsServiceImpl;
 import com.workhub.api.security.jwt.AuthEntryPoint;
 import com.workhub.api.security.jwt.JwtAuthFilter;
@@ -38,6 +39,7 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final AuthEntryPoint unauthorizedHandler;
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitConfig rateLimitConfig;
     
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
@@ -88,17 +90,22 @@ public class SecurityConfig {
                         .requestMatchers("/health").permitAll()
                         .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/files/**").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/jobs").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/jobs/{id}").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/jobs/search").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/jobs/feed").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/jobs/by-skills").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/payments/callback").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 );
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        // Sau JwtAuthFilter để giới hạn theo userId khi đã đăng nhập
+        http.addFilterAfter(new RateLimitFilter(rateLimitConfig), JwtAuthFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,205 @@
+package com.workhub.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partition theo tháng (RANGE created_at) cho các bảng tăng không giới hạn.
+ * - Lần đầu: PartitionMigration chuyển bảng cũ thành partition {table}_p_legacy (MINVALUE -> hết tháng hiện tại
+ *   hoặc tháng của dòng mới nhất), không copy dữ liệu; khóa chính thành (id, created_at). Instance khác đang
+ *   chuyển thì bỏ qua, lượt bảo trì sau (PartitionArchiver) gọi lại setUp. Sau đó mỗi lượt bảo trì tách tháng
+ *   cũ nhất của legacy ra partition riêng cho tới khi hết legacy.
+ * - Luôn có sẵn partition cho tháng hiện tại và PRECREATE_MONTHS tháng tới, cùng partition DEFAULT dự phòng.
+ *   Dòng rơi vào DEFAULT (tháng chưa có partition) được chuyển sang partition tháng của nó ở lượt bảo trì sau.
+ * Hibernate vẫn đọc/ghi qua tên bảng cha; query có điều kiện created_at chỉ chạm các partition liên quan.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class TablePartitionManager {
+
+    private static final int PRECREATE_MONTHS = 2;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    public record PartitionedTable(String name, List<String> indexes) {
+    }
+
+    public record Partition(String name, LocalDateTime upperBound) {
+    }
+
+    // Index phải khớp @Table(indexes) của entity để Hibernate (ddl-auto=update) không tạo thêm
+    public static final List<PartitionedTable> TABLES = List.of(
+            new PartitionedTable("notifications", List.of(
+                    "idx_notification_user_created (user_id, created_at, id)",
+                    "idx_notification_user_activity (user_id, last_aggregated_at, id)",
+                    "idx_notification_user_read (user_id, is_read)")),
+            new PartitionedTable("chat_messages", List.of(
+                    "idx_chat_message_conversation (conversation_id)",
+                    "idx_chat_message_sender (sender_id)",
+                    "idx_chat_message_created_at (created_at)",
+                    "idx_chat_message_conversation_created (conversation_id, created_at, id)",
+                    "idx_chat_message_file (file_id)")),
+            new PartitionedTable("job_histories", List.of(
+                    "idx_job_history_job_created (job_id, created_at)"))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionMigration partitionMigration;
+
+    public TablePartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 PartitionMigration partitionMigration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionMigration = partitionMigration;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (PartitionedTable table : TABLES) {
+            try {
+                setUp(table);
+            } catch (Exception e) {
+                log.warn("Failed to set up partitions for {}: {}", table.name(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Chuyển bảng sang partition nếu chưa chuyển rồi tạo partition còn thiếu; gọi lại an toàn.
+     */
+    public void setUp(PartitionedTable table) {
+        partitionMigration.migrate(table);
+        ensurePartitions(table.name());
+    }
+
+    /**
+     * Tách một tháng cũ nhất khỏi partition legacy; false khi không còn legacy (hoặc instance khác đang làm).
+     */
+    public boolean splitLegacyMonth(String table) {
+        return "p".equals(relationKind(table)) && partitionMigration.splitLegacyMonth(table);
+    }
+
+    /**
+     * Tạo partition cho tháng hiện tại tới PRECREATE_MONTHS tháng tới (bỏ qua tháng đã có),
+     * và cho mọi tháng đang có dòng nằm trong partition DEFAULT.
+     */
+    public void ensurePartitions(String table) {
+        if (!"p".equals(relationKind(table))) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        LocalDateTime coveredUntil = partitions(table).stream()
+                .map(Partition::upperBound)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+
+        String defaultPartition = table + "_p_default";
+        boolean hasDefault = relationKind(defaultPartition) != null;
+        Set<YearMonth> months = new TreeSet<>();
+        for (int i = 0; i <= PRECREATE_MONTHS; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (coveredUntil != null && !month.atDay(1).atStartOfDay().isAfter(coveredUntil.minusNanos(1))) {
+                continue; // legacy hoặc partition đã có bao phủ tháng này
+            }
+            months.add(month);
+        }
+        if (hasDefault) {
+            // Tháng trong DEFAULT chắc chắn chưa có partition (nếu có thì dòng đã được định tuyến vào đó)
+            for (Timestamp month : jdbcTemplate.queryForList(
+                    "SELECT DISTINCT date_trunc('month', created_at) FROM " + defaultPartition, Timestamp.class)) {
+                months.add(YearMonth.from(month.toLocalDateTime()));
+            }
+        }
+        for (YearMonth month : months) {
+            createMonthPartition(table, month, hasDefault);
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + defaultPartition + " PARTITION OF " + table + " DEFAULT");
+    }
+
+    /**
+     * Partition (trừ DEFAULT) cùng cận trên; dùng cho archiver.
+     */
+    public List<Partition> partitions(String table) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound " +
+                "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = ?::regclass", table);
+        List<Partition> partitions = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            Matcher matcher = UPPER_BOUND.matcher(String.valueOf(row.get("bound")));
+            if (matcher.find()) {
+                partitions.add(new Partition((String) row.get("name"),
+                        Timestamp.valueOf(matcher.group(1)).toLocalDateTime()));
+            }
+        }
+        return partitions;
+    }
+
+    public void dropPartition(String table, String partition) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+        log.info("Dropped partition {} of {}", partition, table);
+    }
+
+    private void createMonthPartition(String table, YearMonth month, boolean hasDefault) {
+        String partition = table + "_p" + month.format(SUFFIX);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String create = "CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        String defaultPartition = table + "_p_default";
+        String inRange = " WHERE created_at >= TIMESTAMP '" + from + "' AND created_at < TIMESTAMP '" + to + "'";
+        try {
+            if (!hasDefault || !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + inRange + ")", Boolean.class))) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            // Postgres không cho tạo partition khi DEFAULT đang chứa dòng thuộc khoảng đó:
+            // tách DEFAULT ra, tạo partition, chuyển các dòng sang rồi gắn DEFAULT lại trong cùng transaction
+            Long moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + defaultPartition);
+                jdbcTemplate.execute(create);
+                Long count = jdbcTemplate.queryForObject(
+                        "WITH moved AS (DELETE FROM " + defaultPartition + inRange + " RETURNING *), " +
+                        "inserted AS (INSERT INTO " + table + " SELECT * FROM moved RETURNING 1) " +
+                        "SELECT COUNT(*) FROM inserted", Long.class);
+                jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+                return count;
+            });
+            if (moved != null && moved > 0) {
+                log.info("Moved {} row(s) from {} into {}", moved, defaultPartition, partition);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to create partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private String relationKind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT c.relkind::text FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = current_schema() AND c.relname = ?", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+}
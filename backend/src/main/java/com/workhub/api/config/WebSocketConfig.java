@@ -1,8 +1,11 @@
 package com.workhub.api.config;
 
+import com.workhub.api.security.UserDetailsServiceImpl;
 import com.workhub.api.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -17,7 +20,6 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -30,12 +32,15 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final ObjectProvider<RedisBrokerRelay> redisBrokerRelay;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable simple broker for topics (broadcast) and queues (user-specific)
         config.enableSimpleBroker("/topic", "/queue");
+        // Chạy nhiều instance: message gửi tới user/topic được phát sang instance khác qua Redis
+        redisBrokerRelay.ifAvailable(relay -> config.configureBrokerChannel().interceptors(relay));
         // Prefix for messages FROM client TO server
         config.setApplicationDestinationPrefixes("/app");
         // Prefix for user-specific messages
@@ -64,9 +69,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         String token = authHeader.substring(7);
                         
                         try {
-                            if (jwtUtils.validateJwtToken(token)) {
-                                String identifier = jwtUtils.getEmailFromJwtToken(token);
-                                UserDetails userDetails = userDetailsService.loadUserByUsername(identifier);
+                            Claims claims = jwtUtils.parseClaims(token);
+                            if (claims != null) {
+                                UserDetails userDetails = userDetailsService.loadUserByClaims(claims);
                                 
                                 UsernamePasswordAuthenticationToken authentication = 
                                     new UsernamePasswordAuthenticationToken(
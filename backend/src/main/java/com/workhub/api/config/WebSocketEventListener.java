@@ -26,7 +26,7 @@ public class WebSocketEventListener {
             UsernamePasswordAuthenticationToken auth = (UsernamePasswordAuthenticationToken) headerAccessor.getUser();
             UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
             
-            chatService.userConnected(userDetails.getId());
+            chatService.userConnected(userDetails.getId(), headerAccessor.getSessionId());
             log.info("User connected: {} (ID: {})", userDetails.getUsername(), userDetails.getId());
         }
     }
@@ -39,7 +39,7 @@ public class WebSocketEventListener {
             UsernamePasswordAuthenticationToken auth = (UsernamePasswordAuthenticationToken) headerAccessor.getUser();
             UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
             
-            chatService.userDisconnected(userDetails.getId());
+            chatService.userDisconnected(userDetails.getId(), headerAccessor.getSessionId());
             log.info("User disconnected: {} (ID: {})", userDetails.getUsername(), userDetails.getId());
         }
     }
@@ -6,6 +6,7 @@ import com.workhub.api.dto.request.SendMessageRequest;
 import com.workhub.api.dto.request.UpdateMessageRequest;
 import com.workhub.api.dto.response.ChatMessageResponse;
 import com.workhub.api.dto.response.ConversationResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.dto.response.UserSearchResponse;
 import com.workhub.api.security.UserDetailsImpl;
 import com.workhub.api.service.ChatService;
@@ -115,6 +116,18 @@ public class ChatController {
         return ResponseEntity.ok(ApiResponse.success(messages));
     }
 
+    @GetMapping("/conversations/{conversationId}/messages/cursor")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ChatMessageResponse>>> getMessagesByCursor(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        CursorPageResponse<ChatMessageResponse> messages = chatService.getMessagesByCursor(
+                conversationId, userDetails.getId(), cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(messages));
+    }
+
     @PostMapping("/conversations/{conversationId}/read")
     public ResponseEntity<ApiResponse<Void>> markAsRead(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
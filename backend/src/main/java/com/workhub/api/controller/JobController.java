@@ -8,6 +8,7 @@ import com.workhub.api.dto.request.RevisionRequest;
 import com.workhub.api.dto.request.SubmitWorkRequest;
 import com.workhub.api.dto.request.UpdateJobRequest;
 import com.workhub.api.dto.response.ApiResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.dto.response.JobApplicationResponse;
 import com.workhub.api.dto.response.JobContractResponse;
 import com.workhub.api.dto.response.JobHistoryResponse;
@@ -64,6 +65,14 @@ public class JobController {
         return ResponseEntity.ok(jobService.getOpenJobs(page, size, sortBy, sortDir));
     }
 
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<CursorPageResponse<JobResponse>>> getOpenJobsFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(jobService.getOpenJobsFeed(cursor, size));
+    }
+
     @GetMapping("/{id:\\d+}")
     public ResponseEntity<ApiResponse<JobResponse>> getJobById(@PathVariable Long id) {
         return ResponseEntity.ok(jobService.getJobByIdAndIncrementView(id));
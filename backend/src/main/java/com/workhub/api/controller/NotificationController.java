@@ -1,16 +1,19 @@
 package com.workhub.api.controller;
 
 import com.workhub.api.dto.response.ApiResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.dto.response.NotificationResponse;
 import com.workhub.api.security.UserDetailsImpl;
 import com.workhub.api.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -38,6 +41,25 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getNotifications(userDetails.getId(), page, size));
     }
 
+    // Get notifications by cursor (keyset, no total count)
+    @GetMapping("/feed")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPageResponse<NotificationResponse>>> getNotificationsFeed(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(notificationService.getNotificationsFeed(userDetails.getId(), cursor, size));
+    }
+
+    // Notifications created before `since` that were merged after it (feed order does not change on merge)
+    @GetMapping("/feed/merged")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<NotificationResponse>>> getMergedNotifications(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(notificationService.getMergedSince(userDetails.getId(), since));
+    }
+
     // Get unread count
     @GetMapping("/unread-count")
     @PreAuthorize("isAuthenticated()")
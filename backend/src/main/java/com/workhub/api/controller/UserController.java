@@ -61,9 +61,7 @@ public class UserController {
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @RequestParam String walletAddress) {
 
-        User user = userService.getById(userDetails.getId());
-        user.setWalletAddress(walletAddress);
-        user = userService.save(user);
+        User user = userService.updateWalletAddress(userDetails.getId(), walletAddress);
         return ResponseEntity.ok(ApiResponse.success("Đã lưu địa chỉ ví", buildUserResponse(user)));
     }
 
@@ -68,6 +68,8 @@ public class ChatMessageResponse {
         private String readableSize;
         private Integer width;
         private Integer height;
+        private String thumbnailUrl;
+        private String mediumUrl;
     }
 
     public static ChatMessageResponse fromEntity(ChatMessage message) {
@@ -118,6 +120,8 @@ public class ChatMessageResponse {
                     .readableSize(file.getReadableSize())
                     .width(file.getWidth())
                     .height(file.getHeight())
+                    .thumbnailUrl(file.getThumbnailUrl())
+                    .mediumUrl(file.getMediumUrl())
                     .build());
         }
 
@@ -25,6 +25,8 @@ public class FileUploadResponse {
     private String readableSize;
     private Integer width;
     private Integer height;
+    private String thumbnailUrl;
+    private String mediumUrl;
     private String usage;
     private String referenceType;
     private Long referenceId;
@@ -18,7 +18,10 @@ public class NotificationResponse {
     private Long referenceId;
     private String referenceType;
     private Boolean isRead;
+    private Integer aggregateCount;
+    private String actorName;
     private LocalDateTime createdAt;
+    private LocalDateTime lastAggregatedAt;
 
     public static NotificationResponse fromEntity(Notification notification) {
         return NotificationResponse.builder()
@@ -30,7 +33,10 @@ public class NotificationResponse {
                 .referenceId(notification.getReferenceId())
                 .referenceType(notification.getReferenceType())
                 .isRead(notification.getIsRead())
+                .aggregateCount(notification.getAggregateCount())
+                .actorName(notification.getActorName())
                 .createdAt(notification.getCreatedAt())
+                .lastAggregatedAt(notification.getLastAggregatedAt())
                 .build();
     }
 
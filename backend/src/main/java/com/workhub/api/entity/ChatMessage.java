@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 @Table(name = "chat_messages", indexes = {
     @Index(name = "idx_chat_message_conversation", columnList = "conversation_id"),
     @Index(name = "idx_chat_message_sender", columnList = "sender_id"),
-    @Index(name = "idx_chat_message_created_at", columnList = "created_at")
+    @Index(name = "idx_chat_message_created_at", columnList = "created_at"),
+    @Index(name = "idx_chat_message_conversation_created", columnList = "conversation_id, created_at, id"),
+    @Index(name = "idx_chat_message_file", columnList = "file_id")
 })
 @Getter
 @Setter
@@ -20,7 +22,8 @@ import java.time.LocalDateTime;
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -58,8 +61,9 @@ public class ChatMessage {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Không có FK: bảng partition theo created_at nên khóa chính là (id, created_at)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "reply_to_id")
+    @JoinColumn(name = "reply_to_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private ChatMessage replyTo;
     
     @ManyToOne(fetch = FetchType.LAZY)
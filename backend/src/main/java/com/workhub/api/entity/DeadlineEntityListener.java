@@ -0,0 +1,36 @@
+package com.workhub.api.entity;
+
+import com.workhub.api.service.DeadlineScheduler;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Đăng ký deadline vào DeadlineScheduler mỗi khi Job / Dispute / DisputeRound được ghi.
+ * Hibernate tạo listener qua SpringBeanContainer nên inject được bean;
+ * dùng ObjectProvider để tránh vòng phụ thuộc với EntityManagerFactory.
+ */
+public class DeadlineEntityListener {
+
+    private final ObjectProvider<DeadlineScheduler> deadlineScheduler;
+
+    public DeadlineEntityListener(ObjectProvider<DeadlineScheduler> deadlineScheduler) {
+        this.deadlineScheduler = deadlineScheduler;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        DeadlineScheduler scheduler = deadlineScheduler.getIfAvailable();
+        if (scheduler == null) {
+            return;
+        }
+        if (entity instanceof Job job) {
+            scheduler.armJob(job);
+        } else if (entity instanceof Dispute dispute) {
+            scheduler.armDispute(dispute);
+        } else if (entity instanceof DisputeRound round) {
+            scheduler.armRound(round);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.workhub.api.entity;
+public enum EDeadlineType {
+    APPLICATION,        // Job.applicationDeadline - hết hạn ứng tuyển
+    SIGNING,            // Job.acceptedAt + hạn ký hợp đồng
+    WORK_SUBMISSION,    // Job.workSubmissionDeadline - hạn nộp sản phẩm
+    WORK_REVIEW,        // Job.workReviewDeadline - hạn duyệt sản phẩm
+    DISPUTE_EVIDENCE,   // Dispute.evidenceDeadline - hạn freelancer gửi bằng chứng
+    ADMIN_VOTE          // DisputeRound.voteDeadline - hạn admin vote
+}
@@ -0,0 +1,7 @@
+package com.workhub.api.entity;
+
+public enum EOutboxEventType {
+    STOMP,          // Frame gửi tới /user/{identifier}/...
+    NOTIFICATION,   // Đẩy thông báo + cập nhật bộ đếm chưa đọc
+    EMAIL_OTP       // Email mã OTP
+}
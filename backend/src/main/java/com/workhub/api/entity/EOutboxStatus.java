@@ -0,0 +1,6 @@
+package com.workhub.api.entity;
+
+public enum EOutboxStatus {
+    PENDING,    // Chờ gửi hoặc chờ thử lại
+    DEAD        // Hết số lần thử, cần xử lý tay
+}
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
     @Index(name = "idx_file_upload_uploader", columnList = "uploader_id"),
     @Index(name = "idx_file_upload_usage", columnList = "usage"),
     @Index(name = "idx_file_upload_reference", columnList = "reference_type, reference_id"),
-    @Index(name = "idx_file_upload_public_id", columnList = "public_id")
+    @Index(name = "idx_file_upload_public_id", columnList = "public_id"),
+    @Index(name = "idx_file_upload_blob", columnList = "blob_id")
 })
 @Getter
 @Builder
@@ -23,7 +24,8 @@ public class FileUpload {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(name = "public_id", nullable = false, unique = true, length = 255)
+    // Không unique: các file trùng nội dung dùng chung một object trên storage (xem StoredBlob)
+    @Column(name = "public_id", nullable = false, length = 255)
     private String publicId;
 
     @Column(name = "url", nullable = false, length = 500)
@@ -31,6 +33,15 @@ public class FileUpload {
 
     @Column(name = "secure_url", nullable = false, length = 500)
     private String secureUrl;
+
+    // Backend đang giữ nội dung (StorageBackend.name()); null = cloudinary (dòng cũ)
+    @Column(name = "storage_backend", length = 20)
+    private String storageBackend;
+
+    // Null với file upload trước khi có dedup, hoặc sau khi đã trả tham chiếu (xóa mềm)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    private StoredBlob blob;
     
     @Column(name = "original_filename", nullable = false, length = 255)
     private String originalFilename;
@@ -48,11 +59,22 @@ public class FileUpload {
     @Column(name = "size_bytes", nullable = false)
     private Long sizeBytes;
 
+    // SHA-256 (hex) của nội dung, tính trong lúc stream lên storage
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "width")
     private Integer width;
 
     @Column(name = "height")
     private Integer height;
+
+    // Bản thu nhỏ của ảnh (null: tài liệu, ảnh cũ hoặc ảnh đã nhỏ hơn cỡ biến thể)
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url", length = 500)
+    private String mediumUrl;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "usage", nullable = false, length = 30)
@@ -94,6 +116,10 @@ public class FileUpload {
         this.deletedAt = LocalDateTime.now();
     }
 
+    public void detachBlob() {
+        this.blob = null;
+    }
+
     public boolean isOwnedBy(Long userId) {
         return this.uploader != null && this.uploader.getId().equals(userId);
     }
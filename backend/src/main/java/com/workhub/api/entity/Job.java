@@ -2,6 +2,7 @@ package com.workhub.api.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,11 +12,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+    @Index(name = "idx_job_status_created", columnList = "status, created_at, id")
+})
 @Getter
 @Builder
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
+@EntityListeners(DeadlineEntityListener.class)
 public class Job {
 
     @Id
@@ -40,6 +44,7 @@ public class Job {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "job_skills", joinColumns = @JoinColumn(name = "job_id"))
     @Column(name = "skill", length = 100)
+    @BatchSize(size = 50)
     @Builder.Default
     private Set<String> skills = new HashSet<>();
 
@@ -123,7 +128,8 @@ public class Job {
     @JoinColumn(name = "employer_id", nullable = false)
     private User employer;
 
-    @Column(name = "view_count", nullable = false)
+    // Chỉ tăng bằng UPDATE cộng dồn từ JobViewCounter, save() của entity không ghi đè
+    @Column(name = "view_count", nullable = false, updatable = false)
     @Builder.Default
     private Integer viewCount = 0;
 
@@ -217,10 +223,6 @@ public class Job {
         }
     }
 
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-
     public void incrementApplicationCount() {
         this.applicationCount++;
     }
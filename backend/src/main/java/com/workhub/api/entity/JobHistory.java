@@ -7,7 +7,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "job_histories")
+@Table(name = "job_histories", indexes = {
+    @Index(name = "idx_job_history_job_created", columnList = "job_id, created_at")
+})
 @Getter
 @Builder
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -15,7 +17,8 @@ import java.time.LocalDateTime;
 public class JobHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_histories_seq")
+    @SequenceGenerator(name = "job_histories_seq", sequenceName = "job_histories_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -7,7 +7,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notification_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_notification_user_activity", columnList = "user_id, last_aggregated_at, id"),
+    @Index(name = "idx_notification_user_read", columnList = "user_id, is_read")
+})
 @Getter
 @Setter
 @Builder
@@ -15,7 +19,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence (pooled, 50 id mỗi lần) để Hibernate gom INSERT thành JDBC batch; IDENTITY thì không batch được
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,15 +44,43 @@ public class Notification {
     // Type of reference entity
     private String referenceType;
 
+    // Thông báo gộp (ví dụ nhiều người ứng tuyển cùng job): số sự kiện đã gộp và người gần nhất
+    @Builder.Default
+    @Column(name = "aggregate_count", columnDefinition = "INTEGER NOT NULL DEFAULT 1")
+    private Integer aggregateCount = 1;
+
+    private String actorName;
+
     @Builder.Default
     @Column(name = "is_read", nullable = false)
     private Boolean isRead = false;
 
+    // Khóa partition và mốc của cửa sổ gộp: không bao giờ đổi sau khi tạo
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Lần cuối có sự kiện (tạo hoặc gộp); danh sách gần đây sắp theo cột này, feed theo cursor thì không.
+    // Dòng cũ được NotificationSchemaInitializer điền từ created_at rồi đặt NOT NULL
+    @Column(name = "last_aggregated_at")
+    private LocalDateTime lastAggregatedAt;
+
+    @PrePersist
+    void initLastAggregatedAt() {
+        if (lastAggregatedAt == null) {
+            lastAggregatedAt = LocalDateTime.now();
+        }
+    }
+
     public void markAsRead() {
         this.isRead = true;
     }
+
+    // Đẩy thông báo lên đầu danh sách như một thông báo mới; created_at giữ nguyên
+    public void aggregate(String actorName, String message) {
+        this.aggregateCount = aggregateCount + 1;
+        this.actorName = actorName;
+        this.message = message;
+        this.lastAggregatedAt = LocalDateTime.now();
+    }
 }
@@ -0,0 +1,62 @@
+package com.workhub.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Side effect (STOMP, push thông báo, email) ghi cùng transaction với thay đổi nghiệp vụ,
+ * OutboxDispatcher gửi sau khi commit. Gửi xong thì xóa dòng; chỉ còn lại dòng chờ thử lại và DEAD.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next", columnList = "status, next_attempt_at, id"),
+    @Index(name = "idx_outbox_recipient", columnList = "recipient, status, id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    // IDENTITY thay vì sequence pooled: mỗi instance giữ một khối id riêng thì thứ tự id không còn là thứ tự insert
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EOutboxEventType type;
+
+    // Khóa thứ tự: các event cùng recipient được gửi đúng thứ tự id
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EOutboxStatus status = EOutboxStatus.PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    // Quá thời điểm này event không còn ý nghĩa (vd. email OTP khi mã đã hết hạn): bỏ, không thử lại
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
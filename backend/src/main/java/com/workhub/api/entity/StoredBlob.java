@@ -0,0 +1,79 @@
+package com.workhub.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một nội dung file đã lưu trên storage, dùng chung cho mọi FileUpload cùng SHA-256, cùng loại trên cùng backend
+ * (loại file quyết định resource_type trên Cloudinary nên không dùng chung giữa ảnh và tài liệu).
+ * refCount = số FileUpload (chưa xóa) đang trỏ tới; về 0 thì xóa dòng này và object trên storage.
+ */
+@Entity
+@Table(name = "stored_blobs", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stored_blob_backend_hash", columnNames = {"storage_backend", "file_type", "content_hash"})
+})
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "storage_backend", nullable = false, length = 20)
+    private String storageBackend;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "file_type", nullable = false, length = 20)
+    private EFileType fileType;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "storage_key", nullable = false, length = 255)
+    private String storageKey;
+
+    @Column(name = "url", nullable = false, length = 500)
+    private String url;
+
+    @Column(name = "secure_url", nullable = false, length = 500)
+    private String secureUrl;
+
+    @Column(name = "format", length = 20)
+    private String format;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url", length = 500)
+    private String mediumUrl;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Bỏ một tham chiếu; true nếu đây là tham chiếu cuối.
+     */
+    public boolean release() {
+        this.refCount = Math.max(0, this.refCount - 1);
+        return this.refCount == 0;
+    }
+}
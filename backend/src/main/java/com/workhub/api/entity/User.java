@@ -2,6 +2,7 @@ package com.workhub.api.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -58,6 +59,7 @@ public class User {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_skills", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "skill", length = 100)
+    @BatchSize(size = 50)
     @Builder.Default
     private Set<String> skills = new HashSet<>();
     
@@ -72,6 +74,7 @@ public class User {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_open_to_work_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role", length = 100)
+    @BatchSize(size = 50)
     @Builder.Default
     private Set<String> openToWorkRoles = new HashSet<>();
     
@@ -119,6 +122,7 @@ public class User {
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
+    @BatchSize(size = 50)
     @Builder.Default
     private Set<Role> roles = new HashSet<>();
     
@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -19,9 +20,22 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT m FROM ChatMessage m LEFT JOIN FETCH m.replyTo r LEFT JOIN FETCH r.sender WHERE m.conversation = :conversation ORDER BY m.createdAt DESC")
     Page<ChatMessage> findByConversationWithReplyTo(@Param("conversation") Conversation conversation, Pageable pageable);
 
-    Page<ChatMessage> findByConversationOrderByCreatedAtDesc(Conversation conversation, Pageable pageable);
+    // Keyset pagination cho lịch sử chat: (createdAt, id) giảm dần, không COUNT.
+    // Điều kiện cursor là so sánh theo bộ để thành Index Cond trên idx_chat_message_conversation_created
+    @Query("SELECT m FROM ChatMessage m LEFT JOIN FETCH m.replyTo r LEFT JOIN FETCH r.sender " +
+           "WHERE m.conversation = :conversation ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMessage> findHistoryFirst(@Param("conversation") Conversation conversation, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m LEFT JOIN FETCH m.replyTo r LEFT JOIN FETCH r.sender " +
+           "WHERE m.conversation = :conversation " +
+           "AND (m.createdAt, m.id) < (:cursorCreatedAt, :cursorId) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMessage> findHistoryAfter(@Param("conversation") Conversation conversation,
+                                       @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
 
-    List<ChatMessage> findByConversationOrderByCreatedAtAsc(Conversation conversation);
+    Page<ChatMessage> findByConversationOrderByCreatedAtDesc(Conversation conversation, Pageable pageable);
 
     // Mark messages as READ when user opens conversation
     @Modifying
@@ -44,9 +58,21 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
             @Param("senderId") Long senderId,
             @Param("status") EMessageStatus status);
 
-    // Find all SENT messages for a receiver (to mark as DELIVERED when they come online)
-    @Query("SELECT m FROM ChatMessage m WHERE m.conversation IN " +
-            "(SELECT c FROM Conversation c WHERE c.initiator.id = :userId OR c.receiver.id = :userId) " +
-            "AND m.sender.id != :userId AND m.status = 'SENT'")
-    List<ChatMessage> findAllSentMessagesForUser(@Param("userId") Long userId);
+    /**
+     * Đánh dấu DELIVERED mọi tin SENT gửi tới user trong một câu lệnh, trả về theo (conversation, sender):
+     * [conversationId, senderId, senderIdentifier, maxMessageId, count].
+     */
+    @Query(value = "WITH delivered AS (" +
+            "  UPDATE chat_messages m SET status = 'DELIVERED' " +
+            "  FROM conversations c " +
+            "  WHERE m.conversation_id = c.id " +
+            "    AND (c.initiator_id = :userId OR c.receiver_id = :userId) " +
+            "    AND m.sender_id <> :userId AND m.status = 'SENT' " +
+            "  RETURNING m.conversation_id, m.sender_id, m.id" +
+            ") " +
+            "SELECT d.conversation_id, d.sender_id, COALESCE(u.email, u.wallet_address), MAX(d.id), COUNT(*) " +
+            "FROM delivered d JOIN users u ON u.id = d.sender_id " +
+            "GROUP BY d.conversation_id, d.sender_id, u.email, u.wallet_address",
+            nativeQuery = true)
+    List<Object[]> markAllDeliveredForUser(@Param("userId") Long userId);
 }
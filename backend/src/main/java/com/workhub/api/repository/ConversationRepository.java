@@ -4,10 +4,13 @@ import com.workhub.api.entity.Conversation;
 import com.workhub.api.entity.EConversationStatus;
 import com.workhub.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,4 +43,19 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     // Đếm số tin nhắn chưa đọc
     @Query("SELECT COUNT(c) FROM Conversation c WHERE ((c.initiator.id = :userId AND c.initiatorUnreadCount > 0) OR (c.receiver.id = :userId AND c.receiverUnreadCount > 0)) AND c.status = 'ACCEPTED'")
     Long countUnreadConversations(@Param("userId") Long userId);
+
+    // Tin cuối (do người kia gửi) chuyển SENT -> DELIVERED khi user online
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageStatus = 'DELIVERED', c.updatedAt = :now " +
+           "WHERE c.id IN :conversationIds AND c.lastMessageSenderId <> :userId AND c.lastMessageStatus = 'SENT'")
+    int markLastMessageDelivered(@Param("conversationIds") Collection<Long> conversationIds,
+                                 @Param("userId") Long userId,
+                                 @Param("now") LocalDateTime now);
+
+    // Identifier (email hoặc ví) của những người đang theo dõi trạng thái online của user: đối phương trong các hội thoại ACCEPTED
+    @Query("SELECT CASE WHEN c.initiator.id = :userId " +
+           "THEN COALESCE(c.receiver.email, c.receiver.walletAddress) " +
+           "ELSE COALESCE(c.initiator.email, c.initiator.walletAddress) END " +
+           "FROM Conversation c WHERE (c.initiator.id = :userId OR c.receiver.id = :userId) AND c.status = 'ACCEPTED'")
+    List<String> findPresenceWatcherIdentifiers(@Param("userId") Long userId);
 }
@@ -2,27 +2,40 @@ package com.workhub.api.repository;
 
 import com.workhub.api.entity.Dispute;
 import com.workhub.api.entity.EDisputeStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DisputeRepository extends JpaRepository<Dispute, Long> {
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM Dispute d WHERE d.id = :id")
+    Optional<Dispute> findByIdForDeadline(@Param("id") Long id);
+
     @Query("SELECT d FROM Dispute d " +
            "LEFT JOIN FETCH d.employer " +
            "LEFT JOIN FETCH d.freelancer " +
            "WHERE d.job.id = :jobId")
     Optional<Dispute> findByJobId(@Param("jobId") Long jobId);
 
+    @Query("SELECT d FROM Dispute d WHERE d.job.id IN :jobIds")
+    List<Dispute> findByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
+
     boolean existsByJobIdAndStatusIn(Long jobId, List<EDisputeStatus> statuses);
 
     // Admin queries
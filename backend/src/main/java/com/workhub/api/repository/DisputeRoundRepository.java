@@ -2,8 +2,12 @@ package com.workhub.api.repository;
 
 import com.workhub.api.entity.DisputeRound;
 import com.workhub.api.entity.EDisputeRoundStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +17,11 @@ import java.util.Optional;
 
 @Repository
 public interface DisputeRoundRepository extends JpaRepository<DisputeRound, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM DisputeRound r WHERE r.id = :id")
+    Optional<DisputeRound> findByIdForDeadline(@Param("id") Long id);
     
     List<DisputeRound> findByDisputeIdOrderByRoundNumber(Long disputeId);
     
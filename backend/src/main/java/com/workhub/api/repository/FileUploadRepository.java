@@ -10,14 +10,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FileUploadRepository extends JpaRepository<FileUpload, Long> {
 
-    Optional<FileUpload> findByPublicIdAndIsDeletedFalse(String publicId);
-
     Optional<FileUpload> findByIdAndIsDeletedFalse(Long id);
 
     Page<FileUpload> findByUploaderIdAndIsDeletedFalseOrderByCreatedAtDesc(
@@ -50,6 +49,31 @@ public interface FileUploadRepository extends JpaRepository<FileUpload, Long> {
 
     boolean existsByIdAndUploaderIdAndIsDeletedFalse(Long id, Long uploaderId);
 
+    // GC: file chưa gắn vào đâu quá hạn, phân trang keyset theo id
+    @Query("SELECT f FROM FileUpload f " +
+           "WHERE f.referenceType IS NULL " +
+           "AND f.isDeleted = false " +
+           "AND f.usage IN :usages " +
+           "AND f.createdAt < :before " +
+           "AND f.id > :afterId " +
+           "ORDER BY f.id ASC")
+    List<FileUpload> findUnassignedBefore(@Param("usages") List<EFileUsage> usages,
+                                          @Param("before") LocalDateTime before,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    // GC: dòng đã xóa mềm quá hạn giữ lại mà không còn tin nhắn nào trỏ tới
+    @Query(value = "SELECT f.id FROM file_uploads f " +
+                   "WHERE f.is_deleted = true " +
+                   "AND f.deleted_at < :before " +
+                   "AND f.id > :afterId " +
+                   "AND NOT EXISTS (SELECT 1 FROM chat_messages m WHERE m.file_id = f.id) " +
+                   "ORDER BY f.id ASC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findPurgeableDeletedIds(@Param("before") LocalDateTime before,
+                                       @Param("afterId") Long afterId,
+                                       @Param("limit") int limit);
+
     @Query("SELECT f FROM FileUpload f " +
            "WHERE f.referenceType = 'USER' " +
            "AND f.referenceId = :userId " +
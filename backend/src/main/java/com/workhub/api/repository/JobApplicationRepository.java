@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,6 +42,10 @@ public interface JobApplicationRepository extends JpaRepository<JobApplication,
 
     Optional<JobApplication> findFirstByJobIdAndStatus(Long jobId, EApplicationStatus status);
 
+    @Query("SELECT a FROM JobApplication a JOIN FETCH a.freelancer WHERE a.job.id IN :jobIds AND a.status = :status")
+    List<JobApplication> findByJobIdInAndStatusWithFreelancer(@Param("jobIds") Collection<Long> jobIds,
+                                                             @Param("status") EApplicationStatus status);
+
     @Modifying
     void deleteByJobId(Long jobId);
 }
@@ -3,20 +3,35 @@ package com.workhub.api.repository;
 import com.workhub.api.entity.EJobStatus;
 import com.workhub.api.entity.EPendingBlockchainAction;
 import com.workhub.api.entity.Job;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface JobRepository extends JpaRepository<Job, Long> {
 
     Page<Job> findByEmployerId(Long employerId, Pageable pageable);
 
+    // Khóa dòng khi xử lý deadline (FOR UPDATE SKIP LOCKED): instance khác đang giữ dòng thì trả rỗng
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM Job j WHERE j.id = :id")
+    Optional<Job> findByIdForDeadline(@Param("id") Long id);
+
+    // Trang chi tiết: employer đi cùng câu lấy job, JobResponseAssembler không phải tra lại
+    @Query("SELECT j FROM Job j JOIN FETCH j.employer WHERE j.id = :id")
+    Optional<Job> findByIdWithEmployer(@Param("id") Long id);
+
     Page<Job> findByStatus(EJobStatus status, Pageable pageable);
 
     Page<Job> findByStatusOrderByCreatedAtDesc(EJobStatus status, Pageable pageable);
@@ -24,6 +39,24 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     @Query("SELECT j FROM Job j WHERE j.status = :status AND (j.applicationDeadline IS NULL OR j.applicationDeadline > :now)")
     Page<Job> findByStatusAndNotExpired(@Param("status") EJobStatus status, @Param("now") java.time.LocalDateTime now, Pageable pageable);
 
+    // Keyset pagination cho feed job: (createdAt, id) giảm dần, không COUNT.
+    // So sánh theo bộ (createdAt, id) < (...) để PostgreSQL dùng làm Index Cond trên idx_job_status_created;
+    // dạng OR tách rời chỉ được áp như Filter sau khi đã đọc dòng
+    @Query("SELECT j FROM Job j WHERE j.status = :status AND (j.applicationDeadline IS NULL OR j.applicationDeadline > :now) " +
+           "ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findOpenFeedFirst(@Param("status") EJobStatus status,
+                                @Param("now") java.time.LocalDateTime now,
+                                Pageable pageable);
+
+    @Query("SELECT j FROM Job j WHERE j.status = :status AND (j.applicationDeadline IS NULL OR j.applicationDeadline > :now) " +
+           "AND (j.createdAt, j.id) < (:cursorCreatedAt, :cursorId) " +
+           "ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findOpenFeedAfter(@Param("status") EJobStatus status,
+                                @Param("now") java.time.LocalDateTime now,
+                                @Param("cursorCreatedAt") java.time.LocalDateTime cursorCreatedAt,
+                                @Param("cursorId") Long cursorId,
+                                Pageable pageable);
+
     Page<Job> findByEmployerIdAndStatus(Long employerId, EJobStatus status, Pageable pageable);
 
     @Query("SELECT j FROM Job j WHERE j.status = :status AND " +
@@ -35,12 +68,33 @@ public interface JobRepository extends JpaRepository<Job, Long> {
                          @Param("now") java.time.LocalDateTime now,
                          Pageable pageable);
 
+    // Full-text search trên jobs.search_vector (xem JobSearchIndexInitializer), xếp theo độ liên quan
+    @Query(value = "SELECT j.* FROM jobs j " +
+                   "WHERE j.status = :status " +
+                   "AND (j.application_deadline IS NULL OR j.application_deadline > :now) " +
+                   "AND j.search_vector @@ to_tsquery('simple', workhub_unaccent(:query)) " +
+                   "ORDER BY ts_rank_cd(j.search_vector, to_tsquery('simple', workhub_unaccent(:query))) DESC, " +
+                   "j.created_at DESC",
+           countQuery = "SELECT COUNT(*) FROM jobs j " +
+                        "WHERE j.status = :status " +
+                        "AND (j.application_deadline IS NULL OR j.application_deadline > :now) " +
+                        "AND j.search_vector @@ to_tsquery('simple', workhub_unaccent(:query))",
+           nativeQuery = true)
+    Page<Job> fullTextSearch(@Param("query") String tsQuery,
+                             @Param("status") String status,
+                             @Param("now") java.time.LocalDateTime now,
+                             Pageable pageable);
+
     @Query("SELECT DISTINCT j FROM Job j JOIN j.skills s WHERE s IN :skills AND j.status = :status AND (j.applicationDeadline IS NULL OR j.applicationDeadline > :now)")
     Page<Job> findBySkillsAndStatus(@Param("skills") List<String> skills, 
                                      @Param("status") EJobStatus status,
                                      @Param("now") java.time.LocalDateTime now,
                                      Pageable pageable);
 
+    // Dữ liệu dựng JobSkillIndex: mỗi dòng là [id, createdAt, applicationDeadline, skill]
+    @Query("SELECT j.id, j.createdAt, j.applicationDeadline, s FROM Job j JOIN j.skills s WHERE j.status = :status")
+    List<Object[]> findSkillIndexRows(@Param("status") EJobStatus status);
+
     long countByEmployerId(Long employerId);
 
     long countByEmployerIdAndStatus(Long employerId, EJobStatus status);
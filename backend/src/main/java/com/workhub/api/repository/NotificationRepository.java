@@ -2,27 +2,65 @@ package com.workhub.api.repository;
 
 import com.workhub.api.entity.ENotificationType;
 import com.workhub.api.entity.Notification;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    Page<Notification> findByUserIdOrderByLastAggregatedAtDescIdDesc(Long userId, Pageable pageable);
     
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
     
-    List<Notification> findTop20ByUserIdOrderByCreatedAtDesc(Long userId);
+    // Keyset pagination: (createdAt, id) giảm dần, không COUNT; so sánh theo bộ để seek thẳng trên index.
+    // Không dùng lastAggregatedAt: dòng được gộp giữa hai lần lấy trang sẽ nhảy qua cursor và bị bỏ sót
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedFirst(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (n.createdAt, n.id) < (:cursorCreatedAt, :cursorId) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedAfter(@Param("userId") Long userId,
+                                     @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+    
+    // Dòng tạo trước mốc since nhưng được gộp sau đó (feed đã tải không thấy thay đổi này)
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND n.lastAggregatedAt > :since AND n.createdAt <= :since " +
+           "ORDER BY n.lastAggregatedAt DESC, n.id DESC")
+    List<Notification> findMergedSince(@Param("userId") Long userId,
+                                       @Param("since") LocalDateTime since,
+                                       Pageable pageable);
+    
+    List<Notification> findTop20ByUserIdOrderByLastAggregatedAtDescIdDesc(Long userId);
     
     long countByUserIdAndIsReadFalse(Long userId);
     
+    // Thông báo chưa đọc cùng (user, type, reference) còn hoạt động trong cửa sổ gộp và chưa quá hạn gộp
+    // (createdAfter: cửa sổ không trượt mãi); khóa dòng để các lần gộp đồng thời chạy tuần tự
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.type = :type " +
+           "AND n.referenceId = :referenceId AND n.isRead = false " +
+           "AND n.lastAggregatedAt >= :since AND n.createdAt >= :createdAfter " +
+           "ORDER BY n.lastAggregatedAt DESC")
+    List<Notification> findAggregationTarget(@Param("userId") Long userId,
+                                             @Param("type") ENotificationType type,
+                                             @Param("referenceId") Long referenceId,
+                                             @Param("since") LocalDateTime since,
+                                             @Param("createdAfter") LocalDateTime createdAfter,
+                                             Pageable pageable);
+    
     List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
     
     @Modifying
@@ -30,8 +68,11 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     int markAllAsReadByUserId(@Param("userId") Long userId);
     
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = :userId")
+    // Chỉ đếm khi thực sự đổi từ chưa đọc sang đã đọc (để trừ bộ đếm unread đúng)
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
     int markAsRead(@Param("id") Long id, @Param("userId") Long userId);
     
+    boolean existsByIdAndUserId(Long id, Long userId);
+    
     boolean existsByUserIdAndReferenceIdAndType(Long userId, Long referenceId, ENotificationType type);
 }
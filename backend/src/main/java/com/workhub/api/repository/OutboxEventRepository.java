@@ -0,0 +1,34 @@
+package com.workhub.api.repository;
+
+import com.workhub.api.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Event đến hạn, bỏ qua recipient còn event cũ hơn đang chờ thử lại để giữ thứ tự.
+    // Khóa dòng SKIP LOCKED: instance khác đang gửi lô nào thì lô đó bị bỏ qua, hai instance không gửi trùng
+    @Query(value = "SELECT e.* FROM outbox_events e " +
+                   "WHERE e.status = 'PENDING' AND e.type IN (:types) AND e.next_attempt_at <= :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM outbox_events p WHERE p.recipient = e.recipient " +
+                   "AND p.status = 'PENDING' AND p.id < e.id AND p.next_attempt_at > :now) " +
+                   "ORDER BY e.id LIMIT :limit FOR UPDATE OF e SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> claimDispatchable(@Param("types") List<String> types,
+                                        @Param("now") LocalDateTime now,
+                                        @Param("limit") int limit);
+
+    // Dòng trong lô vừa khóa mà recipient còn event PENDING cũ hơn nằm ngoài lô (instance khác đang giữ):
+    // phải chờ event đó gửi xong mới tới lượt
+    @Query(value = "SELECT e.id FROM outbox_events e WHERE e.id IN (:ids) " +
+                   "AND EXISTS (SELECT 1 FROM outbox_events p WHERE p.recipient = e.recipient " +
+                   "AND p.status = 'PENDING' AND p.id < e.id AND p.id NOT IN (:ids))",
+           nativeQuery = true)
+    List<Long> findQueuedBehindOthers(@Param("ids") List<Long> ids);
+}
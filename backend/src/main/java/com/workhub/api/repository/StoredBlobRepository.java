@@ -0,0 +1,54 @@
+package com.workhub.api.repository;
+
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findByStorageBackendAndFileTypeAndContentHash(
+            String storageBackend, EFileType fileType, String contentHash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.id = :id")
+    Optional<StoredBlob> findByIdForUpdate(@Param("id") Long id);
+
+    // Tăng refCount nguyên tử; 0 nếu chưa có blob (hoặc vừa bị xóa bởi tham chiếu cuối)
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1 " +
+           "WHERE b.storageBackend = :backend AND b.fileType = :fileType AND b.contentHash = :hash AND b.refCount > 0")
+    int incrementRefCount(@Param("backend") String backend,
+                          @Param("fileType") EFileType fileType,
+                          @Param("hash") String hash);
+
+    // Hai upload trùng nội dung chạy song song: chỉ một dòng được ghi, bên kia nhận 0
+    @Modifying
+    @Query(value = "INSERT INTO stored_blobs (storage_backend, file_type, content_hash, storage_key, url, secure_url, " +
+                   "format, size_bytes, width, height, thumbnail_url, medium_url, ref_count, created_at) " +
+                   "VALUES (:backend, :fileType, :hash, :key, :url, :secureUrl, " +
+                   "CAST(:format AS VARCHAR), :sizeBytes, CAST(:width AS INTEGER), CAST(:height AS INTEGER), " +
+                   "CAST(:thumbnailUrl AS VARCHAR), CAST(:mediumUrl AS VARCHAR), 1, now()) " +
+                   "ON CONFLICT (storage_backend, file_type, content_hash) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("backend") String backend,
+                       @Param("fileType") String fileType,
+                       @Param("hash") String hash,
+                       @Param("key") String key,
+                       @Param("url") String url,
+                       @Param("secureUrl") String secureUrl,
+                       @Param("format") String format,
+                       @Param("sizeBytes") Long sizeBytes,
+                       @Param("width") Integer width,
+                       @Param("height") Integer height,
+                       @Param("thumbnailUrl") String thumbnailUrl,
+                       @Param("mediumUrl") String mediumUrl);
+}
@@ -2,6 +2,7 @@ package com.workhub.api.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.workhub.api.config.RateLimitConfig;
+import com.workhub.api.service.RateLimiter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +10,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.stereotype.Component;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -30,37 +32,42 @@ public class RateLimitFilter extends OncePerRequestFilter {
         String path = request.getRequestURI();
         String method = request.getMethod();
 
-        if (!path.startsWith("/api/auth") || !"POST".equalsIgnoreCase(method)) {
+        if (!path.startsWith("/api/") || "OPTIONS".equalsIgnoreCase(method)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String clientIP = getClientIP(request);
-        boolean allowed = true;
-        long retryAfter = 0;
-
-        if (path.equals("/api/auth/register")) {
-            allowed = rateLimitConfig.isRegisterAllowed(clientIP);
-            retryAfter = rateLimitConfig.getRegisterRetryAfter(clientIP);
-        } else if (path.equals("/api/auth/login")) {
-            allowed = rateLimitConfig.isLoginAllowed(clientIP);
-            retryAfter = rateLimitConfig.getLoginRetryAfter(clientIP);
-        } else if (path.equals("/api/auth/verify-otp") || path.equals("/api/auth/resend-otp")) {
-            allowed = rateLimitConfig.isOtpAllowed(clientIP);
-            retryAfter = rateLimitConfig.getOtpRetryAfter(clientIP);
-        } else if (path.equals("/api/auth/forgot-password") || path.equals("/api/auth/reset-password")) {
-            allowed = rateLimitConfig.isForgotPasswordAllowed(clientIP);
-            retryAfter = rateLimitConfig.getForgotPasswordRetryAfter(clientIP);
+        RateLimitConfig.Policy policy = rateLimitConfig.resolvePolicy(method, path);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Result result = rateLimitConfig.check(policy, resolveSubject(request, policy));
+        if (result.remaining() >= 0) {
+            response.setHeader("X-RateLimit-Limit", String.valueOf(policy.limit()));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(result.remaining()));
         }
 
-        if (!allowed) {
-            sendRateLimitResponse(response, retryAfter);
+        if (!result.allowed()) {
+            sendRateLimitResponse(response, result.retryAfterSeconds());
             return;
         }
 
         filterChain.doFilter(request, response);
     }
 
+    // Route của user đã đăng nhập tính theo userId (nhiều người chung NAT không ảnh hưởng nhau), còn lại theo IP
+    private String resolveSubject(HttpServletRequest request, RateLimitConfig.Policy policy) {
+        if (policy.perUser()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+                return "user:" + user.getId();
+            }
+        }
+        return "ip:" + getClientIP(request);
+    }
+
     private String getClientIP(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
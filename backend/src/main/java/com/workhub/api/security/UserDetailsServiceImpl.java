@@ -2,6 +2,7 @@ package com.workhub.api.security;
 
 import com.workhub.api.entity.User;
 import com.workhub.api.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserDetailsServiceImpl implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
     
     @Override
     @Transactional
@@ -28,4 +30,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         }
         return UserDetailsImpl.build(user);
     }
+    
+    /**
+     * Dùng cho request đã có JWT hợp lệ: lấy principal từ cache theo userId trong claims.
+     * Token cũ không có userId thì tra theo subject như trước.
+     */
+    public UserDetails loadUserByClaims(Claims claims) throws UsernameNotFoundException {
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null) {
+            return loadUserByUsername(claims.getSubject());
+        }
+        return userPrincipalCache.get(userId);
+    }
 }
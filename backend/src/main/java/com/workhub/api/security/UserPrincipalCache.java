@@ -0,0 +1,100 @@
+package com.workhub.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.workhub.api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Cache UserDetailsImpl theo userId để JwtAuthFilter không phải đọc User (kèm 3 collection EAGER) mỗi request.
+ * Xóa khi profile, role hoặc trạng thái thay đổi; các instance khác được báo qua Redis pub/sub.
+ * TTL giới hạn độ trễ nếu một thông báo bị mất.
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache implements MessageListener {
+
+    private static final String CHANNEL = "users:principal-invalidate";
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final Cache<Long, UserDetailsImpl> cache;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              StringRedisTemplate stringRedisTemplate,
+                              RedisMessageListenerContainer redisMessageListenerContainer,
+                              @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public UserDetailsImpl get(Long userId) {
+        return cache.get(userId, id -> userRepository.findById(id)
+                .map(UserDetailsImpl::build)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id)));
+    }
+
+    /**
+     * Gọi khi email/ví, tên, role, enabled hoặc emailVerified của user đổi.
+     * Chỉ xóa sau commit để request song song không nạp lại dữ liệu cũ vào cache.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAndPublish(userId);
+                }
+            });
+        } else {
+            invalidateAndPublish(userId);
+        }
+    }
+
+    private void invalidateAndPublish(Long userId) {
+        cache.invalidate(userId);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, userId.toString());
+        } catch (Exception e) {
+            log.warn("Failed to publish principal invalidation for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            cache.invalidate(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid principal invalidation message");
+        }
+    }
+}
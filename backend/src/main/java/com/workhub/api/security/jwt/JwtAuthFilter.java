@@ -1,6 +1,7 @@
 package com.workhub.api.security.jwt;
 
 import com.workhub.api.security.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -33,11 +34,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String subject = jwtUtils.getEmailFromJwtToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+            if (claims != null) {
+                UserDetails userDetails = userDetailsService.loadUserByClaims(claims);
                 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
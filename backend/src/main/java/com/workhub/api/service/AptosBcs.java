@@ -0,0 +1,126 @@
+package com.workhub.api.service;
+
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * BCS encoder tối thiểu cho giao dịch entry function của Aptos, thay cho việc gọi /transactions/encode_submission.
+ * Chỉ hỗ trợ các kiểu BlockchainService đang dùng: address, u64, string, vector<u8>.
+ */
+final class AptosBcs {
+
+    private static final int PAYLOAD_ENTRY_FUNCTION = 2;
+    private static final int AUTHENTICATOR_ED25519 = 0;
+    private static final byte[] RAW_TRANSACTION_SALT = sha3("APTOS::RawTransaction".getBytes(StandardCharsets.UTF_8));
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private AptosBcs() {
+    }
+
+    /**
+     * RawTransaction với payload EntryFunction; mọi argument là u64.
+     * function có dạng "0xaddress::module::function".
+     */
+    static byte[] rawEntryFunctionTransaction(String sender, long sequenceNumber, String function, long[] u64Args,
+                                              long maxGasAmount, long gasUnitPrice, long expirationSecs, int chainId) {
+        String[] parts = function.split("::");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid entry function: " + function);
+        }
+
+        AptosBcs bcs = new AptosBcs()
+                .address(sender)
+                .u64(sequenceNumber)
+                .uleb128(PAYLOAD_ENTRY_FUNCTION)
+                .address(parts[0])
+                .string(parts[1])
+                .string(parts[2])
+                .uleb128(0) // type arguments
+                .uleb128(u64Args.length);
+        for (long arg : u64Args) {
+            bcs.bytes(new AptosBcs().u64(arg).toByteArray());
+        }
+        return bcs.u64(maxGasAmount)
+                .u64(gasUnitPrice)
+                .u64(expirationSecs)
+                .u8(chainId)
+                .toByteArray();
+    }
+
+    static byte[] signingMessage(byte[] rawTransaction) {
+        byte[] message = new byte[RAW_TRANSACTION_SALT.length + rawTransaction.length];
+        System.arraycopy(RAW_TRANSACTION_SALT, 0, message, 0, RAW_TRANSACTION_SALT.length);
+        System.arraycopy(rawTransaction, 0, message, RAW_TRANSACTION_SALT.length, rawTransaction.length);
+        return message;
+    }
+
+    static byte[] signedTransaction(byte[] rawTransaction, byte[] publicKey, byte[] signature) {
+        return new AptosBcs()
+                .fixedBytes(rawTransaction)
+                .uleb128(AUTHENTICATOR_ED25519)
+                .bytes(publicKey)
+                .bytes(signature)
+                .toByteArray();
+    }
+
+    private AptosBcs u8(int value) {
+        out.write(value & 0xFF);
+        return this;
+    }
+
+    private AptosBcs u64(long value) {
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xFF);
+        }
+        return this;
+    }
+
+    private AptosBcs uleb128(int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+        return this;
+    }
+
+    private AptosBcs fixedBytes(byte[] value) {
+        out.writeBytes(value);
+        return this;
+    }
+
+    private AptosBcs bytes(byte[] value) {
+        return uleb128(value.length).fixedBytes(value);
+    }
+
+    private AptosBcs string(String value) {
+        return bytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Địa chỉ luôn 32 byte, "0x1" -> 31 byte 0 + 0x01
+    private AptosBcs address(String hex) {
+        String clean = hex.startsWith("0x") ? hex.substring(2) : hex;
+        if (clean.length() > 64) {
+            throw new IllegalArgumentException("Invalid address: " + hex);
+        }
+        return fixedBytes(Hex.decode("0".repeat(64 - clean.length()) + clean));
+    }
+
+    private byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private static byte[] sha3(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA3-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
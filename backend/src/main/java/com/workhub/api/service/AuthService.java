@@ -1,5 +1,7 @@
 package com.workhub.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.http.javanet.NetHttpTransport;
@@ -13,22 +15,31 @@ import com.workhub.api.exception.EmailNotVerifiedException;
 import com.workhub.api.exception.UserAlreadyExistsException;
 import com.workhub.api.exception.UserNotFoundException;
 import com.workhub.api.repository.RoleRepository;
+import com.workhub.api.security.UserPrincipalCache;
 import com.workhub.api.security.jwt.JwtUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
 
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
 import org.bouncycastle.crypto.signers.Ed25519Signer;
 import org.bouncycastle.util.encoders.Hex;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -44,6 +55,13 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final RestTemplate restTemplate;
+    private final UserPrincipalCache userPrincipalCache;
+
+    private final Cache<String, java.util.Map<String, Object>> googleUserInfoCache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
     
     @Value("${app.google.client-id}")
     private String googleClientId;
@@ -84,11 +102,13 @@ public class AuthService {
         User user = userService.getByEmail(req.getEmail());
         user.verifyEmail();
         userService.save(user);
+        userPrincipalCache.invalidate(user.getId());
 
         return buildAuthResponse(user, "Xác thực email thành công");
     }
 
-    @Transactional
+    // OTP gửi lại nằm trong outbox của transaction này, phải commit dù ném EmailNotVerifiedException
+    @Transactional(noRollbackFor = EmailNotVerifiedException.class)
     public ApiResponse<AuthResponse> login(LoginRequest req) {
         User user = userService.findByEmail(req.getEmail())
                 .orElseThrow(() -> new UserNotFoundException("Email không tồn tại"));
@@ -152,25 +172,11 @@ public class AuthService {
     @Transactional
     public ApiResponse<AuthResponse> googleAuth(GoogleAuthRequest req) {
         try {
-            String userInfoUrl = "https://www.googleapis.com/oauth2/v3/userinfo";
-            java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                    .uri(java.net.URI.create(userInfoUrl))
-                    .header("Authorization", "Bearer " + req.getCredential())
-                    .GET()
-                    .build();
-
-            java.net.http.HttpResponse<String> response = client.send(request, 
-                    java.net.http.HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
+            java.util.Map<String, Object> userInfo = fetchGoogleUserInfo(req.getCredential());
+            if (userInfo == null) {
                 return ApiResponse.error("Google token không hợp lệ");
             }
 
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            java.util.Map<String, Object> userInfo = mapper.readValue(response.body(), 
-                    new com.fasterxml.jackson.core.type.TypeReference<java.util.Map<String, Object>>() {});
-
             String email = (String) userInfo.get("email");
             String fullName = (String) userInfo.get("name");
             String avatarUrl = (String) userInfo.get("picture");
@@ -185,6 +191,7 @@ public class AuthService {
             if (!user.getEmailVerified()) {
                 user.verifyEmail();
                 userService.save(user);
+                userPrincipalCache.invalidate(user.getId());
             }
 
             return buildAuthResponse(user, "Đăng nhập Google thành công");
@@ -194,6 +201,40 @@ public class AuthService {
         }
     }
 
+    /**
+     * Userinfo đã xác thực được cache ngắn hạn theo hash của access token,
+     * để client gửi lại cùng token (retry, double-click) không gọi lại Google.
+     */
+    private java.util.Map<String, Object> fetchGoogleUserInfo(String accessToken) throws Exception {
+        String cacheKey = Hex.toHexString(MessageDigest.getInstance("SHA-256")
+                .digest(accessToken.getBytes(StandardCharsets.UTF_8)));
+        java.util.Map<String, Object> cached = googleUserInfoCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        String userInfoUrl = "https://www.googleapis.com/oauth2/v3/userinfo";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(userInfoUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        } catch (HttpStatusCodeException e) {
+            return null;
+        }
+
+        if (response.getStatusCode().value() != 200) {
+            return null;
+        }
+
+        com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
+        java.util.Map<String, Object> userInfo = mapper.readValue(response.getBody(),
+                new com.fasterxml.jackson.core.type.TypeReference<java.util.Map<String, Object>>() {});
+        googleUserInfoCache.put(cacheKey, userInfo);
+        return userInfo;
+    }
+
     @Transactional
     public ApiResponse<AuthResponse> walletLogin(WalletLoginRequest req) {
         try {
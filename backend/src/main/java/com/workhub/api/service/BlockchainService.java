@@ -13,9 +13,12 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.security.MessageDigest;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
 
 @Service
 @Slf4j
@@ -33,13 +36,46 @@ public class BlockchainService {
     @Value("${aptos.admin.private-key:}")
     private String adminPrivateKey;
 
-    private RestTemplate restTemplate;
+    @Value("${aptos.chain-id:2}")
+    private int chainId;
+
+    // Luồng gọi (request, transaction DB của scheduler) chỉ chờ xác nhận trong khoảng này;
+    // giao dịch vẫn được theo dõi nền tới khi hết hạn
+    @Value("${aptos.sync-confirm-timeout-seconds:30}")
+    private long syncConfirmTimeoutSeconds;
+
+    private static final MediaType BCS_SIGNED_TRANSACTION =
+            MediaType.parseMediaType("application/x.aptos.signed_transaction+bcs");
+    private static final long MAX_GAS_AMOUNT = 200000;
+    private static final long GAS_UNIT_PRICE = 100;
+    private static final long TX_EXPIRATION_SECONDS = 600;
+    private static final long EXPIRATION_GRACE_SECONDS = 5;
+    private static final long CONFIRM_POLL_INTERVAL_MS = 500;
+    private static final int MAX_IN_FLIGHT = 8;
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
+
+    private final RestTemplate restTemplate;
     private ObjectMapper objectMapper;
     private Ed25519PrivateKeyParameters privateKeyParams;
-    private String publicKeyHex;
+    private byte[] publicKeyBytes;
     private String adminAddress;
     private boolean initialized = false;
 
+    // Sequence number của tài khoản admin được quản lý cục bộ, -1 = cần đọc lại từ node
+    private final Object sequenceLock = new Object();
+    private long nextSequenceNumber = -1;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final Map<String, PendingTransaction> pendingTransactions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService confirmExecutor;
+
+    private record PendingTransaction(String hash, String function, long sequenceNumber, long expirationSecs,
+                                      CompletableFuture<String> future) {}
+
+    // RestTemplate dùng chung (pool kết nối, timeout, retry GET, metrics) từ AppConfig
+    public BlockchainService(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
     @PostConstruct
     public void init() {
         if (adminPrivateKey == null || adminPrivateKey.isEmpty()) {
@@ -48,17 +84,23 @@ public class BlockchainService {
         }
 
         try {
-            restTemplate = new RestTemplate();
             objectMapper = new ObjectMapper();
 
             String cleanKey = adminPrivateKey.startsWith("0x") ? adminPrivateKey.substring(2) : adminPrivateKey;
             byte[] privateKeyBytes = Hex.decode(cleanKey);
             privateKeyParams = new Ed25519PrivateKeyParameters(privateKeyBytes, 0);
             
-            byte[] publicKeyBytes = privateKeyParams.generatePublicKey().getEncoded();
-            publicKeyHex = "0x" + Hex.toHexString(publicKeyBytes);
+            publicKeyBytes = privateKeyParams.generatePublicKey().getEncoded();
             
             adminAddress = deriveAddress(publicKeyBytes);
+
+            confirmExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "aptos-tx-confirm");
+                thread.setDaemon(true);
+                return thread;
+            });
+            confirmExecutor.scheduleWithFixedDelay(this::confirmPendingTransactions,
+                    CONFIRM_POLL_INTERVAL_MS, CONFIRM_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
             
             initialized = true;
             log.info("BlockchainService initialized - Admin: {}, NodeURL: {}, HasApiKey: {}", 
@@ -93,7 +135,7 @@ public class BlockchainService {
     public String signRemoveFreelancerSigningTimeout(Long escrowId) {
         return submitTransaction(
             contractAddress + "::escrow::xoa_nguoi_lam_qua_han_ky",
-            new String[]{escrowId.toString()}
+            escrowId
         );
     }
 
@@ -104,7 +146,7 @@ public class BlockchainService {
     public String signRemoveFreelancerSubmissionTimeout(Long escrowId) {
         return submitTransaction(
             contractAddress + "::escrow::xoa_nguoi_lam",
-            new String[]{escrowId.toString()}
+            escrowId
         );
     }
 
@@ -115,7 +157,7 @@ public class BlockchainService {
     public String signAutoApproveReviewTimeout(Long escrowId) {
         return submitTransaction(
             contractAddress + "::escrow::tra_tien_nguoi_lam",
-            new String[]{escrowId.toString()}
+            escrowId
         );
     }
 
@@ -126,7 +168,7 @@ public class BlockchainService {
     public String signResolveDisputeTimeout(Long blockchainDisputeId) {
         return submitTransaction(
             contractAddress + "::dispute::admin_resolve_timeout_and_claim",
-            new String[]{blockchainDisputeId.toString()}
+            blockchainDisputeId
         );
     }
 
@@ -137,7 +179,7 @@ public class BlockchainService {
     public String signRefundExpiredJob(Long escrowId) {
         return submitTransaction(
             contractAddress + "::escrow::admin_refund_expired",
-            new String[]{escrowId.toString()}
+            escrowId
         );
     }
 
@@ -148,60 +190,166 @@ public class BlockchainService {
     public String signCancelEscrow(Long escrowId) {
         return submitTransaction(
             contractAddress + "::escrow::admin_cancel_escrow",
-            new String[]{escrowId.toString()}
+            escrowId
         );
     }
 
-    private String submitTransaction(String function, String[] arguments) {
+    /**
+     * Gửi giao dịch entry function (các tham số đều là u64) mà không chờ xác nhận.
+     * Sequence number được cấp cục bộ nên các sign* gọi song song (worker của DeadlineScheduler, request)
+     * cùng nằm trong mempool thay vì xếp hàng chờ nhau; future hoàn thành với tx hash khi giao dịch
+     * thành công on-chain. Caller bên ngoài đi qua các sign* (chờ có giới hạn).
+     */
+    CompletableFuture<String> submitTransactionAsync(String function, long... arguments) {
         if (!initialized) {
             throw new IllegalStateException("BlockchainService not initialized");
         }
 
         try {
-            long seqNum = getSequenceNumber();
-            long expiration = System.currentTimeMillis() / 1000 + 600;
-            
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("type", "entry_function_payload");
-            payload.put("function", function);
-            payload.put("type_arguments", new String[]{});
-            payload.put("arguments", arguments);
-
-            Map<String, Object> txRequest = new HashMap<>();
-            txRequest.put("sender", adminAddress);
-            txRequest.put("sequence_number", String.valueOf(seqNum));
-            txRequest.put("max_gas_amount", "200000");
-            txRequest.put("gas_unit_price", "100");
-            txRequest.put("expiration_timestamp_secs", String.valueOf(expiration));
-            txRequest.put("payload", payload);
-
-            String signingMessage = getSigningMessage(txRequest);
-            String signature = signMessage(signingMessage);
-
-            Map<String, Object> signatureObj = new HashMap<>();
-            signatureObj.put("type", "ed25519_signature");
-            signatureObj.put("public_key", publicKeyHex);
-            signatureObj.put("signature", signature);
-            txRequest.put("signature", signatureObj);
-
-            HttpEntity<String> request = new HttpEntity<>(objectMapper.writeValueAsString(txRequest), createHeaders());
-
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    getApiUrl() + "/transactions", request, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonNode result = objectMapper.readTree(response.getBody());
-                String txHash = result.get("hash").asText();
-                
-                waitForTransaction(txHash);
-                log.info("TX Success: {} - Hash: {}", function, txHash);
-                return txHash;
-            } else {
-                throw new RuntimeException("Submit failed: " + response.getBody());
+            if (!inFlight.tryAcquire(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Too many blockchain transactions in flight");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for blockchain slot", e);
+        }
+
+        try {
+            PendingTransaction pendingTx = submitWithLocalSequence(function, arguments);
+            // Giải phóng slot khi giao dịch kết thúc, kể cả khi thất bại
+            pendingTx.future().whenComplete((hash, error) -> inFlight.release());
+            return pendingTx.future();
         } catch (Exception e) {
+            inFlight.release();
             log.error("TX Failed: {} - Error: {}", function, e.getMessage());
-            throw new RuntimeException("Blockchain sign failed: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Blockchain sign failed: " + e.getMessage(), e));
+        }
+    }
+
+    private String submitTransaction(String function, long... arguments) {
+        try {
+            return submitTransactionAsync(function, arguments).get(syncConfirmTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Blockchain sign interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        } catch (TimeoutException e) {
+            log.warn("TX {} not confirmed within {}s, still tracking until expiration", function, syncConfirmTimeoutSeconds);
+            throw new RuntimeException("Blockchain sign failed: Transaction timeout", e);
+        }
+    }
+
+    // Cấp sequence number và gửi tuần tự để mempool nhận đúng thứ tự, không tạo lỗ hổng khi gửi lỗi.
+    // Giao dịch được ghi vào pendingTransactions ngay trong khóa để lần đồng bộ lại sau đó thấy nó
+    private PendingTransaction submitWithLocalSequence(String function, long[] arguments) throws Exception {
+        synchronized (sequenceLock) {
+            for (int attempt = 0; ; attempt++) {
+                if (nextSequenceNumber < 0) {
+                    nextSequenceNumber = getSequenceNumber();
+                }
+                long seqNum = skipInFlight(nextSequenceNumber);
+                long expiration = System.currentTimeMillis() / 1000 + TX_EXPIRATION_SECONDS;
+
+                byte[] rawTx = AptosBcs.rawEntryFunctionTransaction(adminAddress, seqNum, function, arguments,
+                        MAX_GAS_AMOUNT, GAS_UNIT_PRICE, expiration, chainId);
+                byte[] signature = signMessage(AptosBcs.signingMessage(rawTx));
+                byte[] signedTx = AptosBcs.signedTransaction(rawTx, publicKeyBytes, signature);
+
+                try {
+                    String txHash = postSignedTransaction(signedTx);
+                    nextSequenceNumber = seqNum + 1;
+                    log.info("TX Submitted: {} - Seq: {} - Hash: {}", function, seqNum, txHash);
+                    PendingTransaction pendingTx = new PendingTransaction(txHash, function, seqNum, expiration,
+                            new CompletableFuture<>());
+                    pendingTransactions.put(txHash, pendingTx);
+                    return pendingTx;
+                } catch (HttpClientErrorException e) {
+                    // Lệch sequence (giao dịch ngoài hệ thống, tx cũ bị rớt): đồng bộ lại và thử thêm một lần
+                    nextSequenceNumber = -1;
+                    if (attempt == 0 && e.getResponseBodyAsString().contains("SEQUENCE_NUMBER")) {
+                        continue;
+                    }
+                    throw new RuntimeException("Submit failed: " + e.getResponseBodyAsString(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sequence number on-chain chưa tính giao dịch còn trong mempool: bỏ qua các số đang được giao dịch
+     * chưa xác nhận giữ, nhưng vẫn lấp lại số của giao dịch đã hết hạn (nếu không các giao dịch sau nó kẹt mãi).
+     */
+    private long skipInFlight(long candidate) {
+        Set<Long> inFlightSequences = new HashSet<>();
+        for (PendingTransaction pendingTx : pendingTransactions.values()) {
+            inFlightSequences.add(pendingTx.sequenceNumber());
+        }
+        while (inFlightSequences.contains(candidate)) {
+            candidate++;
+        }
+        return candidate;
+    }
+
+    private String postSignedTransaction(byte[] signedTx) throws Exception {
+        HttpHeaders headers = createHeaders();
+        headers.setContentType(BCS_SIGNED_TRANSACTION);
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                getApiUrl() + "/transactions", new HttpEntity<>(signedTx, headers), String.class);
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RuntimeException("Submit failed: " + response.getBody());
+        }
+        return objectMapper.readTree(response.getBody()).get("hash").asText();
+    }
+
+    /**
+     * Kiểm tra các giao dịch đang chờ, chạy nền thay cho vòng chờ 30 lần x 1 giây trên luồng gọi.
+     */
+    private void confirmPendingTransactions() {
+        long nowSecs = System.currentTimeMillis() / 1000;
+        HttpEntity<String> entity = new HttpEntity<>(createHeaders());
+
+        for (PendingTransaction pendingTx : pendingTransactions.values()) {
+            try {
+                ResponseEntity<String> response = restTemplate.exchange(
+                        getApiUrl() + "/transactions/by_hash/" + pendingTx.hash(),
+                        HttpMethod.GET,
+                        entity,
+                        String.class);
+                JsonNode tx = objectMapper.readTree(response.getBody());
+
+                if (tx.has("success")) {
+                    pendingTransactions.remove(pendingTx.hash());
+                    if (tx.get("success").asBoolean()) {
+                        log.info("TX Success: {} - Hash: {}", pendingTx.function(), pendingTx.hash());
+                        pendingTx.future().complete(pendingTx.hash());
+                    } else {
+                        String vmStatus = tx.get("vm_status").asText();
+                        log.error("TX Failed: {} - Error: {}", pendingTx.function(), vmStatus);
+                        pendingTx.future().completeExceptionally(
+                                new RuntimeException("Blockchain sign failed: TX failed: " + vmStatus));
+                    }
+                    continue;
+                }
+            } catch (HttpClientErrorException.NotFound e) {
+                // Node chưa thấy giao dịch, chờ lượt sau
+            } catch (Exception e) {
+                log.debug("TX status check failed for {}: {}", pendingTx.hash(), e.getMessage());
+            }
+
+            if (nowSecs > pendingTx.expirationSecs() + EXPIRATION_GRACE_SECONDS) {
+                pendingTransactions.remove(pendingTx.hash());
+                // Giao dịch đã hết hạn thì các sequence sau nó cũng không dùng được nữa
+                synchronized (sequenceLock) {
+                    nextSequenceNumber = -1;
+                }
+                log.error("TX Failed: {} - Error: expired (seq {})", pendingTx.function(), pendingTx.sequenceNumber());
+                pendingTx.future().completeExceptionally(
+                        new RuntimeException("Blockchain sign failed: Transaction timeout"));
+            }
         }
     }
 
@@ -248,69 +396,19 @@ public class BlockchainService {
         return seqNode.asLong();
     }
 
-    private String getSigningMessage(Map<String, Object> txRequest) throws Exception {
-        String jsonBody = objectMapper.writeValueAsString(txRequest);
-        HttpEntity<String> request = new HttpEntity<>(jsonBody, createHeaders());
-        
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    getApiUrl() + "/transactions/encode_submission", request, String.class);
-            
-            String body = response.getBody();
-            if (body.startsWith("\"") && body.endsWith("\"")) {
-                return body.substring(1, body.length() - 1);
-            }
-            if (body.startsWith("{")) {
-                JsonNode result = objectMapper.readTree(body);
-                if (result.has("encoded")) {
-                    return result.get("encoded").asText();
-                }
-                if (result.has("message")) {
-                    throw new RuntimeException(result.get("message").asText());
-                }
-            }
-            return body;
-        } catch (HttpClientErrorException e) {
-            log.error("encode_submission error - Status: {}, Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new RuntimeException("encode_submission failed: " + e.getResponseBodyAsString(), e);
-        }
-    }
-
-    private String signMessage(String messageHex) {
-        byte[] message = Hex.decode(messageHex.startsWith("0x") ? messageHex.substring(2) : messageHex);
-        
+    private byte[] signMessage(byte[] message) {
         Ed25519Signer signer = new Ed25519Signer();
         signer.init(true, privateKeyParams);
         signer.update(message, 0, message.length);
-        byte[] signature = signer.generateSignature();
-        
-        return "0x" + Hex.toHexString(signature);
+        return signer.generateSignature();
     }
 
-    private void waitForTransaction(String txHash) throws Exception {
-        int maxAttempts = 30;
-        HttpEntity<String> entity = new HttpEntity<>(createHeaders());
-        for (int i = 0; i < maxAttempts; i++) {
-            try {
-                ResponseEntity<String> response = restTemplate.exchange(
-                        getApiUrl() + "/transactions/by_hash/" + txHash,
-                        HttpMethod.GET,
-                        entity,
-                        String.class);
-                JsonNode tx = objectMapper.readTree(response.getBody());
-                
-                if (tx.has("success")) {
-                    if (tx.get("success").asBoolean()) {
-                        return;
-                    } else {
-                        throw new RuntimeException("TX failed: " + tx.get("vm_status").asText());
-                    }
-                }
-            } catch (Exception e) {
-                if (i == maxAttempts - 1) throw e;
-            }
-            Thread.sleep(1000);
+    @PreDestroy
+    public void shutdown() {
+        if (confirmExecutor != null) {
+            confirmExecutor.shutdownNow();
         }
-        throw new RuntimeException("Transaction timeout");
+        pendingTransactions.values().forEach(pendingTx -> pendingTx.future().completeExceptionally(
+                new IllegalStateException("BlockchainService shutting down")));
     }
 }
@@ -4,6 +4,7 @@ import com.workhub.api.dto.request.ChatRequestDto;
 import com.workhub.api.dto.request.SendMessageRequest;
 import com.workhub.api.dto.response.ChatMessageResponse;
 import com.workhub.api.dto.response.ConversationResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.dto.response.UserSearchResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -59,6 +60,11 @@ public class ChatService {
         return messageService.getMessages(conversationId, userId, page, size);
     }
 
+    public CursorPageResponse<ChatMessageResponse> getMessagesByCursor(Long conversationId, Long userId,
+                                                                        String cursor, int size) {
+        return messageService.getMessagesByCursor(conversationId, userId, cursor, size);
+    }
+
     public ChatMessageResponse getMessage(Long messageId, Long userId) {
         return messageService.getMessage(messageId, userId);
     }
@@ -91,12 +97,12 @@ public class ChatService {
         return conversationService.getCounts(userId);
     }
 
-    public void userConnected(Long userId) {
-        onlineStatusService.userConnected(userId);
+    public void userConnected(Long userId, String sessionId) {
+        onlineStatusService.userConnected(userId, sessionId);
     }
 
-    public void userDisconnected(Long userId) {
-        onlineStatusService.userDisconnected(userId);
+    public void userDisconnected(Long userId, String sessionId) {
+        onlineStatusService.userDisconnected(userId, sessionId);
     }
 
     public boolean isUserOnline(Long userId) {
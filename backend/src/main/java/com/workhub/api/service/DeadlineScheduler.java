@@ -0,0 +1,233 @@
+package com.workhub.api.service;
+
+import com.workhub.api.entity.*;
+import com.workhub.api.repository.DisputeRepository;
+import com.workhub.api.repository.DisputeRoundRepository;
+import com.workhub.api.repository.JobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hàng đợi deadline trên Redis sorted set: member = "TYPE:id", score = thời điểm đến hạn (epoch ms).
+ * Deadline được đăng ký khi entity được ghi (DeadlineEntityListener), mỗi giây lấy các mục đến hạn.
+ * Mục được chia cho các instance theo hash id (SchedulerCluster); instance ZREM thành công và giữ
+ * khóa của mục thì xử lý, mỗi mục chạy trong transaction riêng.
+ * reconcile() quét DB định kỳ để bù các mục bị mất (Redis lỗi, instance chết giữa chừng).
+ * Khi Redis sập, reconcile chạy trên mọi instance và xử lý thẳng mục quá hạn; chống trùng lúc đó dựa
+ * vào khóa dòng FOR UPDATE SKIP LOCKED trong JobSchedulerService.handleDeadline.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadlineScheduler {
+
+    private static final String QUEUE_KEY = "deadlines:queue";
+    private static final int POLL_BATCH_SIZE = 500;
+    // Mục quá hạn lâu hơn mức này thì instance nào cũng nhận (instance phụ trách có thể đã chết)
+    private static final long ORPHAN_GRACE_MS = 30000;
+    private static final Duration DEADLINE_LOCK_LEASE = Duration.ofSeconds(60);
+    private static final Duration RECONCILE_LOCK_LEASE = Duration.ofSeconds(60);
+    // Số deadline xử lý song song; giao dịch blockchain của chúng được pipeline trong BlockchainService
+    private static final int WORKER_THREADS = 4;
+    private static final int WORKER_QUEUE_CAPACITY = 100;
+    // FOR TESTING: 24h -> 90 seconds (khớp với signDeadline trong JobResponse)
+    public static final long SIGNING_TIMEOUT_SECONDS = 90;
+    // reconcile đăng ký trước các deadline đến hạn trong khoảng này
+    private static final long RECONCILE_HORIZON_MINUTES = 10;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final JobSchedulerService jobSchedulerService;
+    private final JobRepository jobRepository;
+    private final DisputeRepository disputeRepository;
+    private final DisputeRoundRepository disputeRoundRepository;
+    private final DistributedLockService distributedLockService;
+    private final SchedulerCluster schedulerCluster;
+
+    // Hàng đợi đầy thì luồng poll tự chạy -> tự giảm tốc độ nhận mục mới
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public void armJob(Job job) {
+        switch (job.getStatus()) {
+            case OPEN -> arm(EDeadlineType.APPLICATION, job.getId(), job.getApplicationDeadline());
+            case PENDING_SIGNATURE -> arm(EDeadlineType.SIGNING, job.getId(),
+                    job.getAcceptedAt() != null ? job.getAcceptedAt().plusSeconds(SIGNING_TIMEOUT_SECONDS) : null);
+            case IN_PROGRESS -> {
+                arm(EDeadlineType.WORK_SUBMISSION, job.getId(), job.getWorkSubmissionDeadline());
+                arm(EDeadlineType.WORK_REVIEW, job.getId(), job.getWorkReviewDeadline());
+            }
+            default -> { }
+        }
+    }
+
+    public void armDispute(Dispute dispute) {
+        if (dispute.getStatus() == EDisputeStatus.PENDING_FREELANCER_RESPONSE) {
+            arm(EDeadlineType.DISPUTE_EVIDENCE, dispute.getId(), dispute.getEvidenceDeadline());
+        }
+    }
+
+    public void armRound(DisputeRound round) {
+        if (round.getStatus() == EDisputeRoundStatus.PENDING_ADMIN) {
+            arm(EDeadlineType.ADMIN_VOTE, round.getId(), round.getVoteDeadline());
+        }
+    }
+
+    /**
+     * Chỉ ghi vào Redis sau khi transaction commit để không bắn deadline của dữ liệu bị rollback.
+     */
+    public void arm(EDeadlineType type, Long id, LocalDateTime dueAt) {
+        if (id == null || dueAt == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(type, id, dueAt);
+                }
+            });
+        } else {
+            enqueue(type, id, dueAt);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void pollDueDeadlines() {
+        long now = System.currentTimeMillis();
+        Set<ZSetOperations.TypedTuple<Object>> due;
+        try {
+            due = redisTemplate.opsForZSet().rangeByScoreWithScores(
+                    QUEUE_KEY, Double.NEGATIVE_INFINITY, now, 0, POLL_BATCH_SIZE);
+        } catch (Exception e) {
+            log.debug("Deadline queue unavailable: {}", e.getMessage());
+            return;
+        }
+        if (due == null) {
+            return;
+        }
+
+        for (ZSetOperations.TypedTuple<Object> entry : due) {
+            Object member = entry.getValue();
+            try {
+                String value = String.valueOf(member);
+                int separator = value.indexOf(':');
+                EDeadlineType type = EDeadlineType.valueOf(value.substring(0, separator));
+                Long id = Long.parseLong(value.substring(separator + 1));
+
+                boolean orphaned = entry.getScore() != null && entry.getScore() < now - ORPHAN_GRACE_MS;
+                if (!orphaned && !schedulerCluster.owns(id)) {
+                    continue; // phần của instance khác
+                }
+
+                Long removed = redisTemplate.opsForZSet().remove(QUEUE_KEY, member);
+                if (removed == null || removed == 0) {
+                    continue; // instance khác đã nhận mục này
+                }
+                workers.execute(() -> fire(type, id));
+            } catch (Exception e) {
+                log.error("Invalid deadline entry {}: {}", member, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 300000, initialDelay = 10000)
+    public void reconcile() {
+        // Chỉ một instance quét mỗi lượt; Redis lỗi thì instance nào cũng quét để deadline không bị treo
+        DistributedLockService.Outcome outcome = distributedLockService.tryRunWithLock(
+                "scheduler:reconcile", RECONCILE_LOCK_LEASE, this::reconcileInternal);
+        if (outcome == DistributedLockService.Outcome.UNAVAILABLE) {
+            log.warn("Lock service unavailable, reconciling deadlines without cluster lock");
+            reconcileInternal();
+        }
+    }
+
+    private void reconcileInternal() {
+        LocalDateTime horizon = LocalDateTime.now().plusMinutes(RECONCILE_HORIZON_MINUTES);
+        try {
+            for (Job job : jobRepository.findByStatusAndApplicationDeadlineBefore(EJobStatus.OPEN, horizon)) {
+                rearm(EDeadlineType.APPLICATION, job.getId(), job.getApplicationDeadline());
+            }
+            for (Job job : jobRepository.findByStatusAndAcceptedAtBefore(EJobStatus.PENDING_SIGNATURE,
+                    horizon.minusSeconds(SIGNING_TIMEOUT_SECONDS))) {
+                rearm(EDeadlineType.SIGNING, job.getId(), job.getAcceptedAt().plusSeconds(SIGNING_TIMEOUT_SECONDS));
+            }
+            for (Job job : jobRepository.findByStatusAndWorkSubmissionDeadlineBefore(EJobStatus.IN_PROGRESS, horizon)) {
+                rearm(EDeadlineType.WORK_SUBMISSION, job.getId(), job.getWorkSubmissionDeadline());
+            }
+            for (Job job : jobRepository.findByStatusAndWorkReviewDeadlineBefore(EJobStatus.IN_PROGRESS, horizon)) {
+                rearm(EDeadlineType.WORK_REVIEW, job.getId(), job.getWorkReviewDeadline());
+            }
+            for (Dispute dispute : disputeRepository.findExpiredEvidenceDeadlines(
+                    EDisputeStatus.PENDING_FREELANCER_RESPONSE, horizon)) {
+                rearm(EDeadlineType.DISPUTE_EVIDENCE, dispute.getId(), dispute.getEvidenceDeadline());
+            }
+            for (DisputeRound round : disputeRoundRepository.findByStatusAndVoteDeadlineBefore(
+                    EDisputeRoundStatus.PENDING_ADMIN, horizon)) {
+                rearm(EDeadlineType.ADMIN_VOTE, round.getId(), round.getVoteDeadline());
+            }
+        } catch (Exception e) {
+            log.error("Deadline reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    // Không đưa được vào hàng đợi thì xử lý luôn mục đã quá hạn; handleDeadline khóa dòng nên không trùng
+    private void rearm(EDeadlineType type, Long id, LocalDateTime dueAt) {
+        if (!enqueue(type, id, dueAt) && !dueAt.isAfter(LocalDateTime.now())) {
+            fire(type, id);
+        }
+    }
+
+    private boolean enqueue(EDeadlineType type, Long id, LocalDateTime dueAt) {
+        try {
+            long score = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            redisTemplate.opsForZSet().add(QUEUE_KEY, type.name() + ":" + id, score);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to schedule {} deadline for {}: {}", type, id, e.getMessage());
+            return false;
+        }
+    }
+
+    // Khóa theo từng mục: reconcile có thể đưa lại mục đang được instance khác xử lý.
+    // Redis lỗi thì vẫn xử lý, khóa dòng trong handleDeadline thay cho khóa Redis
+    private void fire(EDeadlineType type, Long id) {
+        DistributedLockService.Outcome outcome = distributedLockService.tryRunWithLock(
+                "deadline:" + type.name() + ":" + id, DEADLINE_LOCK_LEASE, () -> handle(type, id));
+        switch (outcome) {
+            case BUSY -> log.debug("Deadline {} for {} is being handled elsewhere", type, id);
+            case UNAVAILABLE -> handle(type, id);
+            default -> { }
+        }
+    }
+
+    private void handle(EDeadlineType type, Long id) {
+        try {
+            if (!jobSchedulerService.handleDeadline(type, id)) {
+                log.debug("Deadline {} for {} no longer applies or is locked by another instance", type, id);
+            }
+        } catch (Exception e) {
+            log.error("Deadline {} for {} failed: {}", type, id, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -52,8 +52,7 @@ public class DisputeService {
         User employer = userService.getById(userId);
 
         if (req.getWalletAddress() != null && !req.getWalletAddress().isEmpty()) {
-            employer.setWalletAddress(req.getWalletAddress());
-            userService.save(employer);
+            employer = userService.updateWalletAddress(userId, req.getWalletAddress());
         }
 
         if (!job.isOwnedBy(userId)) {
@@ -0,0 +1,119 @@
+package com.workhub.api.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Khóa phân tán trên Redis (SET NX PX) có gia hạn lease trong lúc tác vụ còn chạy.
+ * Chỉ người giữ token mới gia hạn / nhả được khóa, nên lease hết hạn rồi bị người khác lấy
+ * thì instance cũ không xóa nhầm khóa của instance mới.
+ */
+@Slf4j
+@Service
+public class DistributedLockService {
+
+    private static final String KEY_PREFIX = "lock:";
+
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ScheduledExecutorService renewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lock-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DistributedLockService(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    public enum Outcome {
+        RAN,
+        // Instance khác đang giữ khóa
+        BUSY,
+        // Không liên lạc được Redis: caller tự quyết định có chạy không khóa hay không
+        UNAVAILABLE
+    }
+
+    /**
+     * Chạy task nếu lấy được khóa; lease được gia hạn mỗi lease/3 cho tới khi task xong.
+     * @return false nếu khóa đang do instance khác giữ hoặc Redis lỗi (task không chạy)
+     */
+    public boolean runWithLock(String name, Duration lease, Runnable task) {
+        return tryRunWithLock(name, lease, task) == Outcome.RAN;
+    }
+
+    /**
+     * Như runWithLock nhưng phân biệt khóa bận với Redis lỗi, cho các tác vụ có cơ chế chống trùng khác
+     * (vd. khóa dòng trong DB) và không được phép dừng hẳn khi Redis sập.
+     */
+    public Outcome tryRunWithLock(String name, Duration lease, Runnable task) {
+        String key = KEY_PREFIX + name;
+        String token = UUID.randomUUID().toString();
+
+        Boolean acquired;
+        try {
+            acquired = stringRedisTemplate.opsForValue().setIfAbsent(key, token, lease);
+        } catch (Exception e) {
+            log.warn("Failed to acquire lock {}: {}", name, e.getMessage());
+            return Outcome.UNAVAILABLE;
+        }
+        if (!Boolean.TRUE.equals(acquired)) {
+            return Outcome.BUSY;
+        }
+
+        long renewEveryMs = Math.max(lease.toMillis() / 3, 100);
+        ScheduledFuture<?> renewal = renewExecutor.scheduleAtFixedRate(
+                () -> renew(key, token, lease, name), renewEveryMs, renewEveryMs, TimeUnit.MILLISECONDS);
+        try {
+            task.run();
+            return Outcome.RAN;
+        } finally {
+            renewal.cancel(false);
+            release(key, token, name);
+        }
+    }
+
+    private void renew(String key, String token, Duration lease, String name) {
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(key), token,
+                    String.valueOf(lease.toMillis()));
+            if (renewed == null || renewed == 0) {
+                log.warn("Lost lock {} while task still running", name);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to renew lock {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void release(String key, String token, String name) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+        } catch (Exception e) {
+            // Khóa sẽ tự hết hạn theo lease
+            log.warn("Failed to release lock {}: {}", name, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewExecutor.shutdownNow();
+    }
+}
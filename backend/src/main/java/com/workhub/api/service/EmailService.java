@@ -8,7 +8,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,22 +20,20 @@ public class EmailService {
     @Value("${spring.mail.username}")
     private String fromEmail;
 
-    @Async
-    public void sendOtpEmail(String toEmail, String fullName, String otpCode, String purpose) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(getSubject(purpose));
-            helper.setText(buildEmailHtml(fullName, otpCode, purpose), true);
-
-            mailSender.send(message);
-            log.info("OTP email sent to: {}", toEmail);
-        } catch (MessagingException e) {
-            log.error("Failed to send email to {}: {}", toEmail, e.getMessage());
-        }
+    /**
+     * Gửi đồng bộ, lỗi được ném ra để OutboxDispatcher thử lại; caller nghiệp vụ dùng OutboxService.sendOtpEmail.
+     */
+    public void sendOtpEmail(String toEmail, String fullName, String otpCode, String purpose) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(getSubject(purpose));
+        helper.setText(buildEmailHtml(fullName, otpCode, purpose), true);
+
+        mailSender.send(message);
+        log.info("OTP email sent to: {}", toEmail);
     }
 
     private String getSubject(String purpose) {
@@ -0,0 +1,84 @@
+package com.workhub.api.service;
+
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.FileUpload;
+import com.workhub.api.entity.StoredBlob;
+import com.workhub.api.repository.FileUploadRepository;
+import com.workhub.api.repository.StoredBlobRepository;
+import com.workhub.api.service.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Đếm tham chiếu cho nội dung file dùng chung (StoredBlob).
+ * Tăng/giảm refCount và ghi/xóa FileUpload trong cùng transaction để hai bên luôn khớp nhau.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBlobService {
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final FileUploadRepository fileUploadRepository;
+
+    /**
+     * Nội dung đã có trên backend: thêm một tham chiếu và lưu FileUpload, không upload lại.
+     */
+    @Transactional
+    public Optional<FileUpload> reuse(String backend, EFileType fileType, String contentHash,
+                                      Function<StoredBlob, FileUpload> rowFactory) {
+        if (storedBlobRepository.incrementRefCount(backend, fileType, contentHash) == 0) {
+            return Optional.empty();
+        }
+        StoredBlob blob = storedBlobRepository.findByStorageBackendAndFileTypeAndContentHash(backend, fileType, contentHash)
+            .orElseThrow(() -> new IllegalStateException("Blob disappeared after increment: " + contentHash));
+        return Optional.of(fileUploadRepository.save(rowFactory.apply(blob)));
+    }
+
+    /**
+     * Ghi blob vừa upload với refCount = 1 và lưu FileUpload.
+     * Rỗng nếu upload song song cùng nội dung đã ghi trước: caller xóa object của mình rồi gọi reuse.
+     */
+    @Transactional
+    public Optional<FileUpload> register(String backend, EFileType fileType, String contentHash,
+                                         StorageBackend.StoredObject stored, long fallbackSize,
+                                         Function<StoredBlob, FileUpload> rowFactory) {
+        int inserted = storedBlobRepository.insertIfAbsent(backend, fileType.name(), contentHash, stored.key(), stored.url(),
+            stored.secureUrl(), stored.format(), stored.sizeBytes() != null ? stored.sizeBytes() : fallbackSize,
+            stored.width(), stored.height(), stored.thumbnailUrl(), stored.mediumUrl());
+        if (inserted == 0) {
+            return Optional.empty();
+        }
+        StoredBlob blob = storedBlobRepository.findByStorageBackendAndFileTypeAndContentHash(backend, fileType, contentHash)
+            .orElseThrow(() -> new IllegalStateException("Blob not found after insert: " + contentHash));
+        return Optional.of(fileUploadRepository.save(rowFactory.apply(blob)));
+    }
+
+    /**
+     * Trả tham chiếu của file (gọi trong transaction xóa file). Trả về blob nếu đây là tham chiếu cuối:
+     * dòng blob đã bị xóa, caller xóa object trên storage sau khi commit.
+     */
+    @Transactional
+    public Optional<StoredBlob> release(FileUpload file) {
+        StoredBlob ref = file.getBlob();
+        if (ref == null) {
+            return Optional.empty();
+        }
+        file.detachBlob();
+        fileUploadRepository.save(file);
+
+        // Khóa dòng blob: reuse() đồng thời phải chờ, thấy refCount = 0 thì upload lại từ đầu
+        StoredBlob blob = storedBlobRepository.findByIdForUpdate(ref.getId()).orElse(null);
+        if (blob == null || !blob.release()) {
+            return Optional.empty();
+        }
+        storedBlobRepository.delete(blob);
+        log.debug("Last reference to blob {} released", blob.getStorageKey());
+        return Optional.of(blob);
+    }
+}
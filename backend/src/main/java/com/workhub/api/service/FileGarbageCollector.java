@@ -0,0 +1,221 @@
+package com.workhub.api.service;
+
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.EFileUsage;
+import com.workhub.api.entity.FileUpload;
+import com.workhub.api.repository.FileUploadRepository;
+import com.workhub.api.service.storage.StorageBackend;
+import com.workhub.api.service.storage.StorageBackends;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dọn file mồ côi định kỳ, chạy nền trên một instance (khóa files:gc):
+ * - File chưa gắn vào tin nhắn / khiếu nại / bài nộp sau orphan-grace-hours: trả tham chiếu blob rồi xóa dòng.
+ * - Dòng đã xóa mềm quá deleted-retention-days (storage đã trả lúc xóa mềm): xóa hẳn dòng.
+ * Quét keyset theo id từng batch; object trên storage được xóa song song tối đa parallelism luồng
+ * và không quá deletes-per-second lần/giây để không tranh tài nguyên với request của người dùng.
+ */
+@Slf4j
+@Service
+public class FileGarbageCollector {
+
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(10);
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final String FILES_METRIC = "workhub.files.gc.files";
+    private static final String BYTES_METRIC = "workhub.files.gc.reclaimed.bytes";
+
+    private record StorageTarget(String backend, String key, EFileType fileType, long sizeBytes) {
+    }
+
+    private record Released(int files, List<StorageTarget> targets) {
+    }
+
+    private final FileUploadRepository fileUploadRepository;
+    private final FileBlobService fileBlobService;
+    private final StorageBackends storageBackends;
+    private final DistributedLockService distributedLockService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final List<EFileUsage> orphanUsages;
+    private final Duration orphanGrace;
+    private final Duration deletedRetention;
+    private final int batchSize;
+    private final long deleteIntervalMs;
+    private final ExecutorService deleteExecutor;
+
+    public FileGarbageCollector(FileUploadRepository fileUploadRepository,
+                                FileBlobService fileBlobService,
+                                StorageBackends storageBackends,
+                                DistributedLockService distributedLockService,
+                                MeterRegistry meterRegistry,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.files.gc.orphan-usages:MESSAGE_IMAGE,MESSAGE_FILE,DISPUTE_EVIDENCE,WORK_SUBMISSION}") String orphanUsages,
+                                @Value("${app.files.gc.orphan-grace-hours:24}") long orphanGraceHours,
+                                @Value("${app.files.gc.deleted-retention-days:30}") long deletedRetentionDays,
+                                @Value("${app.files.gc.batch-size:100}") int batchSize,
+                                @Value("${app.files.gc.parallelism:4}") int parallelism,
+                                @Value("${app.files.gc.deletes-per-second:10}") int deletesPerSecond) {
+        this.fileUploadRepository = fileUploadRepository;
+        this.fileBlobService = fileBlobService;
+        this.storageBackends = storageBackends;
+        this.distributedLockService = distributedLockService;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orphanUsages = Arrays.stream(orphanUsages.split(","))
+                .map(String::trim)
+                .filter(usage -> !usage.isEmpty())
+                .map(EFileUsage::valueOf)
+                .toList();
+        this.orphanGrace = Duration.ofHours(orphanGraceHours);
+        this.deletedRetention = Duration.ofDays(deletedRetentionDays);
+        this.batchSize = batchSize;
+        this.deleteIntervalMs = 1000L / Math.max(1, deletesPerSecond);
+        this.deleteExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "file-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.files.gc.interval-ms:3600000}", initialDelayString = "${app.files.gc.initial-delay-ms:300000}")
+    public void collect() {
+        distributedLockService.runWithLock("files:gc", LOCK_LEASE, () -> {
+            try {
+                collectUnassigned();
+                purgeDeleted();
+            } catch (Exception e) {
+                log.error("File GC run failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleteExecutor.shutdownNow();
+    }
+
+    private void collectUnassigned() {
+        if (orphanUsages.isEmpty()) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(orphanGrace);
+        long afterId = 0;
+        int collected = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            List<FileUpload> files = fileUploadRepository.findUnassignedBefore(
+                    orphanUsages, before, afterId, PageRequest.of(0, batchSize));
+            if (files.isEmpty()) {
+                break;
+            }
+            afterId = files.get(files.size() - 1).getId();
+            List<Long> ids = files.stream().map(FileUpload::getId).toList();
+
+            Released released = transactionTemplate.execute(status -> releaseAndDelete(ids, before));
+            deleteFromStorage(released.targets());
+            collected += released.files();
+            count("orphan", released.files());
+        }
+        if (collected > 0) {
+            log.info("File GC removed {} unassigned upload(s)", collected);
+        }
+    }
+
+    // Đọc lại trong transaction: file có thể vừa được gắn vào tin nhắn giữa lúc quét và lúc xóa
+    private Released releaseAndDelete(List<Long> ids, LocalDateTime before) {
+        List<StorageTarget> targets = new ArrayList<>();
+        List<FileUpload> removable = new ArrayList<>();
+        for (FileUpload file : fileUploadRepository.findAllById(ids)) {
+            if (file.getReferenceType() != null || file.getIsDeleted() || !file.getCreatedAt().isBefore(before)) {
+                continue;
+            }
+            if (file.getBlob() == null) {
+                targets.add(new StorageTarget(file.getStorageBackend(), file.getPublicId(),
+                        file.getFileType(), file.getSizeBytes()));
+            } else {
+                fileBlobService.release(file).ifPresent(blob -> targets.add(new StorageTarget(
+                        blob.getStorageBackend(), blob.getStorageKey(), blob.getFileType(), blob.getSizeBytes())));
+            }
+            removable.add(file);
+        }
+        fileUploadRepository.deleteAll(removable);
+        return new Released(removable.size(), targets);
+    }
+
+    private void purgeDeleted() {
+        LocalDateTime before = LocalDateTime.now().minus(deletedRetention);
+        long afterId = 0;
+        int purged = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            List<Long> ids = fileUploadRepository.findPurgeableDeletedIds(before, afterId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            fileUploadRepository.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+            count("purged", ids.size());
+        }
+        if (purged > 0) {
+            log.info("File GC purged {} soft-deleted upload row(s)", purged);
+        }
+    }
+
+    // Xóa song song trên deleteExecutor, giãn cách deleteIntervalMs giữa hai lần gửi; chờ hết batch rồi mới quét tiếp
+    private void deleteFromStorage(List<StorageTarget> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>(targets.size());
+        for (StorageTarget target : targets) {
+            pending.add(CompletableFuture.runAsync(() -> deleteObject(target), deleteExecutor));
+            try {
+                TimeUnit.MILLISECONDS.sleep(deleteIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void deleteObject(StorageTarget target) {
+        StorageBackend backend = storageBackends.get(target.backend());
+        try {
+            backend.delete(target.key(), target.fileType());
+            Counter.builder(BYTES_METRIC)
+                    .baseUnit("bytes")
+                    .tag("backend", backend.name())
+                    .register(meterRegistry)
+                    .increment(target.sizeBytes());
+        } catch (Exception e) {
+            log.warn("File GC failed to delete {} from {} storage: {}", target.key(), backend.name(), e.getMessage());
+            count("delete_failed", 1);
+        }
+    }
+
+    private void count(String action, int amount) {
+        Counter.builder(FILES_METRIC)
+                .tag("action", action)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+}
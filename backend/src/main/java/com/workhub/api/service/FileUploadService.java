@@ -1,12 +1,13 @@
 package com.workhub.api.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import com.workhub.api.dto.response.FileUploadResponse;
 import com.workhub.api.entity.*;
 import com.workhub.api.exception.FileUploadException;
 import com.workhub.api.repository.FileUploadRepository;
 import com.workhub.api.repository.UserRepository;
+import com.workhub.api.service.storage.StorageBackend;
+import com.workhub.api.service.storage.StorageBackends;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,21 +15,34 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileUploadService {
 
-    private final Cloudinary cloudinary;
+    private static final long UPLOAD_SLOT_TIMEOUT_SECONDS = 30;
+
+    private final StorageBackends storageBackends;
     private final FileUploadRepository fileUploadRepository;
     private final UserRepository userRepository;
+    private final FileBlobService fileBlobService;
 
-    @Value("${app.upload.max-image-size:204800}")
+    @Value("${app.upload.max-image-size:5242880}")
     private long maxImageSize;
 
     @Value("${app.upload.max-document-size:5242880}")
@@ -40,19 +54,28 @@ public class FileUploadService {
     @Value("${app.upload.allowed-document-extensions:pdf}")
     private String allowedDocumentExtensions;
 
-    @Transactional
+    @Value("${app.upload.max-concurrent:8}")
+    private int maxConcurrentUploads;
+
+    // Giới hạn số upload đồng thời lên storage: mỗi upload giữ một buffer chunk (Cloudinary) hoặc một file tạm
+    private Semaphore uploadSlots;
+
+    @PostConstruct
+    public void init() {
+        uploadSlots = new Semaphore(maxConcurrentUploads, true);
+    }
+
+    // Upload không chạy trong transaction: stream lên storage xong mới ghi dòng FileUpload
     public FileUploadResponse uploadImage(MultipartFile file, EFileUsage usage, Long uploaderId) {
         validateImageFile(file);
-        return uploadToCloudinary(file, EFileType.IMAGE, usage, uploaderId, "image");
+        return uploadToStorage(file, EFileType.IMAGE, usage, uploaderId);
     }
 
-    @Transactional
     public FileUploadResponse uploadDocument(MultipartFile file, EFileUsage usage, Long uploaderId) {
         validateDocumentFile(file);
-        return uploadToCloudinary(file, EFileType.DOCUMENT, usage, uploaderId, "raw");
+        return uploadToStorage(file, EFileType.DOCUMENT, usage, uploaderId);
     }
 
-    @Transactional
     public FileUploadResponse uploadFile(MultipartFile file, EFileUsage usage, Long uploaderId) {
         String extension = getFileExtension(file.getOriginalFilename()).toLowerCase();
         
@@ -66,7 +89,6 @@ public class FileUploadService {
         }
     }
 
-    @Transactional
     public FileUploadResponse uploadAndAssign(MultipartFile file, EFileUsage usage, 
                                                Long uploaderId, String referenceType, Long referenceId) {
         FileUploadResponse response = uploadFile(file, usage, uploaderId);
@@ -104,7 +126,7 @@ public class FileUploadService {
         file.markDeleted();
         fileUploadRepository.save(file);
         
-        deleteFromCloudinary(file.getPublicId());
+        releaseStorage(file);
         
         log.info("Deleted file {} by user {}", fileId, userId);
     }
@@ -114,7 +136,10 @@ public class FileUploadService {
         FileUpload file = fileUploadRepository.findById(fileId)
             .orElseThrow(FileUploadException::fileNotFound);
         
-        deleteFromCloudinary(file.getPublicId());
+        // File đã xóa mềm thì đã trả tham chiếu lúc xóa mềm
+        if (!file.getIsDeleted()) {
+            releaseStorage(file);
+        }
         fileUploadRepository.delete(file);
         
         log.info("Hard deleted file {}", fileId);
@@ -183,70 +208,152 @@ public class FileUploadService {
             .toList();
     }
 
-    private FileUploadResponse uploadToCloudinary(MultipartFile file, EFileType fileType,
-                                                   EFileUsage usage, Long uploaderId,
-                                                   String resourceType) {
+    private FileUploadResponse uploadToStorage(MultipartFile file, EFileType fileType,
+                                                EFileUsage usage, Long uploaderId) {
+        StorageBackend backend = storageBackends.active();
+        String contentHash = hashContent(file);
+        Function<StoredBlob, FileUpload> rowFactory = blob -> FileUpload.builder()
+            .publicId(blob.getStorageKey())
+            .url(blob.getUrl())
+            .secureUrl(blob.getSecureUrl())
+            .storageBackend(blob.getStorageBackend())
+            .blob(blob)
+            .originalFilename(file.getOriginalFilename())
+            .fileType(fileType)
+            .mimeType(file.getContentType())
+            .format(blob.getFormat())
+            .sizeBytes(blob.getSizeBytes())
+            .contentHash(contentHash)
+            .width(blob.getWidth())
+            .height(blob.getHeight())
+            .thumbnailUrl(blob.getThumbnailUrl())
+            .mediumUrl(blob.getMediumUrl())
+            .usage(usage)
+            // Tra uploader trong transaction ghi dòng (sau khi upload xong), không giữ connection suốt lúc upload
+            .uploader(userRepository.findById(uploaderId)
+                .orElseThrow(() -> new RuntimeException("User not found")))
+            .build();
+
+        // Nội dung đã có trên backend: chỉ thêm dòng FileUpload, bỏ qua upload
+        Optional<FileUpload> duplicate = fileBlobService.reuse(backend.name(), fileType, contentHash, rowFactory);
+        if (duplicate.isPresent()) {
+            log.info("Deduplicated upload {} ({}) by user {}",
+                duplicate.get().getPublicId(), duplicate.get().getReadableSize(), uploaderId);
+            return mapToResponse(duplicate.get());
+        }
+
+        StorageBackend.StoredObject stored;
+        acquireUploadSlot();
+        try (InputStream input = file.getInputStream()) {
+            // Part multipart nằm trên đĩa tạm; backend đọc tuần tự, không nạp cả file vào heap
+            stored = backend.store(input, new StorageBackend.StoreRequest(
+                "workhub/" + usage.name().toLowerCase(), fileType,
+                file.getOriginalFilename(), file.getContentType(), file.getSize()));
+        } catch (IOException e) {
+            log.error("Failed to upload file to {} storage", backend.name(), e);
+            throw FileUploadException.uploadFailed(e.getMessage());
+        } finally {
+            uploadSlots.release();
+        }
+
+        FileUpload fileUpload;
         try {
-            User uploader = userRepository.findById(uploaderId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-            String folder = "workhub/" + usage.name().toLowerCase();
-
-            Map<String, Object> options = ObjectUtils.asMap(
-                "folder", folder,
-                "resource_type", resourceType,
-                "unique_filename", true,
-                "overwrite", false
-            );
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> result = cloudinary.uploader().upload(file.getBytes(), options);
-
-            String publicId = (String) result.get("public_id");
-            String url = (String) result.get("url");
-            String secureUrl = (String) result.get("secure_url");
-            String format = (String) result.get("format");
-            Number bytes = (Number) result.get("bytes");
-            Number width = (Number) result.get("width");
-            Number height = (Number) result.get("height");
-
-            FileUpload fileUpload = FileUpload.builder()
-                .publicId(publicId)
-                .url(url)
-                .secureUrl(secureUrl)
-                .originalFilename(file.getOriginalFilename())
-                .fileType(fileType)
-                .mimeType(file.getContentType())
-                .format(format)
-                .sizeBytes(bytes != null ? bytes.longValue() : file.getSize())
-                .width(width != null ? width.intValue() : null)
-                .height(height != null ? height.intValue() : null)
-                .usage(usage)
-                .uploader(uploader)
-                .build();
-
-            fileUpload = fileUploadRepository.save(fileUpload);
-
-            log.info("Uploaded file {} ({}) by user {}", 
-                publicId, fileUpload.getReadableSize(), uploaderId);
-
-            return mapToResponse(fileUpload);
+            Optional<FileUpload> registered = fileBlobService.register(
+                backend.name(), fileType, contentHash, stored, file.getSize(), rowFactory);
+            if (registered.isEmpty()) {
+                // Upload song song cùng nội dung đã ghi blob trước: bỏ bản của mình, dùng bản đã có
+                deleteFromStorage(backend.name(), stored.key(), fileType);
+                stored = null;
+                registered = fileBlobService.reuse(backend.name(), fileType, contentHash, rowFactory);
+            }
+            fileUpload = registered
+                .orElseThrow(() -> FileUploadException.uploadFailed("Vui lòng thử lại"));
+        } catch (RuntimeException e) {
+            // Không ghi được DB thì xóa file vừa upload để không thành file mồ côi
+            if (stored != null) {
+                deleteFromStorage(backend.name(), stored.key(), fileType);
+            }
+            throw e;
+        }
 
+        log.info("Uploaded file {} ({}) to {} by user {}", 
+            fileUpload.getPublicId(), fileUpload.getReadableSize(), backend.name(), uploaderId);
+
+        return mapToResponse(fileUpload);
+    }
+
+    // Đọc file tạm một lần để tính SHA-256 trước khi quyết định có cần upload hay không
+    private String hashContent(MultipartFile file) {
+        try (DigestInputStream input = new DigestInputStream(file.getInputStream(), sha256())) {
+            input.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(input.getMessageDigest().digest());
         } catch (IOException e) {
-            log.error("Failed to upload file to Cloudinary", e);
             throw FileUploadException.uploadFailed(e.getMessage());
         }
     }
 
-    private void deleteFromCloudinary(String publicId) {
+    /**
+     * Trả tham chiếu nội dung của file; object trên storage chỉ bị xóa (sau commit) khi không còn file nào dùng.
+     */
+    private void releaseStorage(FileUpload file) {
+        if (file.getBlob() == null) {
+            // File upload trước khi có dedup: sở hữu riêng object của nó
+            deleteAfterCommit(file.getStorageBackend(), file.getPublicId(), file.getFileType());
+            return;
+        }
+        fileBlobService.release(file).ifPresent(blob ->
+            deleteAfterCommit(blob.getStorageBackend(), blob.getStorageKey(), blob.getFileType()));
+    }
+
+    private void deleteAfterCommit(String backendName, String key, EFileType fileType) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteFromStorage(backendName, key, fileType);
+                }
+            });
+        } else {
+            deleteFromStorage(backendName, key, fileType);
+        }
+    }
+
+    private void acquireUploadSlot() {
         try {
-            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-            log.info("Deleted file from Cloudinary: {}", publicId);
+            if (!uploadSlots.tryAcquire(UPLOAD_SLOT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw FileUploadException.uploadFailed("Máy chủ đang bận, vui lòng thử lại sau");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw FileUploadException.uploadFailed("Upload bị hủy");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteFromStorage(String backendName, String key, EFileType fileType) {
+        StorageBackend backend = storageBackends.get(backendName);
+        try {
+            backend.delete(key, fileType);
+            log.info("Deleted file from {} storage: {}", backend.name(), key);
         } catch (IOException e) {
-            log.error("Failed to delete file from Cloudinary: {}", publicId, e);
+            log.error("Failed to delete file from {} storage: {}", backend.name(), key, e);
         }
     }
 
+    /**
+     * URL công khai của file theo backend đang giữ nó.
+     */
+    public String publicUrl(FileUpload file) {
+        return storageBackends.get(file.getStorageBackend()).publicUrl(file);
+    }
+
     private void validateImageFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw FileUploadException.uploadFailed("File rỗng");
@@ -295,11 +402,12 @@ public class FileUploadService {
     }
 
     private FileUploadResponse mapToResponse(FileUpload file) {
+        String publicUrl = publicUrl(file);
         return FileUploadResponse.builder()
             .id(file.getId())
             .publicId(file.getPublicId())
-            .url(file.getUrl())
-            .secureUrl(file.getSecureUrl())
+            .url(publicUrl)
+            .secureUrl(publicUrl)
             .originalFilename(file.getOriginalFilename())
             .fileType(file.getFileType().name())
             .mimeType(file.getMimeType())
@@ -308,6 +416,8 @@ public class FileUploadService {
             .readableSize(file.getReadableSize())
             .width(file.getWidth())
             .height(file.getHeight())
+            .thumbnailUrl(file.getThumbnailUrl())
+            .mediumUrl(file.getMediumUrl())
             .usage(file.getUsage().name())
             .referenceType(file.getReferenceType())
             .referenceId(file.getReferenceId())
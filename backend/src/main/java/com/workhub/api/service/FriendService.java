@@ -10,7 +10,6 @@ import com.workhub.api.repository.ConversationRepository;
 import com.workhub.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,9 +26,10 @@ public class FriendService {
     private final ConversationRepository conversationRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final OutboxService outboxService;
     private final NotificationService notificationService;
     private final OnlineStatusService onlineStatusService;
+    private final PresenceFanout presenceFanout;
 
     @Transactional(readOnly = true)
     public List<UserSearchResponse> searchUsersByName(Long currentUserId, String keyword) {
@@ -134,15 +134,11 @@ public class FriendService {
 
         chatMessageRepository.save(message);
 
-        try {
-            messagingTemplate.convertAndSendToUser(
-                    receiver.getIdentifier(),
-                    "/queue/chat-requests",
-                    ConversationResponse.fromEntity(conversation, receiver.getId())
-            );
-        } catch (Exception e) {
-            log.warn("Failed to send WebSocket notification for chat request: {}", e.getMessage());
-        }
+        outboxService.sendToUser(
+                receiver.getIdentifier(),
+                "/queue/chat-requests",
+                ConversationResponse.fromEntity(conversation, receiver.getId())
+        );
 
         try {
             notificationService.notifyChatRequestReceived(receiver, sender, conversation.getId());
@@ -168,8 +164,9 @@ public class FriendService {
 
         conversation.setStatus(EConversationStatus.ACCEPTED);
         conversation = conversationRepository.save(conversation);
+        presenceFanout.invalidateWatchers(conversation.getInitiator().getId(), conversation.getReceiver().getId());
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 conversation.getInitiator().getIdentifier(),
                 "/queue/request-accepted",
                 ConversationResponse.fromEntity(conversation, conversation.getInitiator().getId())
@@ -235,17 +232,18 @@ public class FriendService {
         conversation.setStatus(EConversationStatus.BLOCKED);
         conversation.setBlockedById(userId);
         conversationRepository.save(conversation);
+        presenceFanout.invalidateWatchers(conversation.getInitiator().getId(), conversation.getReceiver().getId());
 
         User blocker = conversation.isInitiator(userId) ? conversation.getInitiator() : conversation.getReceiver();
         User blockedUser = conversation.getOtherUser(userId);
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 blockedUser.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, blockedUser.getId())
         );
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 blocker.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, blocker.getId())
@@ -275,17 +273,18 @@ public class FriendService {
         conversation.setStatus(EConversationStatus.ACCEPTED);
         conversation.setBlockedById(null);
         conversation = conversationRepository.save(conversation);
+        presenceFanout.invalidateWatchers(conversation.getInitiator().getId(), conversation.getReceiver().getId());
 
         User unblocker = conversation.isInitiator(userId) ? conversation.getInitiator() : conversation.getReceiver();
         User otherUser = conversation.getOtherUser(userId);
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 unblocker.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, unblocker.getId())
         );
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 otherUser.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, otherUser.getId())
@@ -32,6 +32,7 @@ public class JobApplicationService {
     private final JobHistoryService jobHistoryService;
     private final NotificationService notificationService;
     private final JobContractService jobContractService;
+    private final JobSkillIndex jobSkillIndex;
 
     @Transactional
     public ApiResponse<JobApplicationResponse> applyJob(Long jobId, Long userId, ApplyJobRequest req) {
@@ -173,6 +174,7 @@ public class JobApplicationService {
         job.setFreelancerWalletAddress(application.getWalletAddress());
         job.setAcceptedAt(LocalDateTime.now());  // Lưu thời điểm duyệt để tính hạn ký 24h
         jobRepository.save(job);
+        jobSkillIndex.onJobChanged(job);
 
         Long jobId = job.getId();
 
@@ -210,9 +212,8 @@ public class JobApplicationService {
 
         notificationService.notifyApplicationAccepted(freelancer, job);
 
-        for (JobApplication other : otherPendingApplications) {
-            notificationService.notifyApplicationRejected(other.getFreelancer(), job);
-        }
+        notificationService.notifyApplicationsRejected(
+                otherPendingApplications.stream().map(JobApplication::getFreelancer).toList(), job);
 
         int rejectedCount = otherPendingApplications.size();
         String message = rejectedCount > 0 
@@ -259,31 +260,17 @@ public class JobApplicationService {
         }
 
         User employer = userService.getById(userId);
-        int successCount = 0;
-        int failCount = 0;
-
-        for (Long appId : applicationIds) {
-            try {
-                JobApplication application = jobApplicationRepository.findById(appId).orElse(null);
-                if (application == null || !application.getJob().getId().equals(jobId)) {
-                    failCount++;
-                    continue;
-                }
-                if (!application.isPending()) {
-                    failCount++;
-                    continue;
-                }
-
-                application.reject();
-                jobApplicationRepository.save(application);
-
-                User freelancer = application.getFreelancer();
-                notificationService.notifyApplicationRejected(freelancer, job);
-                successCount++;
-            } catch (Exception e) {
-                failCount++;
-            }
-        }
+        // Một SELECT cho cả danh sách, UPDATE và thông báo ghi theo batch
+        List<JobApplication> rejected = jobApplicationRepository.findAllById(applicationIds).stream()
+                .filter(application -> application.getJob().getId().equals(jobId) && application.isPending())
+                .toList();
+        rejected.forEach(JobApplication::reject);
+        jobApplicationRepository.saveAll(rejected);
+        notificationService.notifyApplicationsRejected(
+                rejected.stream().map(JobApplication::getFreelancer).toList(), job);
+
+        int successCount = rejected.size();
+        int failCount = applicationIds.size() - successCount;
 
         if (successCount > 0) {
             jobHistoryService.logHistory(job, employer, EJobHistoryAction.APPLICATION_REJECTED,
@@ -0,0 +1,177 @@
+package com.workhub.api.service;
+
+import com.workhub.api.dto.response.JobResponse;
+import com.workhub.api.entity.*;
+import com.workhub.api.repository.DisputeRepository;
+import com.workhub.api.repository.JobApplicationRepository;
+import com.workhub.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dựng JobResponse cho một trang job bằng vài truy vấn IN thay vì 2-3 truy vấn mỗi dòng.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobResponseAssembler {
+
+    private final JobApplicationRepository jobApplicationRepository;
+    private final DisputeRepository disputeRepository;
+    private final UserRepository userRepository;
+    private final JobViewCounter jobViewCounter;
+
+    public JobResponse toResponse(Job job) {
+        return toResponses(List.of(job)).get(0);
+    }
+
+    public Page<JobResponse> toResponsePage(Page<Job> jobs) {
+        return new PageImpl<>(toResponses(jobs.getContent()), jobs.getPageable(), jobs.getTotalElements());
+    }
+
+    public List<JobResponse> toResponses(List<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> jobIds = jobs.stream().map(Job::getId).collect(Collectors.toSet());
+
+        // Employer đã được fetch cùng job (JOIN FETCH) thì không tra lại
+        Set<Long> employerIds = jobs.stream()
+                .map(Job::getEmployer)
+                .filter(employer -> !Hibernate.isInitialized(employer))
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        Map<Long, User> employers = employerIds.isEmpty() ? Map.of()
+                : userRepository.findAllById(employerIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<Long, JobApplication> acceptedApplications = new HashMap<>();
+        for (JobApplication application : jobApplicationRepository
+                .findByJobIdInAndStatusWithFreelancer(jobIds, EApplicationStatus.ACCEPTED)) {
+            acceptedApplications.putIfAbsent(application.getJob().getId(), application);
+        }
+
+        Set<Long> disputedJobIds = jobs.stream()
+                .filter(job -> job.getStatus() == EJobStatus.DISPUTED)
+                .map(Job::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Dispute> disputes = new HashMap<>();
+        if (!disputedJobIds.isEmpty()) {
+            for (Dispute dispute : disputeRepository.findByJobIdIn(disputedJobIds)) {
+                disputes.putIfAbsent(dispute.getJob().getId(), dispute);
+            }
+        }
+
+        List<JobResponse> responses = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            responses.add(build(job,
+                    employers.getOrDefault(job.getEmployer().getId(), job.getEmployer()),
+                    acceptedApplications.get(job.getId()),
+                    disputes.get(job.getId())));
+        }
+        return responses;
+    }
+
+    private JobResponse build(Job job, User employer, JobApplication acceptedApplication, Dispute dispute) {
+        JobResponse.EmployerResponse employerResponse = JobResponse.EmployerResponse.builder()
+                .id(employer.getId())
+                .fullName(employer.getFullName())
+                .avatarUrl(employer.getAvatarUrl())
+                .walletAddress(employer.getWalletAddress())
+                .title(employer.getTitle())
+                .company(employer.getCompany())
+                .location(employer.getLocation())
+                .isVerified(employer.getIsVerified())
+                .trustScore(employer.getTrustScore())
+                .untrustScore(employer.getUntrustScore())
+                .build();
+
+        // Get dispute info if job is DISPUTED
+        JobResponse.DisputeInfo disputeInfo = null;
+        if (dispute != null) {
+            disputeInfo = JobResponse.DisputeInfo.builder()
+                    .id(dispute.getId())
+                    .status(dispute.getStatus().name())
+                    .evidenceDeadline(dispute.getEvidenceDeadline())
+                    .hasFreelancerEvidence(dispute.hasFreelancerEvidence())
+                    .currentRound(dispute.getCurrentRound())
+                    .build();
+        }
+
+        // Get work submission info from accepted application
+        EWorkStatus workStatus = null;
+        String workSubmissionUrl = null;
+        String workSubmissionNote = null;
+        LocalDateTime workSubmittedAt = null;
+        JobResponse.FreelancerResponse freelancerResponse = null;
+        if (acceptedApplication != null) {
+            workStatus = acceptedApplication.getWorkStatus();
+            workSubmissionUrl = acceptedApplication.getWorkSubmissionUrl();
+            workSubmissionNote = acceptedApplication.getWorkSubmissionNote();
+            workSubmittedAt = acceptedApplication.getWorkSubmittedAt();
+
+            User freelancer = acceptedApplication.getFreelancer();
+            if (freelancer != null) {
+                freelancerResponse = JobResponse.FreelancerResponse.builder()
+                        .id(freelancer.getId())
+                        .fullName(freelancer.getFullName())
+                        .avatarUrl(freelancer.getAvatarUrl())
+                        .walletAddress(freelancer.getWalletAddress())
+                        .build();
+            }
+        }
+
+        return JobResponse.builder()
+                .id(job.getId())
+                .title(job.getTitle())
+                .description(job.getDescription())
+                .context(job.getContext())
+                .requirements(job.getRequirements())
+                .deliverables(job.getDeliverables())
+                .skills(job.getSkills())
+                .complexity(job.getComplexity())
+                .duration(job.getDuration())
+                .workType(job.getWorkType())
+                .budget(job.getBudget())
+                .escrowAmount(job.getEscrowAmount())
+                .currency(job.getCurrency())
+                .applicationDeadline(job.getApplicationDeadline())
+                .submissionDays(job.getSubmissionDays())
+                .reviewDays(job.getReviewDays())
+                .status(job.getStatus())
+                .workSubmissionDeadline(job.getWorkSubmissionDeadline())
+                .workReviewDeadline(job.getWorkReviewDeadline())
+                .viewCount((int) (job.getViewCount() + jobViewCounter.pendingViews(job.getId())))
+                .applicationCount(job.getApplicationCount())
+                .employer(employerResponse)
+                .freelancer(freelancerResponse)
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .escrowId(job.getEscrowId())
+                .employerWalletAddress(job.getEmployerWalletAddress())
+                .freelancerWalletAddress(job.getFreelancerWalletAddress())
+                .escrowTxHash(job.getEscrowTxHash())
+                .paymentTxHash(job.getPaymentTxHash())
+                .refundTxHash(job.getRefundTxHash())
+                .pendingBlockchainAction(job.getPendingBlockchainAction())
+                .acceptedAt(job.getAcceptedAt())
+                // FOR TESTING: 24h -> 90 seconds
+                .signDeadline(job.getAcceptedAt() != null ? job.getAcceptedAt().plusSeconds(90) : null)
+                .contractSignedAt(job.getContractSignedAt())
+                .jobWorkSubmittedAt(job.getWorkSubmittedAt())
+                .workStatus(workStatus)
+                .workSubmissionUrl(workSubmissionUrl)
+                .workSubmissionNote(workSubmissionNote)
+                .workSubmittedAt(workSubmittedAt)
+                .disputeInfo(disputeInfo)
+                .build();
+    }
+}
@@ -7,13 +7,11 @@ import com.workhub.api.repository.JobApplicationRepository;
 import com.workhub.api.repository.JobRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -28,68 +26,83 @@ public class JobSchedulerService {
     private final JobHistoryService jobHistoryService;
     private final DisputeService disputeService;
     private final BlockchainService blockchainService;
-
-    @Scheduled(fixedRate = 30000)
-    @Transactional
-    public void checkDeadlines() {
-        checkApplicationDeadlinesInternal();
-        checkSigningDeadlinesInternal();
-        checkWorkSubmissionDeadlinesInternal();
-        checkWorkReviewDeadlinesInternal();
-    }
-
-    @Scheduled(fixedRate = 30000)
+    private final JobSkillIndex jobSkillIndex;
+
+    /**
+     * Xử lý một deadline đến hạn do DeadlineScheduler gọi, mỗi deadline một transaction riêng.
+     * Trạng thái được kiểm tra lại vì mục trong hàng đợi có thể đã cũ. Dòng được khóa FOR UPDATE SKIP LOCKED
+     * nên dù khóa Redis không dùng được, hai instance cùng nhận một mục cũng chỉ một bên xử lý.
+     * @return false nếu deadline không còn áp dụng
+     */
     @Transactional
-    public void checkDisputeDeadlines() {
-        checkEvidenceDeadlinesInternal();
-        checkAdminVoteDeadlinesInternal();
-    }
-
-    private void checkEvidenceDeadlinesInternal() {
+    public boolean handleDeadline(EDeadlineType type, Long id) {
         LocalDateTime now = LocalDateTime.now();
-        List<Dispute> expiredDisputes = disputeRepository.findExpiredEvidenceDeadlines(
-                EDisputeStatus.PENDING_FREELANCER_RESPONSE, now);
-
-        for (Dispute dispute : expiredDisputes) {
-            try {
-                if (dispute.getBlockchainDisputeId() != null && blockchainService.isInitialized()) {
-                    String txHash = blockchainService.signResolveDisputeTimeout(dispute.getBlockchainDisputeId());
-                    disputeService.markAutoResolved(dispute, txHash);
-                    log.info("Dispute {} auto-resolved - TX: {}", dispute.getId(), txHash);
-                } else {
-                    disputeService.markEvidenceTimeout(dispute);
+        switch (type) {
+            case APPLICATION -> {
+                Job job = jobRepository.findByIdForDeadline(id).orElse(null);
+                if (job == null || job.getStatus() != EJobStatus.OPEN || !isPast(job.getApplicationDeadline(), now)) {
+                    return false;
                 }
-            } catch (Exception e) {
-                log.error("Dispute {} auto-resolve failed: {}", dispute.getId(), e.getMessage());
-                disputeService.markEvidenceTimeout(dispute);
+                processApplicationDeadlineExpired(job);
             }
-        }
-    }
-
-    private void checkAdminVoteDeadlinesInternal() {
-        LocalDateTime now = LocalDateTime.now();
-        List<DisputeRound> expiredRounds = disputeRoundRepository.findByStatusAndVoteDeadlineBefore(
-                EDisputeRoundStatus.PENDING_ADMIN, now);
-
-        for (DisputeRound round : expiredRounds) {
-            try {
+            case SIGNING -> {
+                Job job = jobRepository.findByIdForDeadline(id).orElse(null);
+                if (job == null || job.getStatus() != EJobStatus.PENDING_SIGNATURE || job.getAcceptedAt() == null
+                        || !isPast(job.getAcceptedAt().plusSeconds(DeadlineScheduler.SIGNING_TIMEOUT_SECONDS), now)) {
+                    return false;
+                }
+                processSigningTimeout(job);
+            }
+            case WORK_SUBMISSION -> {
+                Job job = jobRepository.findByIdForDeadline(id).orElse(null);
+                if (job == null || job.getStatus() != EJobStatus.IN_PROGRESS || !isPast(job.getWorkSubmissionDeadline(), now)) {
+                    return false;
+                }
+                processFreelancerSubmissionTimeout(job);
+            }
+            case WORK_REVIEW -> {
+                Job job = jobRepository.findByIdForDeadline(id).orElse(null);
+                if (job == null || job.getStatus() != EJobStatus.IN_PROGRESS || !isPast(job.getWorkReviewDeadline(), now)) {
+                    return false;
+                }
+                processEmployerReviewTimeout(job);
+            }
+            case DISPUTE_EVIDENCE -> {
+                Dispute dispute = disputeRepository.findByIdForDeadline(id).orElse(null);
+                if (dispute == null || dispute.getStatus() != EDisputeStatus.PENDING_FREELANCER_RESPONSE
+                        || !isPast(dispute.getEvidenceDeadline(), now)) {
+                    return false;
+                }
+                processEvidenceTimeout(dispute);
+            }
+            case ADMIN_VOTE -> {
+                DisputeRound round = disputeRoundRepository.findByIdForDeadline(id).orElse(null);
+                if (round == null || round.getStatus() != EDisputeRoundStatus.PENDING_ADMIN
+                        || !isPast(round.getVoteDeadline(), now)) {
+                    return false;
+                }
                 disputeService.handleAdminTimeout(round);
-            } catch (Exception e) {
-                log.error("Admin timeout error for round {}: {}", round.getId(), e.getMessage());
             }
         }
+        return true;
     }
 
-    private void checkApplicationDeadlinesInternal() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Job> expiredJobs = jobRepository.findByStatusAndApplicationDeadlineBefore(EJobStatus.OPEN, now);
+    private boolean isPast(LocalDateTime deadline, LocalDateTime now) {
+        return deadline != null && deadline.isBefore(now);
+    }
 
-        for (Job job : expiredJobs) {
-            try {
-                processApplicationDeadlineExpired(job);
-            } catch (Exception e) {
-                log.error("Application deadline error for job {}: {}", job.getId(), e.getMessage());
+    private void processEvidenceTimeout(Dispute dispute) {
+        try {
+            if (dispute.getBlockchainDisputeId() != null && blockchainService.isInitialized()) {
+                String txHash = blockchainService.signResolveDisputeTimeout(dispute.getBlockchainDisputeId());
+                disputeService.markAutoResolved(dispute, txHash);
+                log.info("Dispute {} auto-resolved - TX: {}", dispute.getId(), txHash);
+            } else {
+                disputeService.markEvidenceTimeout(dispute);
             }
+        } catch (Exception e) {
+            log.error("Dispute {} auto-resolve failed: {}", dispute.getId(), e.getMessage());
+            disputeService.markEvidenceTimeout(dispute);
         }
     }
 
@@ -124,19 +137,7 @@ public class JobSchedulerService {
         }
         
         jobRepository.save(job);
-    }
-
-    private void checkSigningDeadlinesInternal() {
-        LocalDateTime deadline = LocalDateTime.now().minusSeconds(90);
-        List<Job> overdueJobs = jobRepository.findByStatusAndAcceptedAtBefore(EJobStatus.PENDING_SIGNATURE, deadline);
-
-        for (Job job : overdueJobs) {
-            try {
-                processSigningTimeout(job);
-            } catch (Exception e) {
-                log.error("Signing timeout error for job {}: {}", job.getId(), e.getMessage());
-            }
-        }
+        jobSkillIndex.onJobChanged(job);
     }
 
     private void processSigningTimeout(Job job) {
@@ -159,6 +160,7 @@ public class JobSchedulerService {
                 application.setStatus(EApplicationStatus.REJECTED);
                 jobApplicationRepository.save(application);
                 jobRepository.save(job);
+                jobSkillIndex.onJobChanged(job);
 
                 jobHistoryService.logHistory(job, freelancer, EJobHistoryAction.FREELANCER_TIMEOUT,
                         freelancerName + " không ký hợp đồng trong 1p30s. Đã xóa khỏi blockchain.");
@@ -185,32 +187,6 @@ public class JobSchedulerService {
         }
     }
 
-    private void checkWorkSubmissionDeadlinesInternal() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Job> overdueJobs = jobRepository.findByStatusAndWorkSubmissionDeadlineBefore(EJobStatus.IN_PROGRESS, now);
-
-        for (Job job : overdueJobs) {
-            try {
-                processFreelancerSubmissionTimeout(job);
-            } catch (Exception e) {
-                log.error("Submission timeout error for job {}: {}", job.getId(), e.getMessage());
-            }
-        }
-    }
-
-    private void checkWorkReviewDeadlinesInternal() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Job> overdueJobs = jobRepository.findByStatusAndWorkReviewDeadlineBefore(EJobStatus.IN_PROGRESS, now);
-
-        for (Job job : overdueJobs) {
-            try {
-                processEmployerReviewTimeout(job);
-            } catch (Exception e) {
-                log.error("Review timeout error for job {}: {}", job.getId(), e.getMessage());
-            }
-        }
-    }
-
     private void processFreelancerSubmissionTimeout(Job job) {
         JobApplication application = jobApplicationRepository
                 .findFirstByJobIdAndStatus(job.getId(), EApplicationStatus.ACCEPTED)
@@ -233,6 +209,7 @@ public class JobSchedulerService {
                 application.clearWorkSubmission();
                 jobApplicationRepository.save(application);
                 jobRepository.save(job);
+                jobSkillIndex.onJobChanged(job);
 
                 jobHistoryService.logHistory(job, freelancer, EJobHistoryAction.FREELANCER_TIMEOUT,
                         freelancerName + " không nộp sản phẩm đúng hạn. Đã xóa khỏi blockchain.");
@@ -1,14 +1,15 @@
 package com.workhub.api.service;
 
+import com.workhub.api.config.JobSearchIndexInitializer;
 import com.workhub.api.dto.request.CreateJobRequest;
 import com.workhub.api.dto.request.RepostJobRequest;
 import com.workhub.api.dto.request.UpdateJobRequest;
 import com.workhub.api.dto.response.ApiResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.dto.response.JobResponse;
 import com.workhub.api.entity.*;
 import com.workhub.api.exception.JobNotFoundException;
 import com.workhub.api.exception.UnauthorizedAccessException;
-import com.workhub.api.repository.DisputeRepository;
 import com.workhub.api.repository.JobApplicationRepository;
 import com.workhub.api.repository.JobContractRepository;
 import com.workhub.api.repository.JobHistoryRepository;
@@ -17,6 +18,7 @@ import com.workhub.api.repository.SavedJobRepository;
 import com.workhub.api.repository.WithdrawalRequestRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -28,6 +30,11 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -37,13 +44,16 @@ public class JobService {
     private final JobApplicationRepository jobApplicationRepository;
     private final JobContractRepository jobContractRepository;
     private final JobHistoryRepository jobHistoryRepository;
-    private final DisputeRepository disputeRepository;
     private final WithdrawalRequestRepository withdrawalRequestRepository;
     private final SavedJobRepository savedJobRepository;
     private final UserService userService;
     private final JobHistoryService jobHistoryService;
     private final NotificationService notificationService;
     private final JobContractService jobContractService;
+    private final JobResponseAssembler jobResponseAssembler;
+    private final JobSearchIndexInitializer jobSearchIndexInitializer;
+    private final JobSkillIndex jobSkillIndex;
+    private final JobViewCounter jobViewCounter;
     private final ObjectMapper objectMapper;
 
     private static final BigDecimal FEE_PERCENT = new BigDecimal("5.00");
@@ -104,19 +114,19 @@ public class JobService {
         }
 
         Job savedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(savedJob);
 
         return ApiResponse.success(isDraft ? "Đã lưu bản nháp" : "Tạo job thành công", buildJobResponse(savedJob));
     }
 
     public ApiResponse<JobResponse> getJobById(Long jobId) {
-        Job job = getById(jobId);
+        Job job = getByIdWithEmployer(jobId);
         return ApiResponse.success("Thành công", buildJobResponse(job));
     }
 
     public ApiResponse<JobResponse> getJobByIdAndIncrementView(Long jobId) {
-        Job job = getById(jobId);
-        job.incrementViewCount();
-        jobRepository.save(job);
+        Job job = getByIdWithEmployer(jobId);
+        jobViewCounter.recordView(jobId);
         return ApiResponse.success("Thành công", buildJobResponse(job));
     }
 
@@ -127,11 +137,25 @@ public class JobService {
         Pageable pageable = PageRequest.of(page, size, sort);
 
         Page<Job> jobs = jobRepository.findByStatusAndNotExpired(EJobStatus.OPEN, java.time.LocalDateTime.now(), pageable);
-        Page<JobResponse> response = jobs.map(this::buildJobResponse);
+        Page<JobResponse> response = jobResponseAssembler.toResponsePage(jobs);
 
         return ApiResponse.success("Thành công", response);
     }
 
+    public ApiResponse<CursorPageResponse<JobResponse>> getOpenJobsFeed(String cursor, int size) {
+        CursorPageResponse.Cursor after = CursorPageResponse.Cursor.decode(cursor);
+        int pageSize = CursorPageResponse.normalizeSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+
+        List<Job> jobs = after == null
+                ? jobRepository.findOpenFeedFirst(EJobStatus.OPEN, now, limit)
+                : jobRepository.findOpenFeedAfter(EJobStatus.OPEN, now, after.createdAt(), after.id(), limit);
+
+        return ApiResponse.success("Thành công", CursorPageResponse.of(jobs, pageSize,
+                Job::getCreatedAt, Job::getId, jobResponseAssembler::toResponses));
+    }
+
     public ApiResponse<Page<JobResponse>> getMyJobs(Long employerId, EJobStatus status, 
                                                      int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") 
@@ -146,7 +170,7 @@ public class JobService {
             jobs = jobRepository.findByEmployerId(employerId, pageable);
         }
 
-        Page<JobResponse> response = jobs.map(this::buildJobResponse);
+        Page<JobResponse> response = jobResponseAssembler.toResponsePage(jobs);
         return ApiResponse.success("Thành công", response);
     }
 
@@ -181,19 +205,70 @@ public class JobService {
     public record FreelancerJobStats(long inProgress, long completed, long disputed, long totalEarnings) {}
 
     public ApiResponse<Page<JobResponse>> searchJobs(String keyword, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Job> jobs = jobRepository.searchJobs(keyword, EJobStatus.OPEN, java.time.LocalDateTime.now(), pageable);
-        Page<JobResponse> response = jobs.map(this::buildJobResponse);
+        String tsQuery = toPrefixTsQuery(keyword);
+        Page<Job> jobs;
+        if (tsQuery != null && jobSearchIndexInitializer.isAvailable()) {
+            // Thứ tự theo độ liên quan đã nằm trong native query
+            jobs = jobRepository.fullTextSearch(tsQuery, EJobStatus.OPEN.name(),
+                    java.time.LocalDateTime.now(), PageRequest.of(page, size));
+        } else {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            jobs = jobRepository.searchJobs(keyword, EJobStatus.OPEN, java.time.LocalDateTime.now(), pageable);
+        }
+        Page<JobResponse> response = jobResponseAssembler.toResponsePage(jobs);
         return ApiResponse.success("Thành công", response);
     }
 
+    /**
+     * "lập trình java" -> "lập:* & trình:* & java:*" (prefix match cho search box).
+     * Chỉ giữ chữ/số nên không thể chèn toán tử tsquery.
+     */
+    private String toPrefixTsQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringJoiner joiner = new StringJoiner(" & ");
+        for (String token : keyword.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                joiner.add(token + ":*");
+            }
+        }
+        return joiner.length() > 0 ? joiner.toString() : null;
+    }
+
     public ApiResponse<Page<JobResponse>> getJobsBySkills(List<String> skills, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Job> jobs = jobRepository.findBySkillsAndStatus(skills, EJobStatus.OPEN, java.time.LocalDateTime.now(), pageable);
-        Page<JobResponse> response = jobs.map(this::buildJobResponse);
+        Page<Job> jobs;
+        if (jobSkillIndex.isReady()) {
+            jobs = findJobsBySkillsFromIndex(skills, PageRequest.of(page, size));
+        } else {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            jobs = jobRepository.findBySkillsAndStatus(skills, EJobStatus.OPEN, java.time.LocalDateTime.now(), pageable);
+        }
+        Page<JobResponse> response = jobResponseAssembler.toResponsePage(jobs);
         return ApiResponse.success("Thành công", response);
     }
 
+    // Xếp hạng lấy từ JobSkillIndex, chỉ đọc DB cho các job của trang hiện tại
+    private Page<Job> findJobsBySkillsFromIndex(List<String> skills, Pageable pageable) {
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        List<Long> rankedIds = jobSkillIndex.findOpenJobIds(skills, now);
+
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        Map<Long, Job> loaded = jobRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity()));
+        // Index có thể trễ một nhịp so với DB nên kiểm tra lại trạng thái
+        List<Job> content = pageIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .filter(job -> job.isOpen() && !job.isExpired())
+                .toList();
+
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
     @Transactional
     public ApiResponse<JobResponse> updateJob(Long jobId, Long userId, UpdateJobRequest req) {
         Job job = getById(jobId);
@@ -262,6 +337,7 @@ public class JobService {
         }
 
         Job updatedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(updatedJob);
 
         JobContract contract = jobContractRepository.findByJobId(jobId).orElse(null);
         if (contract != null) {
@@ -335,6 +411,7 @@ public class JobService {
 
         job.close();
         Job updatedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(updatedJob);
 
         return ApiResponse.success("Đã đóng tin tuyển dụng", buildJobResponse(updatedJob));
     }
@@ -363,6 +440,7 @@ public class JobService {
         }
 
         Job updatedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(updatedJob);
         String message = updatedJob.getStatus() == EJobStatus.OPEN 
                 ? "Đã đăng tin công khai" 
                 : "Đã chuyển về bản nháp";
@@ -442,6 +520,7 @@ public class JobService {
         }
 
         Job savedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(savedJob);
 
         JobContract existingContract = jobContractRepository.findByJobId(jobId).orElse(null);
         if (existingContract == null) {
@@ -489,6 +568,11 @@ public class JobService {
                 .orElseThrow(() -> new JobNotFoundException(id));
     }
 
+    private Job getByIdWithEmployer(Long id) {
+        return jobRepository.findByIdWithEmployer(id)
+                .orElseThrow(() -> new JobNotFoundException(id));
+    }
+
     public void validateHistoryAccess(Long jobId, Long userId) {
         Job job = getById(jobId);
         User user = userService.getById(userId);
@@ -511,106 +595,7 @@ public class JobService {
     }
 
     public JobResponse buildJobResponse(Job job) {
-        User employer = job.getEmployer();
-        
-        JobResponse.EmployerResponse employerResponse = JobResponse.EmployerResponse.builder()
-                .id(employer.getId())
-                .fullName(employer.getFullName())
-                .avatarUrl(employer.getAvatarUrl())
-                .walletAddress(employer.getWalletAddress())
-                .title(employer.getTitle())
-                .company(employer.getCompany())
-                .location(employer.getLocation())
-                .isVerified(employer.getIsVerified())
-                .trustScore(employer.getTrustScore())
-                .untrustScore(employer.getUntrustScore())
-                .build();
-
-        // Get dispute info if job is DISPUTED
-        JobResponse.DisputeInfo disputeInfo = null;
-        if (job.getStatus() == EJobStatus.DISPUTED) {
-            var disputeOpt = disputeRepository.findByJobId(job.getId());
-            if (disputeOpt.isPresent()) {
-                var dispute = disputeOpt.get();
-                disputeInfo = JobResponse.DisputeInfo.builder()
-                        .id(dispute.getId())
-                        .status(dispute.getStatus().name())
-                        .evidenceDeadline(dispute.getEvidenceDeadline())
-                        .hasFreelancerEvidence(dispute.hasFreelancerEvidence())
-                        .currentRound(dispute.getCurrentRound())
-                        .build();
-            }
-        }
-
-        // Get work submission info from accepted application
-        EWorkStatus workStatus = null;
-        String workSubmissionUrl = null;
-        String workSubmissionNote = null;
-        java.time.LocalDateTime workSubmittedAt = null;
-        JobResponse.FreelancerResponse freelancerResponse = null;
-        var acceptedAppOpt = jobApplicationRepository.findFirstByJobIdAndStatus(job.getId(), EApplicationStatus.ACCEPTED);
-        if (acceptedAppOpt.isPresent()) {
-            var application = acceptedAppOpt.get();
-            workStatus = application.getWorkStatus();
-            workSubmissionUrl = application.getWorkSubmissionUrl();
-            workSubmissionNote = application.getWorkSubmissionNote();
-            workSubmittedAt = application.getWorkSubmittedAt();
-            
-            var freelancer = application.getFreelancer();
-            if (freelancer != null) {
-                freelancerResponse = JobResponse.FreelancerResponse.builder()
-                        .id(freelancer.getId())
-                        .fullName(freelancer.getFullName())
-                        .avatarUrl(freelancer.getAvatarUrl())
-                        .walletAddress(freelancer.getWalletAddress())
-                        .build();
-            }
-        }
-
-        return JobResponse.builder()
-                .id(job.getId())
-                .title(job.getTitle())
-                .description(job.getDescription())
-                .context(job.getContext())
-                .requirements(job.getRequirements())
-                .deliverables(job.getDeliverables())
-                .skills(job.getSkills())
-                .complexity(job.getComplexity())
-                .duration(job.getDuration())
-                .workType(job.getWorkType())
-                .budget(job.getBudget())
-                .escrowAmount(job.getEscrowAmount())
-                .currency(job.getCurrency())
-                .applicationDeadline(job.getApplicationDeadline())
-                .submissionDays(job.getSubmissionDays())
-                .reviewDays(job.getReviewDays())
-                .status(job.getStatus())
-                .workSubmissionDeadline(job.getWorkSubmissionDeadline())
-                .workReviewDeadline(job.getWorkReviewDeadline())
-                .viewCount(job.getViewCount())
-                .applicationCount(job.getApplicationCount())
-                .employer(employerResponse)
-                .freelancer(freelancerResponse)
-                .createdAt(job.getCreatedAt())
-                .updatedAt(job.getUpdatedAt())
-                .escrowId(job.getEscrowId())
-                .employerWalletAddress(job.getEmployerWalletAddress())
-                .freelancerWalletAddress(job.getFreelancerWalletAddress())
-                .escrowTxHash(job.getEscrowTxHash())
-                .paymentTxHash(job.getPaymentTxHash())
-                .refundTxHash(job.getRefundTxHash())
-                .pendingBlockchainAction(job.getPendingBlockchainAction())
-                .acceptedAt(job.getAcceptedAt())
-                // FOR TESTING: 24h -> 90 seconds
-                .signDeadline(job.getAcceptedAt() != null ? job.getAcceptedAt().plusSeconds(90) : null)
-                .contractSignedAt(job.getContractSignedAt())
-                .jobWorkSubmittedAt(job.getWorkSubmittedAt())
-                .workStatus(workStatus)
-                .workSubmissionUrl(workSubmissionUrl)
-                .workSubmissionNote(workSubmissionNote)
-                .workSubmittedAt(workSubmittedAt)
-                .disputeInfo(disputeInfo)
-                .build();
+        return jobResponseAssembler.toResponse(job);
     }
 
     public JobResponse buildJobResponseWithWorkInfo(Job job, Long freelancerId) {
@@ -655,6 +640,7 @@ public class JobService {
         job.setFreelancerWalletAddress(null);
         job.clearPendingBlockchainAction();
         jobRepository.save(job);
+        jobSkillIndex.onJobChanged(job);
 
 
         jobHistoryService.logHistory(job, admin, EJobHistoryAction.JOB_REOPENED,
@@ -713,7 +699,7 @@ public class JobService {
                 EPendingBlockchainAction.NONE,
                 PageRequest.of(page, size, Sort.by("updatedAt").descending())
         );
-        Page<JobResponse> responses = jobs.map(this::buildJobResponse);
+        Page<JobResponse> responses = jobResponseAssembler.toResponsePage(jobs);
         return ApiResponse.success("Thành công", responses);
     }
 
@@ -746,6 +732,7 @@ public class JobService {
         job.setStatus(EJobStatus.OPEN);
         job.setFreelancerWalletAddress(null);
         Job updatedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(updatedJob);
 
         jobHistoryService.logHistory(job, freelancer, EJobHistoryAction.APPLICATION_REJECTED,
                 "Freelancer đã từ chối ký hợp đồng");
@@ -827,6 +814,7 @@ public class JobService {
         job.setStatus(EJobStatus.OPEN);
         job.setFreelancerWalletAddress(null);
         Job updatedJob = jobRepository.save(job);
+        jobSkillIndex.onJobChanged(updatedJob);
 
         jobHistoryService.logHistory(job, caller, EJobHistoryAction.FREELANCER_TIMEOUT,
                 "Freelancer bị xóa do quá hạn 1p30s không ký hợp đồng");
@@ -0,0 +1,243 @@
+package com.workhub.api.service;
+
+import com.workhub.api.entity.EJobStatus;
+import com.workhub.api.entity.Job;
+import com.workhub.api.repository.JobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index trong bộ nhớ: skill -> mảng id (đã sắp xếp) của các job OPEN.
+ * Cập nhật sau commit khi job đổi trạng thái; các instance khác nhận id job qua Redis pub/sub
+ * rồi tự đọc lại từ DB. Định kỳ dựng lại toàn bộ để bù cho thay đổi bị lỡ.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobSkillIndex implements MessageListener {
+
+    private static final String CHANNEL = "jobs:skill-index";
+
+    private final JobRepository jobRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Object writeLock = new Object();
+
+    private volatile Map<String, long[]> postings = new ConcurrentHashMap<>();
+    private volatile Map<Long, IndexedJob> entries = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    private record IndexedJob(long id, boolean open, LocalDateTime createdAt,
+                              LocalDateTime applicationDeadline, Set<String> skills) {
+
+        static IndexedJob of(Job job) {
+            return new IndexedJob(job.getId(), job.getStatus() == EJobStatus.OPEN, job.getCreatedAt(),
+                    job.getApplicationDeadline(), new HashSet<>(job.getSkills()));
+        }
+
+        static IndexedJob removed(long id) {
+            return new IndexedJob(id, false, null, null, Set.of());
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return applicationDeadline != null && !applicationDeadline.isAfter(now);
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void rebuild() {
+        try {
+            synchronized (writeLock) {
+                Map<String, List<Long>> grouped = new HashMap<>();
+                Map<Long, IndexedJob> newEntries = new ConcurrentHashMap<>();
+                for (Object[] row : jobRepository.findSkillIndexRows(EJobStatus.OPEN)) {
+                    Long id = (Long) row[0];
+                    String skill = (String) row[3];
+                    IndexedJob entry = newEntries.computeIfAbsent(id, key -> new IndexedJob(key, true,
+                            (LocalDateTime) row[1], (LocalDateTime) row[2], new HashSet<>()));
+                    entry.skills().add(skill);
+                    grouped.computeIfAbsent(skill, key -> new ArrayList<>()).add(id);
+                }
+
+                Map<String, long[]> newPostings = new ConcurrentHashMap<>();
+                grouped.forEach((skill, ids) -> newPostings.put(skill,
+                        ids.stream().mapToLong(Long::longValue).distinct().sorted().toArray()));
+
+                postings = newPostings;
+                entries = newEntries;
+                ready = true;
+                log.debug("Job skill index rebuilt: {} jobs, {} skills", newEntries.size(), newPostings.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to rebuild job skill index: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gọi sau khi lưu job. Index chỉ đổi khi transaction commit thành công.
+     */
+    public void onJobChanged(Job job) {
+        IndexedJob snapshot = IndexedJob.of(job);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyAndPublish(snapshot);
+                }
+            });
+        } else {
+            applyAndPublish(snapshot);
+        }
+    }
+
+    /**
+     * Id các job OPEN còn hạn có ít nhất một skill khớp, xếp theo số skill khớp rồi job mới nhất.
+     */
+    public List<Long> findOpenJobIds(Collection<String> skills, LocalDateTime now) {
+        Map<String, long[]> currentPostings = postings;
+        Map<Long, IndexedJob> currentEntries = entries;
+
+        Map<Long, Integer> matchCounts = new HashMap<>();
+        for (String skill : new HashSet<>(skills)) {
+            long[] ids = currentPostings.get(skill);
+            if (ids == null) {
+                continue;
+            }
+            for (long id : ids) {
+                matchCounts.merge(id, 1, Integer::sum);
+            }
+        }
+
+        List<IndexedJob> matches = new ArrayList<>(matchCounts.size());
+        for (Long id : matchCounts.keySet()) {
+            IndexedJob entry = currentEntries.get(id);
+            if (entry != null && !entry.isExpired(now)) {
+                matches.add(entry);
+            }
+        }
+
+        matches.sort(Comparator.<IndexedJob>comparingInt(entry -> matchCounts.get(entry.id())).reversed()
+                .thenComparing(IndexedJob::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(Comparator.comparingLong(IndexedJob::id).reversed()));
+
+        return matches.stream().map(IndexedJob::id).toList();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(body instanceof String payload)) {
+                return;
+            }
+            int separator = payload.lastIndexOf(':');
+            if (separator < 0 || payload.substring(0, separator).equals(instanceId)) {
+                return;
+            }
+            long jobId = Long.parseLong(payload.substring(separator + 1));
+            apply(jobRepository.findById(jobId)
+                    .map(IndexedJob::of)
+                    .orElse(IndexedJob.removed(jobId)));
+        } catch (Exception e) {
+            log.warn("Failed to apply job skill index update: {}", e.getMessage());
+        }
+    }
+
+    private void applyAndPublish(IndexedJob snapshot) {
+        apply(snapshot);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + ":" + snapshot.id());
+        } catch (Exception e) {
+            log.warn("Failed to publish job skill index update for job {}: {}", snapshot.id(), e.getMessage());
+        }
+    }
+
+    private void apply(IndexedJob snapshot) {
+        synchronized (writeLock) {
+            IndexedJob previous = entries.remove(snapshot.id());
+            if (previous != null) {
+                for (String skill : previous.skills()) {
+                    long[] ids = remove(postings.get(skill), snapshot.id());
+                    if (ids == null) {
+                        postings.remove(skill);
+                    } else {
+                        postings.put(skill, ids);
+                    }
+                }
+            }
+
+            if (snapshot.open() && !snapshot.skills().isEmpty()) {
+                entries.put(snapshot.id(), snapshot);
+                for (String skill : snapshot.skills()) {
+                    postings.put(skill, insert(postings.get(skill), snapshot.id()));
+                }
+            }
+        }
+    }
+
+    // Mảng id được thay mới thay vì sửa tại chỗ để luồng đọc không cần khóa
+    private static long[] insert(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        pos = -pos - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        result[pos] = id;
+        System.arraycopy(ids, pos, result, pos + 1, ids.length - pos);
+        return result;
+    }
+
+    private static long[] remove(long[] ids, long id) {
+        if (ids == null) {
+            return null;
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package com.workhub.api.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Đếm lượt xem job trong bộ nhớ và ghi dồn xuống jobs.view_count theo lô,
+ * tránh mỗi lượt xem là một UPDATE cả dòng job.
+ * Mỗi instance chỉ cộng phần của mình nên chạy nhiều instance vẫn đúng.
+ */
+@Slf4j
+@Service
+public class JobViewCounter {
+
+    private static final String FLUSH_SQL = "UPDATE jobs SET view_count = view_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer flushLagTimer;
+    private final DistributionSummary flushBatchSize;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Thời điểm (nanoTime) của lượt xem cũ nhất chưa ghi xuống DB, 0 nếu không có
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+
+    // views tăng liên tục, flushed là phần đã ghi DB -> không mất lượt xem nào khi flush song song với increment
+    private static class Counter {
+        final LongAdder views = new LongAdder();
+        volatile long flushed;
+
+        long pending() {
+            return views.sum() - flushed;
+        }
+    }
+
+    public JobViewCounter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushLagTimer = Timer.builder("workhub.jobs.views.flush.lag")
+                .description("Thời gian lượt xem cũ nhất chờ được ghi xuống DB")
+                .register(meterRegistry);
+        this.flushBatchSize = DistributionSummary.builder("workhub.jobs.views.flush.batch")
+                .description("Số job được cập nhật trong mỗi lần flush")
+                .register(meterRegistry);
+        Gauge.builder("workhub.jobs.views.pending.jobs", counters, Map::size)
+                .description("Số job đang có lượt xem chưa ghi DB")
+                .register(meterRegistry);
+    }
+
+    public void recordView(Long jobId) {
+        // Tăng trong compute: flush() bỏ counter rỗng bằng computeIfPresent nên không thể xóa mất lượt xem đang cộng
+        counters.compute(jobId, (id, counter) -> {
+            Counter current = counter != null ? counter : new Counter();
+            current.views.increment();
+            return current;
+        });
+        oldestPendingNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Lượt xem chưa flush, cộng vào view_count đọc từ DB để số liệu trả về luôn mới nhất.
+     */
+    public long pendingViews(Long jobId) {
+        Counter counter = counters.get(jobId);
+        return counter != null ? counter.pending() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.view-flush-interval:5000}")
+    public synchronized void flush() {
+        long oldest = oldestPendingNanos.getAndSet(0);
+
+        List<Long> jobIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            long delta = entry.getValue().pending();
+            if (delta > 0) {
+                jobIds.add(entry.getKey());
+                batchArgs.add(new Object[]{delta, entry.getKey()});
+            } else {
+                // Không có lượt xem mới kể từ lần flush trước
+                counters.computeIfPresent(entry.getKey(), (id, counter) -> counter.pending() == 0 ? null : counter);
+            }
+        }
+
+        if (batchArgs.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Cả batch trong một transaction: lỗi giữa chừng thì không dòng nào được ghi, lần sau cộng lại đúng một lần
+            int[] updated = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs));
+            for (int i = 0; i < jobIds.size(); i++) {
+                Counter counter = counters.get(jobIds.get(i));
+                if (counter != null) {
+                    counter.flushed += (Long) batchArgs.get(i)[0];
+                }
+                if (updated != null && updated[i] == 0) {
+                    // Job đã bị xóa: bỏ lượt xem thay vì thử lại mãi
+                    counters.remove(jobIds.get(i));
+                }
+            }
+            flushBatchSize.record(batchArgs.size());
+            if (oldest != 0) {
+                flushLagTimer.record(Duration.ofNanos(System.nanoTime() - oldest));
+            }
+        } catch (Exception e) {
+            // Giữ nguyên phần chưa ghi để lần sau thử lại
+            oldestPendingNanos.compareAndSet(0, oldest);
+            log.warn("Failed to flush job view counts for {} jobs: {}", batchArgs.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -3,6 +3,7 @@ package com.workhub.api.service;
 import com.workhub.api.dto.request.SendMessageRequest;
 import com.workhub.api.dto.response.ChatMessageResponse;
 import com.workhub.api.dto.response.ConversationResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.entity.*;
 import com.workhub.api.exception.FileUploadException;
 import com.workhub.api.exception.MessageRateLimitException;
@@ -15,14 +16,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -32,40 +31,20 @@ public class MessageService {
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
     private final FileUploadRepository fileUploadRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final OutboxService outboxService;
     private final OnlineStatusService onlineStatusService;
+    private final RateLimiter rateLimiter;
 
+    private static final String SEND_RATE_LIMITER = "chat-send";
     private static final int MAX_MESSAGES_PER_MINUTE = 15;
-    private static final long RATE_LIMIT_WINDOW_MS = 60_000;
-    
-    private final ConcurrentHashMap<Long, RateLimitInfo> rateLimitMap = new ConcurrentHashMap<>();
-
-    private static class RateLimitInfo {
-        AtomicInteger count = new AtomicInteger(0);
-        volatile long windowStart = System.currentTimeMillis();
-        
-        synchronized boolean tryAcquire() {
-            long now = System.currentTimeMillis();
-            if (now - windowStart > RATE_LIMIT_WINDOW_MS) {
-                windowStart = now;
-                count.set(1);
-                return true;
-            }
-            return count.incrementAndGet() <= MAX_MESSAGES_PER_MINUTE;
-        }
-        
-        int getRemainingSeconds() {
-            long elapsed = System.currentTimeMillis() - windowStart;
-            return (int) Math.ceil((RATE_LIMIT_WINDOW_MS - elapsed) / 1000.0);
-        }
-    }
+    private static final long RATE_LIMIT_WINDOW_SECONDS = 60;
 
     @Transactional
     public ChatMessageResponse sendMessage(Long senderId, SendMessageRequest request) {
-        RateLimitInfo rateLimitInfo = rateLimitMap.computeIfAbsent(senderId, k -> new RateLimitInfo());
-        if (!rateLimitInfo.tryAcquire()) {
-            int remainingSeconds = rateLimitInfo.getRemainingSeconds();
-            throw new MessageRateLimitException("Bạn đang gửi tin nhắn quá nhanh. Vui lòng thử lại sau " + remainingSeconds + " giây.");
+        RateLimiter.Result rateLimit = rateLimiter.tryAcquire(SEND_RATE_LIMITER, "user:" + senderId,
+                MAX_MESSAGES_PER_MINUTE, RATE_LIMIT_WINDOW_SECONDS);
+        if (!rateLimit.allowed()) {
+            throw new MessageRateLimitException("Bạn đang gửi tin nhắn quá nhanh. Vui lòng thử lại sau " + rateLimit.retryAfterSeconds() + " giây.");
         }
 
         User sender = userRepository.findById(senderId)
@@ -151,13 +130,13 @@ public class MessageService {
 
         ChatMessageResponse response = ChatMessageResponse.fromEntity(message);
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 receiver.getIdentifier(),
                 "/queue/messages",
                 response
         );
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 receiver.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, receiver.getId())
@@ -181,6 +160,28 @@ public class MessageService {
         return messages.map(ChatMessageResponse::fromEntity);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChatMessageResponse> getMessagesByCursor(Long conversationId, Long userId,
+                                                                        String cursor, int size) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+
+        if (!conversation.hasUser(userId)) {
+            throw new RuntimeException("Access denied to this conversation");
+        }
+
+        CursorPageResponse.Cursor after = CursorPageResponse.Cursor.decode(cursor);
+        int pageSize = CursorPageResponse.normalizeSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<ChatMessage> messages = after == null
+                ? chatMessageRepository.findHistoryFirst(conversation, limit)
+                : chatMessageRepository.findHistoryAfter(conversation, after.createdAt(), after.id(), limit);
+
+        return CursorPageResponse.of(messages, pageSize, ChatMessage::getCreatedAt, ChatMessage::getId,
+                page -> page.stream().map(ChatMessageResponse::fromEntity).toList());
+    }
+
     @Transactional(readOnly = true)
     public ChatMessageResponse getMessage(Long messageId, Long userId) {
         ChatMessage message = chatMessageRepository.findById(messageId)
@@ -214,7 +215,7 @@ public class MessageService {
         ChatMessageResponse response = ChatMessageResponse.fromEntity(message);
 
         User otherUser = message.getConversation().getOtherUser(userId);
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 otherUser.getIdentifier(),
                 "/queue/message-updated",
                 response
@@ -252,19 +253,19 @@ public class MessageService {
         User sender = message.getSender();
         User otherUser = conversation.getOtherUser(userId);
         
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 otherUser.getIdentifier(),
                 "/queue/message-deleted",
                 response
         );
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 otherUser.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, otherUser.getId())
         );
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 sender.getIdentifier(),
                 "/queue/conversations",
                 ConversationResponse.fromEntity(conversation, sender.getId())
@@ -293,7 +294,7 @@ public class MessageService {
 
         conversationRepository.save(conversation);
 
-        messagingTemplate.convertAndSendToUser(
+        outboxService.sendToUser(
                 otherUser.getIdentifier(),
                 "/queue/message-status",
                 Map.of(
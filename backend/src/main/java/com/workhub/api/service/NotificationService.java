@@ -1,16 +1,27 @@
 package com.workhub.api.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.workhub.api.dto.response.ApiResponse;
+import com.workhub.api.dto.response.CursorPageResponse;
 import com.workhub.api.dto.response.NotificationResponse;
 import com.workhub.api.entity.*;
 import com.workhub.api.repository.NotificationRepository;
+import com.workhub.api.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,9 +29,19 @@ import java.util.stream.Collectors;
 public class NotificationService {
     
     private final NotificationRepository notificationRepository;
+    private final NotificationUnreadCounter unreadCounter;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserPrincipalCache userPrincipalCache;
+    private final OutboxService outboxService;
+
+    @Value("${app.notifications.aggregation-window-minutes:60}")
+    private long aggregationWindowMinutes;
+
+    @Value("${app.notifications.aggregation-max-age-hours:24}")
+    private long aggregationMaxAgeHours;
 
     public ApiResponse<List<NotificationResponse>> getRecentNotifications(Long userId) {
-        List<Notification> notifications = notificationRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId);
+        List<Notification> notifications = notificationRepository.findTop20ByUserIdOrderByLastAggregatedAtDescIdDesc(userId);
         List<NotificationResponse> responses = notifications.stream()
                 .map(NotificationResponse::fromEntity)
                 .collect(Collectors.toList());
@@ -28,21 +49,48 @@ public class NotificationService {
     }
 
     public ApiResponse<Page<NotificationResponse>> getNotifications(Long userId, int page, int size) {
-        Page<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(
+        Page<Notification> notifications = notificationRepository.findByUserIdOrderByLastAggregatedAtDescIdDesc(
                 userId, PageRequest.of(page, size));
         Page<NotificationResponse> responses = notifications.map(NotificationResponse::fromEntity);
         return ApiResponse.success("Thành công", responses);
     }
 
+    public ApiResponse<CursorPageResponse<NotificationResponse>> getNotificationsFeed(Long userId, String cursor, int size) {
+        CursorPageResponse.Cursor after = CursorPageResponse.Cursor.decode(cursor);
+        int pageSize = CursorPageResponse.normalizeSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> notifications = after == null
+                ? notificationRepository.findFeedFirst(userId, limit)
+                : notificationRepository.findFeedAfter(userId, after.createdAt(), after.id(), limit);
+
+        return ApiResponse.success("Thành công", CursorPageResponse.of(notifications, pageSize,
+                Notification::getCreatedAt, Notification::getId,
+                page -> page.stream().map(NotificationResponse::fromEntity).toList()));
+    }
+
+    /**
+     * Feed không đổi thứ tự khi thông báo được gộp; client lấy các lần gộp xảy ra sau mốc since
+     * (thời điểm tải trang đầu) qua đây, hoặc nhận realtime qua event UPDATED.
+     */
+    public ApiResponse<List<NotificationResponse>> getMergedSince(Long userId, LocalDateTime since) {
+        List<Notification> merged = notificationRepository.findMergedSince(userId, since,
+                PageRequest.of(0, CursorPageResponse.MAX_SIZE));
+        return ApiResponse.success("Thành công", merged.stream().map(NotificationResponse::fromEntity).toList());
+    }
+
     public ApiResponse<Long> getUnreadCount(Long userId) {
-        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
-        return ApiResponse.success("Thành công", count);
+        return ApiResponse.success("Thành công", unreadCounter.get(userId));
     }
 
     @Transactional
     public ApiResponse<Void> markAsRead(Long notificationId, Long userId) {
         int updated = notificationRepository.markAsRead(notificationId, userId);
         if (updated > 0) {
+            enqueuePush(userId, null, "READ", Map.of("notificationId", notificationId));
+            return ApiResponse.success("Đã đánh dấu đã đọc", null);
+        }
+        if (notificationRepository.existsByIdAndUserId(notificationId, userId)) {
             return ApiResponse.success("Đã đánh dấu đã đọc", null);
         }
         return ApiResponse.error("Không tìm thấy thông báo");
@@ -51,9 +99,71 @@ public class NotificationService {
     @Transactional
     public ApiResponse<Void> markAllAsRead(Long userId) {
         notificationRepository.markAllAsReadByUserId(userId);
+        enqueuePush(userId, null, "READ_ALL", Map.of());
         return ApiResponse.success("Đã đánh dấu tất cả đã đọc", null);
     }
 
+    /**
+     * Lưu thông báo; bộ đếm chưa đọc và frame /user/queue/notifications đi qua outbox cùng transaction.
+     */
+    private void publish(Notification notification) {
+        publishAll(List.of(notification));
+    }
+
+    /**
+     * Như publish nhưng cho nhiều thông báo: notifications qua saveAll, outbox qua enqueueAll,
+     * mỗi bảng đi thành JDBC batch thay vì từng INSERT.
+     */
+    private void publishAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        notificationRepository.saveAll(notifications);
+        List<OutboxService.Entry> entries = notifications.stream()
+                .map(notification -> {
+                    User user = notification.getUser();
+                    return new OutboxService.Entry("notifications:" + user.getId(),
+                            pushPayload(user.getId(), user.getIdentifier(), "CREATED",
+                                    Map.of("notification", NotificationResponse.fromEntity(notification))));
+                })
+                .toList();
+        outboxService.enqueueAll(EOutboxEventType.NOTIFICATION, entries);
+    }
+
+    private void enqueuePush(Long userId, String identifier, String event, Map<String, Object> data) {
+        outboxService.enqueue(EOutboxEventType.NOTIFICATION, "notifications:" + userId,
+                pushPayload(userId, identifier, event, data));
+    }
+
+    private Map<String, Object> pushPayload(Long userId, String identifier, String event, Map<String, Object> data) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", userId);
+        payload.put("user", identifier);
+        payload.put("event", event);
+        payload.put("data", data);
+        return payload;
+    }
+
+    /**
+     * Gọi bởi OutboxDispatcher sau commit: đếm lại số chưa đọc rồi đẩy frame. Không phụ thuộc số lần giao
+     * hay thứ tự giao vì bộ đếm luôn lấy từ DB tại thời điểm giao.
+     */
+    public void deliver(JsonNode event) {
+        long userId = event.path("userId").asLong();
+        String identifier = event.path("user").textValue();
+        if (identifier == null) {
+            identifier = userPrincipalCache.get(userId).getUsername();
+        }
+
+        long unreadCount = unreadCounter.refresh(userId);
+
+        JsonNode data = event.path("data");
+        ObjectNode payload = data.isObject() ? data.deepCopy() : JsonNodeFactory.instance.objectNode();
+        payload.put("event", event.path("event").asText());
+        payload.put("unreadCount", unreadCount);
+        messagingTemplate.convertAndSendToUser(identifier, "/queue/notifications", payload);
+    }
+
     @Transactional
     public void notifyApplicationAccepted(User freelancer, Job job) {
         Notification notification = Notification.builder()
@@ -64,7 +174,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -77,20 +187,69 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
+    }
+
+    @Transactional
+    public void notifyApplicationsRejected(List<User> freelancers, Job job) {
+        notifyMany(freelancers, ENotificationType.APPLICATION_REJECTED,
+                "Đơn ứng tuyển bị từ chối",
+                "Đơn ứng tuyển của bạn cho công việc \"" + job.getTitle() + "\" đã bị từ chối.",
+                job.getId(), "JOB");
     }
 
+    /**
+     * Cùng một thông báo cho nhiều người (fan-out), ghi bằng batch insert.
+     */
+    @Transactional
+    public void notifyMany(List<User> users, ENotificationType type, String title, String message,
+                           Long referenceId, String referenceType) {
+        publishAll(users.stream()
+                .map(user -> Notification.builder()
+                        .user(user)
+                        .type(type)
+                        .title(title)
+                        .message(message)
+                        .referenceId(referenceId)
+                        .referenceType(referenceType)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Các lượt ứng tuyển cùng job trong cửa sổ gộp dồn vào một thông báo chưa đọc
+     * ("A và 41 người khác đã ứng tuyển..."), không tạo thêm dòng và không tăng số chưa đọc.
+     */
     @Transactional
     public void notifyNewApplication(User employer, Job job, User freelancer) {
+        String actorName = freelancer.getFullName();
+        Notification existing = findAggregationTarget(employer, ENotificationType.NEW_APPLICATION, job.getId());
+        if (existing != null) {
+            existing.aggregate(actorName, actorName + " và " + existing.getAggregateCount()
+                    + " người khác đã ứng tuyển vào công việc \"" + job.getTitle() + "\"");
+            enqueuePush(employer.getId(), employer.getIdentifier(), "UPDATED",
+                    Map.of("notification", NotificationResponse.fromEntity(existing)));
+            return;
+        }
+
         Notification notification = Notification.builder()
                 .user(employer)
                 .type(ENotificationType.NEW_APPLICATION)
                 .title("Có người ứng tuyển mới")
-                .message(freelancer.getFullName() + " đã ứng tuyển vào công việc \"" + job.getTitle() + "\"")
+                .message(actorName + " đã ứng tuyển vào công việc \"" + job.getTitle() + "\"")
                 .referenceId(job.getId())
                 .referenceType("JOB")
+                .actorName(actorName)
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
+    }
+
+    private Notification findAggregationTarget(User user, ENotificationType type, Long referenceId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> targets = notificationRepository.findAggregationTarget(
+                user.getId(), type, referenceId, now.minusMinutes(aggregationWindowMinutes),
+                now.minusHours(aggregationMaxAgeHours), PageRequest.of(0, 1));
+        return targets.isEmpty() ? null : targets.get(0);
     }
 
     @Transactional
@@ -104,7 +263,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -117,7 +276,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -130,7 +289,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -143,7 +302,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -156,7 +315,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -169,7 +328,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -182,7 +341,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -195,7 +354,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -208,7 +367,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -221,7 +380,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -234,7 +393,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -247,7 +406,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -260,7 +419,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -273,7 +432,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -286,7 +445,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -299,7 +458,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -312,7 +471,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -325,7 +484,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -338,7 +497,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -351,7 +510,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -364,7 +523,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -377,7 +536,7 @@ public class NotificationService {
                 .referenceId(conversationId)
                 .referenceType("CONVERSATION")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -390,7 +549,7 @@ public class NotificationService {
                 .referenceId(conversationId)
                 .referenceType("CONVERSATION")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -403,7 +562,7 @@ public class NotificationService {
                 .referenceId(conversationId)
                 .referenceType("CONVERSATION")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -415,7 +574,7 @@ public class NotificationService {
                 .message(blocker.getFullName() + " đã chặn bạn")
                 .referenceType("USER")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -434,7 +593,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -447,7 +606,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -460,7 +619,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -473,7 +632,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -486,7 +645,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -499,7 +658,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -512,7 +671,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -525,7 +684,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -538,7 +697,7 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 
     @Transactional
@@ -551,6 +710,6 @@ public class NotificationService {
                 .referenceId(job.getId())
                 .referenceType("JOB")
                 .build();
-        notificationRepository.save(notification);
+        publish(notification);
     }
 }
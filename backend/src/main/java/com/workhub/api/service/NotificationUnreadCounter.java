@@ -0,0 +1,66 @@
+package com.workhub.api.service;
+
+import com.workhub.api.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Số thông báo chưa đọc của mỗi user trên Redis (notifications:unread:{userId}).
+ * Không cộng trừ delta: mỗi lần OutboxDispatcher giao một sự kiện thông báo (sau commit) thì đếm lại từ DB
+ * và ghi đè, nên giao lại nhiều lần vẫn đúng và không có khoảng hở giữa lúc đếm và lúc ghi làm mất một lần +1.
+ * Lần đọc khi chưa có key chỉ ghi nếu key vẫn trống (setIfAbsent), không ghi đè giá trị vừa được làm mới.
+ * TTL ngắn giới hạn sai lệch khi hai lần làm mới của cùng user chạy chồng nhau hoặc Redis lỗi.
+ */
+@Slf4j
+@Service
+public class NotificationUnreadCounter {
+
+    private static final String KEY_PREFIX = "notifications:unread:";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NotificationRepository notificationRepository;
+
+    public NotificationUnreadCounter(StringRedisTemplate stringRedisTemplate,
+                                     NotificationRepository notificationRepository) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.notificationRepository = notificationRepository;
+    }
+
+    public long get(Long userId) {
+        String key = KEY_PREFIX + userId;
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            log.debug("Unread counter unavailable for user {}: {}", userId, e.getMessage());
+            return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        }
+
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        try {
+            stringRedisTemplate.opsForValue().setIfAbsent(key, String.valueOf(count), TTL);
+        } catch (Exception e) {
+            log.debug("Failed to cache unread counter for user {}: {}", userId, e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Đếm lại từ DB và ghi đè; gọi sau khi thay đổi trạng thái đọc / thông báo mới đã commit.
+     */
+    public long refresh(Long userId) {
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + userId, String.valueOf(count), TTL);
+        } catch (Exception e) {
+            log.warn("Failed to refresh unread counter for user {}: {}", userId, e.getMessage());
+        }
+        return count;
+    }
+}
@@ -9,11 +9,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -24,37 +27,39 @@ public class OnlineStatusService {
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
-
-    private final Map<Long, Boolean> onlineUsers = new ConcurrentHashMap<>();
-    private final Map<Long, LocalDateTime> lastActiveMap = new ConcurrentHashMap<>();
+    private final PresenceStore presenceStore;
+    private final PresenceFanout presenceFanout;
 
     public boolean isUserOnline(Long userId) {
-        return onlineUsers.getOrDefault(userId, false);
+        return presenceStore.isOnline(userId);
     }
 
     @Transactional
-    public void userConnected(Long userId) {
-        onlineUsers.put(userId, true);
-        broadcastOnlineStatus(userId, true);
+    public void userConnected(Long userId, String sessionId) {
+        if (presenceStore.addSession(userId, sessionId)) {
+            presenceFanout.publish(userId, true, null);
+        }
         markPendingMessagesAsDelivered(userId);
     }
 
     @Transactional
-    public void userDisconnected(Long userId) {
-        onlineUsers.remove(userId);
+    public void userDisconnected(Long userId, String sessionId) {
+        if (!presenceStore.removeSession(userId, sessionId)) {
+            return; // user vẫn còn session khác (tab khác hoặc instance khác)
+        }
         LocalDateTime now = LocalDateTime.now();
-        lastActiveMap.put(userId, now);
+        presenceStore.setLastActive(userId, now);
         
         userRepository.findById(userId).ifPresent(user -> {
             user.updateLastActive();
             userRepository.save(user);
         });
         
-        broadcastOnlineStatus(userId, false, now);
+        presenceFanout.publish(userId, false, now);
     }
     
     public LocalDateTime getLastActiveAt(Long userId) {
-        LocalDateTime cached = lastActiveMap.get(userId);
+        LocalDateTime cached = presenceStore.getLastActive(userId);
         if (cached != null) {
             return cached;
         }
@@ -63,59 +68,49 @@ public class OnlineStatusService {
                 .orElse(null);
     }
 
-    private void broadcastOnlineStatus(Long userId, boolean online) {
-        broadcastOnlineStatus(userId, online, null);
-    }
-
-    private void broadcastOnlineStatus(Long userId, boolean online, LocalDateTime lastActiveAt) {
-        List<Conversation> conversations = conversationRepository.findAllByUserId(userId);
-
-        for (Conversation conv : conversations) {
-            User otherUser = conv.getOtherUser(userId);
-            try {
-                Map<String, Object> payload = new java.util.HashMap<>();
-                payload.put("userId", userId);
-                payload.put("online", online);
-                if (lastActiveAt != null) {
-                    payload.put("lastActiveAt", lastActiveAt.toString());
-                }
-                
-                messagingTemplate.convertAndSendToUser(
-                        otherUser.getIdentifier(),
-                        "/queue/online-status",
-                        payload
-                );
-            } catch (Exception e) {
-            }
-        }
-    }
-
+    /**
+     * Một câu UPDATE cho mọi tin SENT, một câu cho các conversation liên quan,
+     * và một frame cho mỗi (người gửi, conversation) mang id tin lớn nhất đã DELIVERED.
+     */
     @Transactional
     public void markPendingMessagesAsDelivered(Long userId) {
-        List<ChatMessage> sentMessages = chatMessageRepository.findAllSentMessagesForUser(userId);
-
-        for (ChatMessage message : sentMessages) {
-            message.setStatus(EMessageStatus.DELIVERED);
-            chatMessageRepository.save(message);
+        List<Object[]> batches = chatMessageRepository.markAllDeliveredForUser(userId);
+        if (batches.isEmpty()) {
+            return;
+        }
 
-            Conversation conversation = message.getConversation();
-            if (conversation.getLastMessageSenderId() != null
-                    && conversation.getLastMessageSenderId().equals(message.getSender().getId())
-                    && conversation.getLastMessageStatus() == EMessageStatus.SENT) {
-                conversation.setLastMessageStatus(EMessageStatus.DELIVERED);
-                conversationRepository.save(conversation);
+        Set<Long> conversationIds = new HashSet<>();
+        for (Object[] row : batches) {
+            conversationIds.add(((Number) row[0]).longValue());
+        }
+        conversationRepository.markLastMessageDelivered(conversationIds, userId, LocalDateTime.now());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Object[] row : batches) {
+                    sendDeliveredReceipt((String) row[2], ((Number) row[0]).longValue(),
+                            ((Number) row[3]).longValue(), ((Number) row[4]).longValue());
+                }
             }
+        });
+    }
 
+    private void sendDeliveredReceipt(String senderIdentifier, Long conversationId, Long upToMessageId, long count) {
+        try {
             messagingTemplate.convertAndSendToUser(
-                    message.getSender().getIdentifier(),
+                    senderIdentifier,
                     "/queue/message-status",
                     Map.of(
-                            "messageId", message.getId(),
-                            "conversationId", message.getConversation().getId(),
+                            "messageId", upToMessageId,
+                            "deliveredUpTo", upToMessageId,
+                            "count", count,
+                            "conversationId", conversationId,
                             "status", EMessageStatus.DELIVERED.name()
                     )
             );
+        } catch (Exception e) {
+            log.warn("Failed to send delivery receipt for conversation {}: {}", conversationId, e.getMessage());
         }
-
     }
 }
@@ -10,6 +10,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
+import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -17,7 +18,7 @@ import java.util.concurrent.TimeUnit;
 public class OtpService {
 
     private final RedisTemplate<String, Object> redisTemplate;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
 
     @Value("${app.otp.expiration}")
     private long otpExpiration;
@@ -39,7 +40,15 @@ public class OtpService {
 
         redisTemplate.opsForValue().set(otpKey, otpCode, ttlSeconds, TimeUnit.SECONDS);
 
-        emailService.sendOtpEmail(user.getEmail(), user.getFullName(), otpCode, otpType.name());
+        outboxService.sendOtpEmail(user.getEmail(), user.getFullName(), otpType.name(),
+                LocalDateTime.now().plusSeconds(ttlSeconds));
+    }
+
+    /**
+     * Mã đang hiệu lực để gửi email; null nếu đã dùng, hết hạn hoặc đã bị xóa.
+     */
+    public String currentOtp(String email, EOtpType otpType) {
+        return (String) redisTemplate.opsForValue().get("otp:" + otpType + ":" + email);
     }
 
     public void verifyOtp(String email, String otpCode, EOtpType otpType) {
@@ -0,0 +1,260 @@
+package com.workhub.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workhub.api.entity.EOtpType;
+import com.workhub.api.entity.EOutboxEventType;
+import com.workhub.api.entity.EOutboxStatus;
+import com.workhub.api.entity.OutboxEvent;
+import com.workhub.api.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gửi event trong outbox theo lô.
+ * - Mỗi lô được khóa trong DB (FOR UPDATE SKIP LOCKED) tới khi gửi xong và xóa: hai instance không bao giờ
+ *   cầm cùng một event; event có event cũ hơn cùng recipient đang bị instance khác giữ thì chờ lượt sau,
+ *   nên thứ tự theo recipient không phụ thuộc Redis. Khóa Redis theo lane chỉ để các instance không tranh
+ *   nhau query; Redis lỗi thì vẫn gửi. Email (SMTP chậm) chạy lane riêng để không chặn frame realtime.
+ * - Gửi lỗi: thử lại với backoff lũy thừa, các event sau của cùng recipient chờ tới khi event trước xong;
+ *   quá MAX_ATTEMPTS thì chuyển DEAD và giải phóng hàng đợi của recipient đó.
+ * - Giao ít nhất một lần: instance chết giữa lúc gửi và lúc xóa thì event được gửi lại.
+ * - Event có expiresAt (email OTP) bị bỏ khi quá hạn và không được hẹn thử lại sau thời điểm đó.
+ */
+@Slf4j
+@Service
+public class OutboxDispatcher {
+
+    private static final String METRIC = "workhub.outbox.events";
+    private static final long TICK_MS = 100;
+    private static final long POLL_INTERVAL_MS = 1000;
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_ROUNDS = 20;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MS = 2000;
+    private static final Duration LOCK_LEASE = Duration.ofSeconds(30);
+
+    private enum Lane {
+        REALTIME(List.of(EOutboxEventType.STOMP, EOutboxEventType.NOTIFICATION)),
+        MAIL(List.of(EOutboxEventType.EMAIL_OTP));
+
+        private final List<EOutboxEventType> types;
+        private final List<String> typeNames;
+
+        Lane(List<EOutboxEventType> types) {
+            this.types = types;
+            this.typeNames = types.stream().map(Enum::name).toList();
+        }
+    }
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxService outboxService;
+    private final DistributedLockService distributedLockService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final OtpService otpService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Lane, Long> lastPollAt = new ConcurrentHashMap<>();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxService outboxService,
+                            DistributedLockService distributedLockService,
+                            SimpMessagingTemplate messagingTemplate,
+                            NotificationService notificationService,
+                            EmailService emailService,
+                            OtpService otpService,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxService = outboxService;
+        this.distributedLockService = distributedLockService;
+        this.messagingTemplate = messagingTemplate;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.otpService = otpService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelay = TICK_MS)
+    public void dispatchRealtime() {
+        tick(Lane.REALTIME);
+    }
+
+    @Scheduled(fixedDelay = TICK_MS)
+    public void dispatchMail() {
+        tick(Lane.MAIL);
+    }
+
+    // Chạy ngay khi có event vừa commit trên instance này, còn lại poll mỗi POLL_INTERVAL_MS
+    // (bắt event của instance khác và event đến hạn thử lại)
+    private void tick(Lane lane) {
+        long now = System.currentTimeMillis();
+        boolean woken = outboxService.takeWakeUp(lane.types);
+        if (!woken && now - lastPollAt.getOrDefault(lane, 0L) < POLL_INTERVAL_MS) {
+            return;
+        }
+        lastPollAt.put(lane, now);
+
+        DistributedLockService.Outcome outcome = distributedLockService.tryRunWithLock(
+                "outbox:" + lane.name().toLowerCase(), LOCK_LEASE, () -> drain(lane));
+        if (outcome == DistributedLockService.Outcome.UNAVAILABLE) {
+            // Không có khóa Redis: khóa dòng trong DB vẫn ngăn gửi trùng và giữ thứ tự
+            drain(lane);
+        } else if (outcome == DistributedLockService.Outcome.BUSY && woken) {
+            // Instance khác đang gửi và có thể đã query xong trước khi event của ta commit
+            outboxService.requestWakeUp(lane.types);
+        }
+    }
+
+    private void drain(Lane lane) {
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            Boolean more;
+            try {
+                more = transactionTemplate.execute(status -> dispatchBatch(lane));
+            } catch (Exception e) {
+                log.error("Failed to dispatch outbox batch for {}, claimed event(s) may be sent again: {}",
+                        lane, e.getMessage());
+                return;
+            }
+            if (!Boolean.TRUE.equals(more)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Chạy trong một transaction: dòng bị khóa từ lúc lấy ra tới lúc xóa / hẹn thử lại.
+     * @return true nếu lô đầy và có tiến triển (drain lấy lô tiếp theo)
+     */
+    private boolean dispatchBatch(Lane lane) {
+        List<OutboxEvent> batch = outboxEventRepository.claimDispatchable(lane.typeNames, LocalDateTime.now(), BATCH_SIZE);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Set<Long> queuedBehindOthers = new HashSet<>(
+                outboxEventRepository.findQueuedBehindOthers(batch.stream().map(OutboxEvent::getId).toList()));
+
+        List<Long> sentIds = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        Set<String> blockedRecipients = new HashSet<>();
+
+        for (OutboxEvent event : batch) {
+            if (queuedBehindOthers.contains(event.getId()) || blockedRecipients.contains(event.getRecipient())) {
+                continue; // event trước của recipient này đang ở instance khác hoặc vừa lỗi, giữ thứ tự
+            }
+            if (isExpired(event, LocalDateTime.now())) {
+                sentIds.add(event.getId());
+                count(event, "expired");
+                continue;
+            }
+            try {
+                deliver(event);
+                sentIds.add(event.getId());
+                count(event, "sent");
+            } catch (Exception e) {
+                if (markFailed(event, e)) {
+                    blockedRecipients.add(event.getRecipient());
+                }
+                failed.add(event);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(sentIds);
+        }
+        if (!failed.isEmpty()) {
+            outboxEventRepository.saveAll(failed);
+        }
+        return batch.size() == BATCH_SIZE && !(sentIds.isEmpty() && failed.isEmpty());
+    }
+
+    /**
+     * @return true nếu event còn được thử lại (các event sau của recipient phải chờ)
+     */
+    private boolean markFailed(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        event.setAttempts(attempts);
+        event.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+
+        if (attempts >= MAX_ATTEMPTS) {
+            event.setStatus(EOutboxStatus.DEAD);
+            count(event, "dead");
+            log.error("Outbox event {} ({} -> {}) moved to DEAD after {} attempts: {}",
+                    event.getId(), event.getType(), event.getRecipient(), attempts, error);
+            return false;
+        }
+
+        long backoff = BASE_BACKOFF_MS << (attempts - 1);
+        long jitter = ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusNanos((backoff + jitter) * 1_000_000);
+        if (isExpired(event, nextAttemptAt)) {
+            event.setStatus(EOutboxStatus.DEAD);
+            count(event, "expired");
+            log.error("Outbox event {} ({} -> {}) expires before next attempt, giving up after {} attempts: {}",
+                    event.getId(), event.getType(), event.getRecipient(), attempts, error);
+            return false;
+        }
+        event.setNextAttemptAt(nextAttemptAt);
+        count(event, "retry");
+        log.warn("Outbox event {} ({} -> {}) failed, attempt {}: {}",
+                event.getId(), event.getType(), event.getRecipient(), attempts, error);
+        return true;
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        switch (event.getType()) {
+            case STOMP -> messagingTemplate.convertAndSendToUser(
+                    payload.path("user").asText(),
+                    payload.path("destination").asText(),
+                    payload.path("body"));
+            case NOTIFICATION -> notificationService.deliver(payload);
+            case EMAIL_OTP -> sendOtpEmail(payload);
+        }
+    }
+
+    private boolean isExpired(OutboxEvent event, LocalDateTime at) {
+        return event.getExpiresAt() != null && event.getExpiresAt().isBefore(at);
+    }
+
+    // Mã lấy từ Redis lúc gửi; đã dùng, hết hạn hoặc bị xóa thì không còn gì để gửi
+    private void sendOtpEmail(JsonNode payload) throws MessagingException {
+        String email = payload.path("toEmail").asText();
+        EOtpType otpType = EOtpType.valueOf(payload.path("purpose").asText());
+        String otpCode = otpService.currentOtp(email, otpType);
+        if (otpCode == null) {
+            log.info("OTP {} for {} is no longer valid, email skipped", otpType, email);
+            return;
+        }
+        emailService.sendOtpEmail(email, payload.path("fullName").textValue(), otpCode, otpType.name());
+    }
+
+    private void count(OutboxEvent event, String result) {
+        Counter.builder(METRIC)
+                .tag("type", event.getType().name())
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,145 @@
+package com.workhub.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workhub.api.entity.EOutboxEventType;
+import com.workhub.api.entity.OutboxEvent;
+import com.workhub.api.repository.OutboxEventRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi side effect vào outbox trong transaction của caller: rollback thì không có gì được gửi,
+ * request chỉ tốn một INSERT. Sau commit đánh thức OutboxDispatcher để gửi ngay thay vì chờ lượt poll.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (type, recipient, payload, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Loại event vừa được commit trên instance này, dispatcher lấy ra ở tick kế tiếp
+    private final Set<EOutboxEventType> wakeUps = ConcurrentHashMap.newKeySet();
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Thay cho SimpMessagingTemplate.convertAndSendToUser trong method có transaction.
+     */
+    @Transactional
+    public void sendToUser(String user, String destination, Object payload) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("user", user);
+        event.put("destination", destination);
+        event.put("body", payload);
+        enqueue(EOutboxEventType.STOMP, "stomp:" + user, event);
+    }
+
+    /**
+     * Không lưu mã OTP trong outbox: dispatcher đọc mã hiện hành từ Redis lúc gửi.
+     * Event hết hiệu lực cùng lúc với mã nên không gửi lại mã đã hết hạn.
+     */
+    @Transactional
+    public void sendOtpEmail(String toEmail, String fullName, String purpose, LocalDateTime expiresAt) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("toEmail", toEmail);
+        event.put("fullName", fullName);
+        event.put("purpose", purpose);
+        OutboxEvent outboxEvent = newEvent(EOutboxEventType.EMAIL_OTP, "email:" + toEmail, event);
+        outboxEvent.setExpiresAt(expiresAt);
+        outboxEventRepository.save(outboxEvent);
+        wakeUpAfterCommit(EOutboxEventType.EMAIL_OTP);
+    }
+
+    @Transactional
+    public void enqueue(EOutboxEventType type, String recipient, Object payload) {
+        outboxEventRepository.save(newEvent(type, recipient, payload));
+        wakeUpAfterCommit(type);
+    }
+
+    /**
+     * Nhiều event cùng loại trong một JDBC batch. id là IDENTITY nên Hibernate không batch được,
+     * ghi thẳng bằng JdbcTemplate (reWriteBatchedInserts gộp thành INSERT nhiều dòng).
+     * Chạy trên connection của transaction hiện tại.
+     */
+    @Transactional
+    public void enqueueAll(EOutboxEventType type, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = entries.stream()
+                .map(entry -> new Object[]{type.name(), entry.recipient(),
+                        serialize(entry.recipient(), entry.payload()), now, now})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        wakeUpAfterCommit(type);
+    }
+
+    public record Entry(String recipient, Object payload) {
+    }
+
+    private OutboxEvent newEvent(EOutboxEventType type, String recipient, Object payload) {
+        return OutboxEvent.builder()
+                .type(type)
+                .recipient(recipient)
+                .payload(serialize(recipient, payload))
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    private String serialize(String recipient, Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox payload for " + recipient, e);
+        }
+    }
+
+    private void wakeUpAfterCommit(EOutboxEventType type) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUps.add(type);
+                }
+            });
+        } else {
+            wakeUps.add(type);
+        }
+    }
+
+    public boolean takeWakeUp(Collection<EOutboxEventType> types) {
+        boolean woken = false;
+        for (EOutboxEventType type : types) {
+            woken |= wakeUps.remove(type);
+        }
+        return woken;
+    }
+
+    public void requestWakeUp(Collection<EOutboxEventType> types) {
+        wakeUps.addAll(types);
+    }
+}
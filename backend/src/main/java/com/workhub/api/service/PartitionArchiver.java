@@ -0,0 +1,136 @@
+package com.workhub.api.service;
+
+import com.workhub.api.config.TablePartitionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bảo trì partition hằng ngày: tạo trước partition tháng tới và lưu trữ partition quá hạn giữ lại.
+ * Partition có cận trên trước mốc retention được xuất ra {archive-dir}/{table}/{partition}.jsonl.gz
+ * (mỗi dòng một row_to_json) rồi DETACH + DROP; hot partition nhỏ nên vacuum và index luôn nhanh.
+ * retention-months = 0: giữ vĩnh viễn (mặc định cho mọi bảng). Chỉ bật khi archive-dir là ổ bền
+ * (volume gắn ngoài, NFS...): file xuất ra là bản duy nhất còn lại sau khi DROP.
+ * Dòng trong partition DEFAULT được TablePartitionManager chuyển sang partition tháng nên cũng được lưu trữ như thường.
+ * Mỗi lượt cũng chạy lại migration bị bỏ qua lúc khởi động (instance khác đang giữ khóa) và tách tối đa
+ * legacy-split-months-per-run tháng cũ nhất khỏi partition legacy (backfill một lần, 0 = tắt).
+ */
+@Slf4j
+@Service
+public class PartitionArchiver {
+
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(5);
+    private static final int FETCH_SIZE = 1000;
+
+    private final TablePartitionManager partitionManager;
+    private final DistributedLockService distributedLockService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path archiveDir;
+    private final Map<String, Integer> retentionMonths;
+    private final int legacySplitMonthsPerRun;
+
+    public PartitionArchiver(TablePartitionManager partitionManager,
+                             DistributedLockService distributedLockService,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.partitions.archive-dir:./archive}") String archiveDir,
+                             @Value("${app.partitions.retention-months.notifications:0}") int notificationsRetention,
+                             @Value("${app.partitions.retention-months.chat-messages:0}") int chatMessagesRetention,
+                             @Value("${app.partitions.retention-months.job-histories:0}") int jobHistoriesRetention,
+                             @Value("${app.partitions.legacy-split-months-per-run:1}") int legacySplitMonthsPerRun) {
+        this.partitionManager = partitionManager;
+        this.distributedLockService = distributedLockService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.archiveDir = Path.of(archiveDir);
+        this.retentionMonths = Map.of(
+                "notifications", notificationsRetention,
+                "chat_messages", chatMessagesRetention,
+                "job_histories", jobHistoriesRetention);
+        this.legacySplitMonthsPerRun = legacySplitMonthsPerRun;
+    }
+
+    @Scheduled(cron = "${app.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        distributedLockService.runWithLock("partitions:maintain", LOCK_LEASE, () -> {
+            for (TablePartitionManager.PartitionedTable table : TablePartitionManager.TABLES) {
+                try {
+                    partitionManager.setUp(table);
+                    int split = 0;
+                    while (split < legacySplitMonthsPerRun && partitionManager.splitLegacyMonth(table.name())) {
+                        split++;
+                    }
+                    archiveExpired(table.name());
+                } catch (Exception e) {
+                    log.error("Partition maintenance failed for {}: {}", table.name(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void archiveExpired(String table) throws IOException {
+        int months = retentionMonths.getOrDefault(table, 0);
+        if (months <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = YearMonth.now().minusMonths(months).atDay(1).atStartOfDay();
+        for (TablePartitionManager.Partition partition : partitionManager.partitions(table)) {
+            if (partition.upperBound().isAfter(cutoff)) {
+                continue;
+            }
+            long rows = export(table, partition.name());
+            partitionManager.dropPartition(table, partition.name());
+            log.info("Archived {} row(s) from {} (before {})", rows, partition.name(), partition.upperBound());
+        }
+    }
+
+    // Ghi ra file tạm rồi đổi tên: file .jsonl.gz tồn tại nghĩa là đã xuất đủ
+    private long export(String table, String partition) throws IOException {
+        Path dir = Files.createDirectories(archiveDir.resolve(table));
+        Path target = dir.resolve(partition + ".jsonl.gz");
+        Path temp = dir.resolve(partition + ".jsonl.gz.tmp");
+        AtomicLong rows = new AtomicLong();
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            // Cursor phía server (fetch size trong transaction) để không nạp cả partition vào heap
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement("SELECT row_to_json(p)::text FROM " + partition + " p");
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.write(resultSet.getString(1));
+                    writer.write('\n');
+                    rows.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows.get();
+    }
+}
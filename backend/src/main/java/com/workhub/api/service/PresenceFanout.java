@@ -0,0 +1,156 @@
+package com.workhub.api.service;
+
+import com.workhub.api.repository.ConversationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phát trạng thái online cho những người đang theo dõi user (đối phương trong hội thoại ACCEPTED).
+ * - Tập người theo dõi lưu trên Redis (presence:watchers:{userId}), dựng lại từ DB khi thiếu,
+ *   bị xóa khi FriendService accept/block/unblock.
+ * - Thay đổi được giữ DEBOUNCE_MS rồi mới phát: kết nối chập chờn (ngắt rồi nối lại) không tạo frame.
+ * - Mỗi lượt flush gửi một frame /queue/presence cho mỗi người theo dõi, gom mọi thay đổi họ cần biết.
+ */
+@Slf4j
+@Service
+public class PresenceFanout {
+
+    private static final String WATCHERS_KEY_PREFIX = "presence:watchers:";
+    private static final String PUBLISHED_KEY_PREFIX = "presence:published:";
+    // Đánh dấu tập rỗng để user không có hội thoại nào không phải query DB mỗi lần
+    private static final String EMPTY_MARKER = "-";
+    private static final Duration WATCHERS_TTL = Duration.ofHours(1);
+    private static final Duration PUBLISHED_TTL = Duration.ofDays(1);
+    private static final long DEBOUNCE_MS = 3000;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    private final ConversationRepository conversationRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceStore presenceStore;
+
+    private record Change(boolean online, LocalDateTime lastActiveAt, long changedAt) {
+    }
+
+    private final Map<Long, Change> pending = new ConcurrentHashMap<>();
+
+    public PresenceFanout(ConversationRepository conversationRepository,
+                          StringRedisTemplate stringRedisTemplate,
+                          SimpMessagingTemplate messagingTemplate,
+                          PresenceStore presenceStore) {
+        this.conversationRepository = conversationRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.presenceStore = presenceStore;
+    }
+
+    public void publish(Long userId, boolean online, LocalDateTime lastActiveAt) {
+        pending.put(userId, new Change(online, lastActiveAt, System.currentTimeMillis()));
+    }
+
+    /**
+     * Gọi khi quan hệ giữa hai user đổi (accept, block, unblock); xóa sau commit để lần sau dựng lại từ DB.
+     */
+    public void invalidateWatchers(Long... userIds) {
+        List<String> keys = Arrays.stream(userIds).map(id -> WATCHERS_KEY_PREFIX + id).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteKeys(keys);
+                }
+            });
+        } else {
+            deleteKeys(keys);
+        }
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long readyBefore = System.currentTimeMillis() - DEBOUNCE_MS;
+        Map<String, List<Map<String, Object>>> framesByWatcher = new HashMap<>();
+
+        for (Map.Entry<Long, Change> entry : pending.entrySet()) {
+            Long userId = entry.getKey();
+            Change change = entry.getValue();
+            if (change.changedAt() > readyBefore || !pending.remove(userId, change)) {
+                continue;
+            }
+            try {
+                // User đã đổi trạng thái lại trên instance khác trong lúc chờ -> instance đó sẽ phát
+                if (presenceStore.isOnline(userId) != change.online()) {
+                    continue;
+                }
+                if (!markPublished(userId, change.online())) {
+                    continue; // watcher đã biết trạng thái này (ví dụ ngắt rồi nối lại trong cửa sổ debounce)
+                }
+                Map<String, Object> update = new HashMap<>();
+                update.put("userId", userId);
+                update.put("online", change.online());
+                if (change.lastActiveAt() != null) {
+                    update.put("lastActiveAt", change.lastActiveAt().toString());
+                }
+                for (String watcher : getWatchers(userId)) {
+                    framesByWatcher.computeIfAbsent(watcher, key -> new ArrayList<>()).add(update);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to fan out presence for user {}: {}", userId, e.getMessage());
+            }
+        }
+
+        framesByWatcher.forEach((watcher, updates) -> {
+            try {
+                messagingTemplate.convertAndSendToUser(watcher, "/queue/presence", Map.of("updates", updates));
+            } catch (Exception e) {
+                log.debug("Failed to send presence frame to {}: {}", watcher, e.getMessage());
+            }
+        });
+    }
+
+    // Trạng thái đã phát được lưu trên Redis vì online và offline của một user có thể phát từ hai instance khác nhau
+    private boolean markPublished(Long userId, boolean online) {
+        String key = PUBLISHED_KEY_PREFIX + userId;
+        String value = online ? "1" : "0";
+        String previous = stringRedisTemplate.opsForValue().getAndSet(key, value);
+        stringRedisTemplate.expire(key, PUBLISHED_TTL);
+        return !value.equals(previous);
+    }
+
+    private Set<String> getWatchers(Long userId) {
+        String key = WATCHERS_KEY_PREFIX + userId;
+        Set<String> watchers = stringRedisTemplate.opsForSet().members(key);
+        if (watchers == null || watchers.isEmpty()) {
+            List<String> identifiers = conversationRepository.findPresenceWatcherIdentifiers(userId);
+            watchers = new HashSet<>(identifiers);
+            watchers.remove(null);
+            Set<String> stored = new HashSet<>(watchers);
+            stored.add(EMPTY_MARKER);
+            stringRedisTemplate.opsForSet().add(key, stored.toArray(String[]::new));
+            stringRedisTemplate.expire(key, WATCHERS_TTL);
+            return watchers;
+        }
+        watchers.remove(EMPTY_MARKER);
+        return watchers;
+    }
+
+    private void deleteKeys(List<String> keys) {
+        try {
+            stringRedisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.warn("Failed to invalidate presence watchers: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.workhub.api.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trạng thái online dùng chung giữa các instance.
+ * Mỗi user có một sorted set trên Redis: member = "nodeId:sessionId", score = lần refresh gần nhất.
+ * Instance refresh định kỳ các session của mình; session của instance đã chết tự hết hạn sau SESSION_TTL_MS.
+ * Thêm/xóa session và đếm session còn sống chạy trong một script Lua: hai tab mở (hoặc đóng) cùng lúc
+ * trên hai instance thì đúng một bên thấy user vừa online (offline).
+ */
+@Slf4j
+@Service
+public class PresenceStore {
+
+    private static final String USER_KEY_PREFIX = "presence:user:";
+    private static final String LAST_ACTIVE_KEY = "presence:last-active";
+    private static final long REFRESH_INTERVAL_MS = 30000;
+    private static final long SESSION_TTL_MS = 3 * REFRESH_INTERVAL_MS;
+
+    // KEYS[1] = presence:user:{id}; ARGV = member, now, mốc hết hạn (now - TTL), TTL
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "local live = redis.call('zcount', KEYS[1], ARGV[3], '+inf') " +
+            "redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('pexpire', KEYS[1], ARGV[4]) " +
+            "if live == 0 then return 1 else return 0 end", Long.class);
+
+    // KEYS[1] = presence:user:{id}; ARGV = member, mốc hết hạn. SessionDisconnectEvent có thể đến hai lần
+    // cho cùng session, chỉ lần xóa được member mới tính là offline
+    private static final DefaultRedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local removed = redis.call('zrem', KEYS[1], ARGV[1]) " +
+            "local live = redis.call('zcount', KEYS[1], ARGV[2], '+inf') " +
+            "if removed == 1 and live == 0 then return 1 else return 0 end", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // userId -> các session STOMP trên instance này
+    private final Map<Long, Set<String>> localSessions = new ConcurrentHashMap<>();
+
+    public PresenceStore(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * @return true nếu đây là session đầu tiên của user trên toàn cụm (user vừa online)
+     */
+    public boolean addSession(Long userId, String sessionId) {
+        localSessions.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        String key = USER_KEY_PREFIX + userId;
+        long now = System.currentTimeMillis();
+        try {
+            Long first = stringRedisTemplate.execute(ADD_SCRIPT, List.of(key), member(sessionId),
+                    String.valueOf(now), String.valueOf(now - SESSION_TTL_MS), String.valueOf(SESSION_TTL_MS));
+            return first != null && first == 1;
+        } catch (Exception e) {
+            log.warn("Failed to record presence for user {}: {}", userId, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * @return true nếu user không còn session nào trên toàn cụm (user vừa offline)
+     */
+    public boolean removeSession(Long userId, String sessionId) {
+        localSessions.computeIfPresent(userId, (key, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        String key = USER_KEY_PREFIX + userId;
+        try {
+            Long last = stringRedisTemplate.execute(REMOVE_SCRIPT, List.of(key), member(sessionId),
+                    String.valueOf(System.currentTimeMillis() - SESSION_TTL_MS));
+            return last != null && last == 1;
+        } catch (Exception e) {
+            log.warn("Failed to clear presence for user {}: {}", userId, e.getMessage());
+            return !localSessions.containsKey(userId);
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        try {
+            return countLive(USER_KEY_PREFIX + userId, System.currentTimeMillis()) > 0;
+        } catch (Exception e) {
+            log.debug("Presence lookup failed for user {}: {}", userId, e.getMessage());
+            return localSessions.containsKey(userId);
+        }
+    }
+
+    public void setLastActive(Long userId, LocalDateTime lastActiveAt) {
+        try {
+            stringRedisTemplate.opsForHash().put(LAST_ACTIVE_KEY, userId.toString(), lastActiveAt.toString());
+        } catch (Exception e) {
+            log.debug("Failed to store last active for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    public LocalDateTime getLastActive(Long userId) {
+        try {
+            Object value = stringRedisTemplate.opsForHash().get(LAST_ACTIVE_KEY, userId.toString());
+            return value != null ? LocalDateTime.parse(value.toString()) : null;
+        } catch (Exception e) {
+            log.debug("Failed to read last active for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Scheduled(fixedDelay = REFRESH_INTERVAL_MS)
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        localSessions.forEach((userId, sessions) -> {
+            String key = USER_KEY_PREFIX + userId;
+            try {
+                for (String sessionId : sessions) {
+                    stringRedisTemplate.opsForZSet().add(key, member(sessionId), now);
+                }
+                stringRedisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, now - SESSION_TTL_MS);
+                stringRedisTemplate.expire(key, Duration.ofMillis(SESSION_TTL_MS));
+            } catch (Exception e) {
+                log.debug("Failed to refresh presence for user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        localSessions.forEach((userId, sessions) -> {
+            try {
+                stringRedisTemplate.opsForZSet().remove(USER_KEY_PREFIX + userId,
+                        sessions.stream().map(this::member).toArray());
+            } catch (Exception e) {
+                log.debug("Failed to clear presence for user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    private long countLive(String key, long now) {
+        Long count = stringRedisTemplate.opsForZSet().count(key, now - SESSION_TTL_MS, Double.POSITIVE_INFINITY);
+        return count != null ? count : 0;
+    }
+
+    private String member(String sessionId) {
+        return nodeId + ":" + sessionId;
+    }
+}
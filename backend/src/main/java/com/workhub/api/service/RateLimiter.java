@@ -0,0 +1,169 @@
+package com.workhub.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter dùng chung (API, gửi tin nhắn chat), hai tầng:
+ * - Redis: GCRA trong một script Lua, mỗi key một giá trị (theoretical arrival time), kiểm tra và cập nhật
+ *   nguyên tử, trả về allowed/remaining/retry-after trong một round trip; giới hạn đúng trên toàn cụm.
+ * - Local: key đã bị chặn được nhớ tới hết retry-after (Caffeine, giới hạn số entry, tự hết hạn)
+ *   nên client đang spam không gọi Redis lại.
+ * - Dự phòng khi Redis lỗi: cùng thuật toán GCRA chạy trên bộ nhớ của instance (Caffeine, entry hết hạn khi
+ *   bucket đầy lại). Giới hạn khi đó tính riêng từng instance, cả cụm cho qua tối đa limit x số instance,
+ *   nhưng vẫn chặn được client spam thay vì mở cửa hoàn toàn.
+ * Metric workhub.ratelimit.rejections đếm số lần chặn theo limiter và tầng.
+ */
+@Slf4j
+@Service
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "rate:";
+    private static final String REJECTIONS_METRIC = "workhub.ratelimit.rejections";
+    private static final long LOCAL_MAX_ENTRIES = 100_000;
+
+    // KEYS[1] = key, ARGV[1] = khoảng cách giữa hai request (ms), ARGV[2] = độ dài cửa sổ (ms)
+    // Trả về {allowed (0/1), remaining, retryAfterMs}
+    private static final RedisScript<List> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local interval = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if tat == nil or tat < now then
+              tat = now
+            end
+            local newTat = tat + interval
+            local allowAt = newTat - window
+            if allowAt > now then
+              return {0, 0, allowAt - now}
+            end
+            redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', string.format('%.0f', newTat - now))
+            return {1, math.floor((window - (newTat - now)) / interval), 0}
+            """, List.class);
+
+    public record Result(boolean allowed, long remaining, long retryAfterSeconds) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // key -> thời điểm (epoch ms) được gửi lại; entry hết hạn đúng lúc đó
+    private final Cache<String, Long> blockedUntil = expiringAt();
+
+    // key -> theoretical arrival time (epoch ms) của GCRA dự phòng; hết hạn khi bucket đã đầy lại
+    private final Cache<String, Long> fallbackTat = expiringAt();
+
+    public RateLimiter(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param name    tên limiter (dùng trong key và tag metric), ví dụ "login", "chat-send"
+     * @param subject đối tượng bị giới hạn, ví dụ "user:42", "ip:1.2.3.4"
+     */
+    public Result tryAcquire(String name, String subject, int limit, long windowSeconds) {
+        String key = name + ":" + subject;
+        long now = System.currentTimeMillis();
+        Long blocked = blockedUntil.getIfPresent(key);
+        if (blocked != null && blocked > now) {
+            rejected(name, "local");
+            return new Result(false, 0, toSeconds(blocked - now));
+        }
+
+        long intervalMs = Math.max(1, windowSeconds * 1000 / limit);
+        long windowMs = intervalMs * limit;
+        List<?> reply;
+        try {
+            reply = stringRedisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                    String.valueOf(intervalMs), String.valueOf(windowMs));
+        } catch (Exception e) {
+            log.warn("Rate limit check failed for {}, using local limit: {}", key, e.getMessage());
+            return tryAcquireLocally(name, key, intervalMs, windowMs);
+        }
+        if (reply == null || reply.size() < 3) {
+            log.warn("Unexpected rate limit reply for {}, using local limit: {}", key, reply);
+            return tryAcquireLocally(name, key, intervalMs, windowMs);
+        }
+
+        boolean allowed = ((Number) reply.get(0)).longValue() == 1;
+        long remaining = ((Number) reply.get(1)).longValue();
+        long retryAfterMs = ((Number) reply.get(2)).longValue();
+        if (!allowed) {
+            blockedUntil.put(key, now + retryAfterMs);
+            rejected(name, "redis");
+        }
+        return new Result(allowed, remaining, allowed ? 0 : toSeconds(retryAfterMs));
+    }
+
+    private Result tryAcquireLocally(String name, String key, long intervalMs, long windowMs) {
+        long now = System.currentTimeMillis();
+        long[] decision = new long[3];
+        // compute giữ lock của entry: hai request cùng key trên instance này không cùng đọc một TAT
+        fallbackTat.asMap().compute(key, (k, tat) -> {
+            long start = tat == null || tat < now ? now : tat;
+            long newTat = start + intervalMs;
+            long allowAt = newTat - windowMs;
+            if (allowAt > now) {
+                decision[2] = allowAt - now;
+                return tat;
+            }
+            decision[0] = 1;
+            decision[1] = (windowMs - (newTat - now)) / intervalMs;
+            return newTat;
+        });
+
+        if (decision[0] == 1) {
+            return new Result(true, decision[1], 0);
+        }
+        rejected(name, "fallback");
+        return new Result(false, 0, toSeconds(decision[2]));
+    }
+
+    private void rejected(String name, String tier) {
+        Counter.builder(REJECTIONS_METRIC)
+                .tag("limiter", name)
+                .tag("tier", tier)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    // Cache mà mỗi entry hết hạn tại đúng thời điểm (epoch ms) nó lưu
+    private static Cache<String, Long> expiringAt() {
+        return Caffeine.newBuilder()
+                .maximumSize(LOCAL_MAX_ENTRIES)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long until, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, until - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long until, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, until, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long until, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.workhub.api.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Danh sách instance đang sống (heartbeat vào Redis sorted set) để chia việc của scheduler
+ * theo hash id: mỗi instance chỉ nhận phần của mình, thêm instance thì tăng throughput.
+ */
+@Slf4j
+@Service
+public class SchedulerCluster {
+
+    private static final String NODES_KEY = "scheduler:nodes";
+    private static final long HEARTBEAT_INTERVAL_MS = 5000;
+    private static final long NODE_TTL_MS = 3 * HEARTBEAT_INTERVAL_MS;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Đã sắp xếp, giống nhau trên mọi instance (tới độ trễ của heartbeat)
+    private volatile List<String> liveNodes = List.of();
+
+    public SchedulerCluster(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Scheduled(fixedDelay = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            stringRedisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, now - NODE_TTL_MS);
+            Set<String> nodes = stringRedisTemplate.opsForZSet().range(NODES_KEY, 0, -1);
+            List<String> sorted = new ArrayList<>(nodes != null ? nodes : Set.of());
+            sorted.sort(null);
+            if (!sorted.equals(liveNodes)) {
+                log.info("Scheduler cluster changed: {} node(s)", sorted.size());
+            }
+            liveNodes = List.copyOf(sorted);
+        } catch (Exception e) {
+            log.warn("Scheduler heartbeat failed: {}", e.getMessage());
+            liveNodes = List.of();
+        }
+    }
+
+    /**
+     * Instance này có phụ trách id không. Khi chưa biết cụm (Redis lỗi, vừa khởi động)
+     * thì coi như phụ trách tất cả; trùng lặp vẫn bị chặn bởi khóa theo từng mục.
+     */
+    public boolean owns(long id) {
+        List<String> nodes = liveNodes;
+        int index = nodes.indexOf(nodeId);
+        if (index < 0) {
+            return true;
+        }
+        return Math.floorMod(Long.hashCode(id * 0x9E3779B97F4A7C15L), nodes.size()) == index;
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            stringRedisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            log.debug("Failed to leave scheduler cluster: {}", e.getMessage());
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.workhub.api.entity.User;
 import com.workhub.api.exception.UserNotFoundException;
 import com.workhub.api.repository.RoleRepository;
 import com.workhub.api.repository.UserRepository;
+import com.workhub.api.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +25,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
@@ -73,6 +75,7 @@ public class UserService {
                 req.getBankAccountNumber(),
                 req.getBankName()
         );
+        userPrincipalCache.invalidate(userId);
         return userRepository.save(user);
     }
 
@@ -100,6 +103,7 @@ public class UserService {
         } else {
             user.disable();
         }
+        userPrincipalCache.invalidate(userId);
         return userRepository.save(user);
     }
 
@@ -115,6 +119,15 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Role EMPLOYER không tồn tại"));
         
         user.assignRole(employerRole);
+        userPrincipalCache.invalidate(userId);
+        return userRepository.save(user);
+    }
+
+    @Transactional
+    public User updateWalletAddress(Long userId, String walletAddress) {
+        User user = getById(userId);
+        user.setWalletAddress(walletAddress);
+        userPrincipalCache.invalidate(userId);
         return userRepository.save(user);
     }
 }
@@ -0,0 +1,85 @@
+package com.workhub.api.service.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.FileUpload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class CloudinaryStorageBackend implements StorageBackend {
+
+    public static final String NAME = "cloudinary";
+
+    // Cloudinary yêu cầu mỗi chunk (trừ chunk cuối) tối thiểu 5 MB
+    private static final int UPLOAD_CHUNK_SIZE = 6 * 1024 * 1024;
+    private static final String UPLOAD_SEGMENT = "/upload/";
+
+    private final Cloudinary cloudinary;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public StoredObject store(InputStream content, StoreRequest request) throws IOException {
+        Map<String, Object> options = ObjectUtils.asMap(
+            "folder", request.folder(),
+            "resource_type", resourceType(request.fileType()),
+            "unique_filename", true,
+            "overwrite", false
+        );
+
+        // Gửi từng chunk; file nhỏ hơn chunk thì buffer chỉ bằng kích thước file
+        int bufferSize = (int) Math.min(UPLOAD_CHUNK_SIZE, Math.max(request.size(), 1));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = cloudinary.uploader().uploadLarge(content, options, bufferSize);
+
+        Number bytes = (Number) result.get("bytes");
+        Number width = (Number) result.get("width");
+        Number height = (Number) result.get("height");
+        String secureUrl = (String) result.get("secure_url");
+        boolean image = request.fileType() == EFileType.IMAGE;
+        return new StoredObject(
+            (String) result.get("public_id"),
+            (String) result.get("url"),
+            secureUrl,
+            (String) result.get("format"),
+            bytes != null ? bytes.longValue() : null,
+            width != null ? width.intValue() : null,
+            height != null ? height.intValue() : null,
+            image ? variantUrl(secureUrl, ImagePipeline.THUMBNAIL_EDGE) : null,
+            image ? variantUrl(secureUrl, ImagePipeline.MEDIUM_EDGE) : null);
+    }
+
+    @Override
+    public void delete(String key, EFileType fileType) throws IOException {
+        cloudinary.uploader().destroy(key, ObjectUtils.asMap("resource_type", resourceType(fileType)));
+    }
+
+    @Override
+    public String publicUrl(FileUpload file) {
+        return file.getSecureUrl();
+    }
+
+    // Cloudinary resize theo transformation trong URL (tạo lần đầu rồi cache trên CDN);
+    // f_auto trả WebP/AVIF cho trình duyệt hỗ trợ, c_limit không phóng to ảnh nhỏ
+    private String variantUrl(String secureUrl, int maxEdge) {
+        if (secureUrl == null || !secureUrl.contains(UPLOAD_SEGMENT)) {
+            return null;
+        }
+        return secureUrl.replaceFirst(UPLOAD_SEGMENT,
+            UPLOAD_SEGMENT + "c_limit,w_" + maxEdge + ",h_" + maxEdge + ",f_auto,q_auto/");
+    }
+
+    private String resourceType(EFileType fileType) {
+        return fileType == EFileType.IMAGE ? "image" : "raw";
+    }
+}
@@ -0,0 +1,210 @@
+package com.workhub.api.service.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tạo ảnh thu nhỏ cho backend tự lưu file (Cloudinary tự resize qua URL nên không cần).
+ * Ảnh gốc chỉ được giải mã một lần (subsampling ngay lúc đọc nếu ảnh lớn hơn nhiều so với cỡ cần),
+ * medium thu từ bản giải mã, thumbnail thu tiếp từ medium. Chạy trên pool cố định có hàng đợi giới hạn:
+ * quá tải hoặc quá RENDER_TIMEOUT thì bỏ qua, file vẫn upload bình thường và client dùng ảnh gốc.
+ */
+@Slf4j
+@Component
+public class ImagePipeline {
+
+    public static final int THUMBNAIL_EDGE = 480;
+    public static final int MEDIUM_EDGE = 1280;
+
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final long RENDER_TIMEOUT_SECONDS = 15;
+    private static final float JPEG_QUALITY = 0.82f;
+
+    public enum Variant {
+        THUMBNAIL("thumb", THUMBNAIL_EDGE),
+        MEDIUM("medium", MEDIUM_EDGE);
+
+        private final String suffix;
+        private final int maxEdge;
+
+        Variant(String suffix, int maxEdge) {
+            this.suffix = suffix;
+            this.maxEdge = maxEdge;
+        }
+
+        public String suffix() {
+            return suffix;
+        }
+    }
+
+    /**
+     * Một biến thể đã mã hóa; format là "jpg" (ảnh không trong suốt) hoặc "png".
+     */
+    public record Rendition(Variant variant, String format, byte[] content) {
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    public ImagePipeline(@Value("${app.upload.image-workers:2}") int workers,
+                         @Value("${app.upload.image-queue-capacity:16}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-pipeline");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Biến thể nhỏ hơn ảnh gốc; ảnh đã nhỏ hơn cỡ biến thể thì không có biến thể đó (dùng ảnh gốc).
+     * Danh sách rỗng nếu không đọc được ảnh, pool đang đầy hoặc quá thời gian.
+     */
+    public List<Rendition> render(Path source) {
+        Future<List<Rendition>> future;
+        try {
+            future = executor.submit(() -> renderNow(source));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image pipeline is saturated, skipping variants for {}", source.getFileName());
+            return List.of();
+        }
+        try {
+            return future.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Image variants for {} timed out", source.getFileName());
+        } catch (ExecutionException e) {
+            log.warn("Failed to render variants for {}: {}", source.getFileName(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return List.of();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<Rendition> renderNow(Path source) throws IOException {
+        BufferedImage decoded = decode(source);
+        if (decoded == null) {
+            return List.of();
+        }
+        boolean alpha = decoded.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+
+        List<Rendition> renditions = new ArrayList<>();
+        BufferedImage previous = decoded;
+        for (Variant variant : List.of(Variant.MEDIUM, Variant.THUMBNAIL)) {
+            if (Math.max(previous.getWidth(), previous.getHeight()) <= variant.maxEdge) {
+                continue;
+            }
+            previous = scale(previous, variant.maxEdge, alpha);
+            renditions.add(new Rendition(variant, format, encode(previous, format)));
+        }
+        return renditions;
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.warn("Image {} is too large for variants ({}x{})", source.getFileName(), width, height);
+                    return null;
+                }
+                // Giữ ít nhất gấp đôi cỡ medium để thu nhỏ tiếp vẫn nét
+                int subsampling = Math.max(1, Math.max(width, height) / (MEDIUM_EDGE * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Giảm một nửa mỗi bước tới gần cỡ đích rồi nội suy bilinear bước cuối: nét hơn resize một lần
+    private BufferedImage scale(BufferedImage image, int maxEdge, boolean alpha) {
+        double ratio = (double) maxEdge / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if ("png".equals(format)) {
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,179 @@
+package com.workhub.api.service.storage;
+
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.FileUpload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Lưu file trên đĩa cục bộ dưới app.storage.local.root, phục vụ qua GET /files/{key} (FileServingController).
+ * Key có dạng {folder}/{uuid}.{ext}; URL file gốc được dựng lại từ public-base-url mỗi lần đọc,
+ * bản thu nhỏ ({uuid}_thumb / _medium) do ImagePipeline tạo lúc upload.
+ */
+@Slf4j
+@Component
+public class LocalStorageBackend implements StorageBackend {
+
+    public static final String NAME = "local";
+    public static final String URL_PREFIX = "/files/";
+
+    private static final List<String> VARIANT_FORMATS = List.of("jpg", "png");
+
+    private final ImagePipeline imagePipeline;
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalStorageBackend(ImagePipeline imagePipeline,
+                               @Value("${app.storage.local.root:./storage}") String root,
+                               @Value("${app.storage.local.public-base-url:http://localhost:8080}") String publicBaseUrl) {
+        this.imagePipeline = imagePipeline;
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public StoredObject store(InputStream content, StoreRequest request) throws IOException {
+        String extension = extension(request.originalFilename());
+        String key = request.folder() + "/" + UUID.randomUUID() + (extension.isEmpty() ? "" : "." + extension);
+        Path target = resolve(key).orElseThrow(() -> new IOException("Invalid storage key: " + key));
+        Path dir = Files.createDirectories(target.getParent());
+
+        // Ghi ra file tạm cùng thư mục rồi đổi tên: không bao giờ phục vụ file ghi dở
+        Path temp = Files.createTempFile(dir, ".upload-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Integer width = null;
+        Integer height = null;
+        Map<ImagePipeline.Variant, String> variantUrls = new EnumMap<>(ImagePipeline.Variant.class);
+        if (request.fileType() == EFileType.IMAGE) {
+            int[] dimensions = readDimensions(target);
+            if (dimensions != null) {
+                width = dimensions[0];
+                height = dimensions[1];
+            }
+            for (ImagePipeline.Rendition rendition : imagePipeline.render(target)) {
+                String variantKey = variantKey(key, rendition.variant(), rendition.format());
+                writeVariant(variantKey, rendition.content());
+                variantUrls.put(rendition.variant(), publicBaseUrl + URL_PREFIX + variantKey);
+            }
+        }
+
+        String url = publicBaseUrl + URL_PREFIX + key;
+        return new StoredObject(key, url, url, extension.isEmpty() ? null : extension,
+                Files.size(target), width, height,
+                variantUrls.get(ImagePipeline.Variant.THUMBNAIL), variantUrls.get(ImagePipeline.Variant.MEDIUM));
+    }
+
+    @Override
+    public void delete(String key, EFileType fileType) throws IOException {
+        Optional<Path> path = resolve(key);
+        if (path.isPresent()) {
+            Files.deleteIfExists(path.get());
+        }
+        if (fileType == EFileType.IMAGE) {
+            for (ImagePipeline.Variant variant : ImagePipeline.Variant.values()) {
+                for (String format : VARIANT_FORMATS) {
+                    Optional<Path> variantPath = resolve(variantKey(key, variant, format));
+                    if (variantPath.isPresent()) {
+                        Files.deleteIfExists(variantPath.get());
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String publicUrl(FileUpload file) {
+        return publicBaseUrl + URL_PREFIX + file.getPublicId();
+    }
+
+    /**
+     * Đường dẫn trên đĩa của key; rỗng nếu key thoát ra ngoài thư mục gốc (../, đường dẫn tuyệt đối).
+     */
+    public Optional<Path> resolve(String key) {
+        if (key == null || key.isBlank()) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(key).normalize();
+        return path.startsWith(root) && !path.equals(root) ? Optional.of(path) : Optional.empty();
+    }
+
+    // {folder}/{uuid}.png -> {folder}/{uuid}_thumb.jpg
+    private String variantKey(String key, ImagePipeline.Variant variant, String format) {
+        int dot = key.lastIndexOf('.');
+        String base = dot > key.lastIndexOf('/') ? key.substring(0, dot) : key;
+        return base + "_" + variant.suffix() + "." + format;
+    }
+
+    private void writeVariant(String key, byte[] content) throws IOException {
+        Path target = resolve(key).orElseThrow(() -> new IOException("Invalid storage key: " + key));
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // Chỉ đọc header ảnh để lấy kích thước, không giải mã toàn bộ pixel
+    private int[] readDimensions(Path path) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read image dimensions for {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private String extension(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        String extension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
+        return extension.matches("[a-z0-9]{1,10}") ? extension : "";
+    }
+}
@@ -0,0 +1,41 @@
+package com.workhub.api.service.storage;
+
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.FileUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Nơi lưu nội dung file. FileUploadService ghi qua backend đang bật (app.storage.backend),
+ * còn đọc URL / xóa qua backend ghi trong FileUpload.storageBackend nên file cũ vẫn dùng được khi đổi backend.
+ */
+public interface StorageBackend {
+
+    /**
+     * Tên lưu trong cột file_uploads.storage_backend.
+     */
+    String name();
+
+    /**
+     * Ghi nội dung từ stream (đọc tuần tự một lần, không nạp cả file vào heap).
+     */
+    StoredObject store(InputStream content, StoreRequest request) throws IOException;
+
+    void delete(String key, EFileType fileType) throws IOException;
+
+    /**
+     * URL công khai để client tải file.
+     */
+    String publicUrl(FileUpload file);
+
+    record StoreRequest(String folder, EFileType fileType, String originalFilename, String contentType, long size) {
+    }
+
+    /**
+     * thumbnailUrl / mediumUrl: bản thu nhỏ của ảnh, null nếu không có (tài liệu, ảnh đã nhỏ sẵn).
+     */
+    record StoredObject(String key, String url, String secureUrl, String format, Long sizeBytes,
+                        Integer width, Integer height, String thumbnailUrl, String mediumUrl) {
+    }
+}
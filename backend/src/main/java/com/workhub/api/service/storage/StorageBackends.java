@@ -0,0 +1,43 @@
+package com.workhub.api.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class StorageBackends {
+
+    private final Map<String, StorageBackend> backends;
+    private final StorageBackend active;
+
+    public StorageBackends(List<StorageBackend> backends,
+                           @Value("${app.storage.backend:cloudinary}") String activeName) {
+        this.backends = backends.stream().collect(Collectors.toMap(StorageBackend::name, Function.identity()));
+        this.active = this.backends.get(activeName);
+        if (active == null) {
+            throw new IllegalStateException("Unknown storage backend: " + activeName + ", available: " + this.backends.keySet());
+        }
+    }
+
+    /**
+     * Backend dùng cho file mới.
+     */
+    public StorageBackend active() {
+        return active;
+    }
+
+    /**
+     * Backend đã lưu file; dòng cũ (trước khi có cột storage_backend) là Cloudinary.
+     */
+    public StorageBackend get(String name) {
+        StorageBackend backend = backends.get(name != null ? name : CloudinaryStorageBackend.NAME);
+        if (backend == null) {
+            throw new IllegalStateException("Storage backend not available: " + name);
+        }
+        return backend;
+    }
+}
@@ -0,0 +1,110 @@
+package com.workhub.api.benchmark;
+
+import com.workhub.api.entity.User;
+import com.workhub.api.repository.UserRepository;
+import com.workhub.api.security.UserPrincipalCache;
+import com.workhub.api.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí xác thực một request trong JwtAuthFilter:
+ * - legacyTripleParse: validateJwtToken + getEmailFromJwtToken + getUserIdFromJwtToken (3 lần kiểm chữ ký)
+ * - parseOnce: parseClaims (1 lần)
+ * - principalUncached / principalCached: parseClaims rồi dựng UserDetailsImpl, mỗi lần nạp lại hoặc lấy từ cache.
+ * UserRepository là stub trong bộ nhớ nên số đo không gồm round-trip DB mà cache tiết kiệm được thêm.
+ *
+ * Chạy: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.workhub.api.benchmark.AuthPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthPathBenchmark {
+
+    private static final long USER_ID = 42L;
+
+    private JwtUtils jwtUtils;
+    private UserPrincipalCache cachedPrincipals;
+    private UserPrincipalCache uncachedPrincipals;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        byte[] secret = new byte[64];
+        new Random(1).nextBytes(secret);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", Base64.getEncoder().encodeToString(secret));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        jwtUtils.init();
+        token = jwtUtils.generateTokenFromEmail("user@test.local", USER_ID, "ROLE_USER");
+
+        User user = User.builder()
+                .email("user@test.local")
+                .password("")
+                .fullName("User")
+                .emailVerified(true)
+                .enabled(true)
+                .build();
+        ReflectionTestUtils.setField(user, "id", USER_ID);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+
+        cachedPrincipals = new UserPrincipalCache(userRepository, null, null, 10_000, 300);
+        uncachedPrincipals = new UserPrincipalCache(userRepository, null, null, 0, 300);
+    }
+
+    @Benchmark
+    public void legacyTripleParse(Blackhole blackhole) {
+        blackhole.consume(jwtUtils.validateJwtToken(token));
+        blackhole.consume(jwtUtils.getEmailFromJwtToken(token));
+        blackhole.consume(jwtUtils.getUserIdFromJwtToken(token));
+    }
+
+    @Benchmark
+    public Claims parseOnce() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public UserDetails principalUncached() {
+        Claims claims = jwtUtils.parseClaims(token);
+        return uncachedPrincipals.get(claims.get("userId", Long.class));
+    }
+
+    @Benchmark
+    public UserDetails principalCached() {
+        Claims claims = jwtUtils.parseClaims(token);
+        return cachedPrincipals.get(claims.get("userId", Long.class));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,140 @@
+package com.workhub.api.benchmark;
+
+import com.workhub.api.config.JobSearchIndexInitializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Độ trễ p50/p99 của /api/jobs/search trên khoảng 1 triệu job (PostgreSQL trong Testcontainers):
+ * - like: JobRepository.searchJobs (LOWER(...) LIKE '%kw%' trên title/description, ORDER BY created_at)
+ * - fullText: JobRepository.fullTextSearch (search_vector @@ tsquery, xếp theo ts_rank_cd)
+ * Mỗi lần đo gồm câu lấy trang 20 dòng và câu COUNT như Page của Spring Data.
+ * Schema jobs rút gọn nhưng có idx_job_status_created như entity; search_vector, trigger và GIN index
+ * dựng bằng chính JobSearchIndexInitializer. Seed mất vài phút.
+ *
+ * Chạy: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.workhub.api.benchmark.JobSearchBenchmark
+ * p50/p99 nằm ở các dòng ·p0.50 / ·p0.99 của kết quả.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class JobSearchBenchmark {
+
+    private static final int JOBS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String LIKE_PAGE = "SELECT j.* FROM jobs j WHERE j.status = ? " +
+            "AND (j.application_deadline IS NULL OR j.application_deadline > ?) " +
+            "AND (LOWER(j.title) LIKE LOWER('%' || ? || '%') OR LOWER(j.description) LIKE LOWER('%' || ? || '%')) " +
+            "ORDER BY j.created_at DESC LIMIT " + PAGE_SIZE;
+    private static final String LIKE_COUNT = "SELECT COUNT(*) FROM jobs j WHERE j.status = ? " +
+            "AND (j.application_deadline IS NULL OR j.application_deadline > ?) " +
+            "AND (LOWER(j.title) LIKE LOWER('%' || ? || '%') OR LOWER(j.description) LIKE LOWER('%' || ? || '%'))";
+    private static final String FULL_TEXT_PAGE = "SELECT j.* FROM jobs j WHERE j.status = ? " +
+            "AND (j.application_deadline IS NULL OR j.application_deadline > ?) " +
+            "AND j.search_vector @@ to_tsquery('simple', workhub_unaccent(?)) " +
+            "ORDER BY ts_rank_cd(j.search_vector, to_tsquery('simple', workhub_unaccent(?))) DESC, j.created_at DESC " +
+            "LIMIT " + PAGE_SIZE;
+    private static final String FULL_TEXT_COUNT = "SELECT COUNT(*) FROM jobs j WHERE j.status = ? " +
+            "AND (j.application_deadline IS NULL OR j.application_deadline > ?) " +
+            "AND j.search_vector @@ to_tsquery('simple', workhub_unaccent(?))";
+
+    // "java" khớp khoảng 10% số job, "react native" khoảng 1%
+    @Param({"java", "react native"})
+    public String keyword;
+
+    private PostgreSQLContainer<?> postgres;
+    private JdbcTemplate jdbcTemplate;
+    private String tsQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+
+        jdbcTemplate.execute("CREATE TABLE jobs (id BIGSERIAL PRIMARY KEY, title VARCHAR(255) NOT NULL, " +
+                "description TEXT, requirements TEXT, status VARCHAR(20) NOT NULL, " +
+                "application_deadline TIMESTAMP(6), created_at TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE INDEX idx_job_status_created ON jobs (status, created_at, id)");
+        jdbcTemplate.execute("CREATE TABLE job_skills (job_id BIGINT NOT NULL REFERENCES jobs (id), skill VARCHAR(100))");
+        new JobSearchIndexInitializer(jdbcTemplate).run();
+
+        // Trigger của JobSearchIndexInitializer tính search_vector cho từng dòng khi insert
+        jdbcTemplate.update("INSERT INTO jobs (title, description, requirements, status, application_deadline, created_at) " +
+                "SELECT (ARRAY['Lập trình', 'Thiết kế', 'Phát triển', 'Kiểm thử', 'Bảo trì'])[1 + g % 5] || ' ' || " +
+                "       (ARRAY['Java', 'Python', 'Go', 'Kotlin', 'PHP', 'Flutter', 'Vue', 'Angular', 'Rust', 'Swift'])[1 + (g / 5) % 10] || " +
+                "       ' dự án ' || g, " +
+                "       'Cần ứng viên có kinh nghiệm ' || " +
+                "       (ARRAY['backend', 'frontend', 'mobile', 'dữ liệu', 'hệ thống'])[1 + (g / 3) % 5] || ', làm việc ' || " +
+                "       (ARRAY['từ xa', 'toàn thời gian', 'bán thời gian'])[1 + g % 3] || " +
+                "       CASE WHEN g % 100 = 7 THEN ', ưu tiên React Native' ELSE '' END, " +
+                "       'Giao tiếp tốt', " +
+                "       CASE WHEN g % 10 = 0 THEN 'CLOSED' ELSE 'OPEN' END, " +
+                "       CASE WHEN g % 4 = 0 THEN now() + INTERVAL '30 days' END, " +
+                "       now() - (g % 730) * INTERVAL '1 day' - (g % 86400) * INTERVAL '1 second' " +
+                "FROM generate_series(1, ?) g", JOBS);
+        jdbcTemplate.execute("VACUUM ANALYZE jobs");
+
+        StringJoiner joiner = new StringJoiner(" & ");
+        for (String token : keyword.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                joiner.add(token + ":*");
+            }
+        }
+        tsQuery = joiner.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void like(Blackhole blackhole) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        blackhole.consume(jdbcTemplate.queryForList(LIKE_PAGE, "OPEN", now, keyword, keyword));
+        blackhole.consume(jdbcTemplate.queryForObject(LIKE_COUNT, Long.class, "OPEN", now, keyword, keyword));
+    }
+
+    @Benchmark
+    public void fullText(Blackhole blackhole) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        blackhole.consume(jdbcTemplate.queryForList(FULL_TEXT_PAGE, "OPEN", now, tsQuery, tsQuery));
+        blackhole.consume(jdbcTemplate.queryForObject(FULL_TEXT_COUNT, Long.class, "OPEN", now, tsQuery));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JobSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
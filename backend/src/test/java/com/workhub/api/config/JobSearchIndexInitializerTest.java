@@ -0,0 +1,104 @@
+package com.workhub.api.config;
+
+import com.workhub.api.entity.Job;
+import com.workhub.api.entity.User;
+import com.workhub.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thêm/xóa nhiều skill trong một statement chỉ tính lại search_vector của job một lần.
+ * Số lần UPDATE jobs đọc từ pg_stat_xact_user_tables (thống kê của transaction hiện tại).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JobSearchIndexInitializer.class)
+class JobSearchIndexInitializerTest extends PostgresIntegrationTest {
+
+    private static final int SKILL_COUNT = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobSearchIndexInitializer initializer;
+
+    private Long jobId;
+
+    @BeforeEach
+    void setUp() {
+        initializer.run();
+        assertThat(initializer.isAvailable()).isTrue();
+
+        User employer = entityManager.persist(User.builder()
+                .email("employer-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName("Employer")
+                .build());
+        jobId = entityManager.persist(Job.builder()
+                .title("Lập trình viên")
+                .description("Mô tả")
+                .employer(employer)
+                .build()).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void bulkSkillInsertRebuildsVectorOnce() {
+        long before = jobUpdates();
+        jdbcTemplate.update("INSERT INTO job_skills (job_id, skill) " +
+                "SELECT ?, 'skill' || g FROM generate_series(1, ?) g", jobId, SKILL_COUNT);
+
+        assertThat(jobUpdates() - before).isEqualTo(1);
+        assertThat(matches("skill7")).isTrue();
+    }
+
+    @Test
+    void bulkSkillDeleteRebuildsVectorOnce() {
+        jdbcTemplate.update("INSERT INTO job_skills (job_id, skill) " +
+                "SELECT ?, 'skill' || g FROM generate_series(1, ?) g", jobId, SKILL_COUNT);
+
+        long before = jobUpdates();
+        jdbcTemplate.update("DELETE FROM job_skills WHERE job_id = ?", jobId);
+
+        assertThat(jobUpdates() - before).isEqualTo(1);
+        assertThat(matches("skill7")).isFalse();
+        assertThat(matches("lap")).isTrue();
+    }
+
+    @Test
+    void skillUpdateRebuildsVector() {
+        jdbcTemplate.update("INSERT INTO job_skills (job_id, skill) VALUES (?, 'java')", jobId);
+
+        jdbcTemplate.update("UPDATE job_skills SET skill = 'kotlin' WHERE job_id = ?", jobId);
+
+        assertThat(matches("kotlin")).isTrue();
+        assertThat(matches("java")).isFalse();
+    }
+
+    private long jobUpdates() {
+        Long updates = jdbcTemplate.queryForObject(
+                "SELECT n_tup_upd FROM pg_stat_xact_user_tables WHERE relname = 'jobs'", Long.class);
+        return updates != null ? updates : 0;
+    }
+
+    private boolean matches(String term) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM jobs WHERE id = ? AND search_vector @@ to_tsquery('simple', ?)",
+                Integer.class, jobId, term);
+        return count != null && count > 0;
+    }
+}
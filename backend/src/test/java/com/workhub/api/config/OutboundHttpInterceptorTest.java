@@ -0,0 +1,188 @@
+package com.workhub.api.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RestTemplate dùng chung (AppConfig + OutboundHttpInterceptor) gọi vào một server giả (HttpServer của JDK):
+ * retry GET khi 5xx / lỗi IO, không retry 4xx hay POST, read timeout được áp cho từng lần thử, và timer ghi đúng tag.
+ */
+class OutboundHttpInterceptorTest {
+
+    private static final int MAX_RETRIES = 2;
+    private static final long READ_TIMEOUT_MS = 300;
+    private static final String METRIC = "workhub.http.client.requests";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger hits = new AtomicInteger();
+    // Mỗi request lấy một hành vi từ hàng đợi; hết hàng đợi thì trả 200
+    private final Queue<Behavior> behaviors = new ConcurrentLinkedQueue<>();
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private RestTemplate restTemplate;
+
+    private enum Behavior { OK, SERVICE_UNAVAILABLE, NOT_FOUND, DROP_CONNECTION, HANG }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+
+        AppConfig appConfig = new AppConfig();
+        ReflectionTestUtils.setField(appConfig, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(appConfig, "readTimeoutMs", READ_TIMEOUT_MS);
+        ReflectionTestUtils.setField(appConfig, "maxPerHost", 4);
+        ReflectionTestUtils.setField(appConfig, "maxRetries", MAX_RETRIES);
+        restTemplate = appConfig.restTemplate(appConfig.outboundHttpClient(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void getIsRetriedAfterServerError() {
+        behaviors.add(Behavior.SERVICE_UNAVAILABLE);
+        behaviors.add(Behavior.SERVICE_UNAVAILABLE);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url("/v1/accounts/0xabc123"), String.class);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(hits).hasValue(3);
+        assertThat(timer("GET", "/v1/accounts/{id}", "503").count()).isEqualTo(2);
+        assertThat(timer("GET", "/v1/accounts/{id}", "200").count()).isEqualTo(1);
+    }
+
+    @Test
+    void getIsRetriedAfterConnectionDrop() {
+        behaviors.add(Behavior.DROP_CONNECTION);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url("/v1/transactions/by_hash/0xfeed"), String.class);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(hits).hasValue(2);
+        assertThat(timer("GET", "/v1/transactions/by_hash/{id}", "IO_ERROR").count()).isEqualTo(1);
+        assertThat(timer("GET", "/v1/transactions/by_hash/{id}", "200").count()).isEqualTo(1);
+    }
+
+    @Test
+    void serverErrorIsReturnedAfterRetriesAreExhausted() {
+        for (int i = 0; i <= MAX_RETRIES; i++) {
+            behaviors.add(Behavior.SERVICE_UNAVAILABLE);
+        }
+
+        assertThatThrownBy(() -> restTemplate.getForEntity(url("/v1/accounts/42"), String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(hits).hasValue(MAX_RETRIES + 1);
+    }
+
+    @Test
+    void clientErrorIsNotRetried() {
+        behaviors.add(Behavior.NOT_FOUND);
+
+        assertThatThrownBy(() -> restTemplate.getForEntity(url("/v1/accounts/42"), String.class))
+                .isInstanceOf(HttpClientErrorException.NotFound.class);
+        assertThat(hits).hasValue(1);
+        assertThat(timer("GET", "/v1/accounts/{id}", "404").count()).isEqualTo(1);
+    }
+
+    @Test
+    void postIsNotRetried() {
+        behaviors.add(Behavior.SERVICE_UNAVAILABLE);
+
+        assertThatThrownBy(() -> restTemplate.postForEntity(url("/v1/transactions"), "tx", String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(hits).hasValue(1);
+        assertThat(timer("POST", "/v1/transactions", "503").count()).isEqualTo(1);
+    }
+
+    @Test
+    void readTimeoutBoundsEveryAttempt() {
+        for (int i = 0; i <= MAX_RETRIES; i++) {
+            behaviors.add(Behavior.HANG);
+        }
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> restTemplate.getForEntity(url("/v1/accounts/42"), String.class))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasRootCauseInstanceOf(HttpTimeoutException.class);
+
+        // Mỗi lần thử dừng ở READ_TIMEOUT_MS (server treo 5 giây), cộng backoff tối đa 200 + 400 ms
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertThat(elapsedMs).isLessThan((MAX_RETRIES + 1) * READ_TIMEOUT_MS + 600 + 1000);
+        assertThat(hits).hasValue(MAX_RETRIES + 1);
+        assertThat(timer("GET", "/v1/accounts/{id}", "IO_ERROR").count()).isEqualTo(MAX_RETRIES + 1);
+    }
+
+    private Timer timer(String method, String endpoint, String outcome) {
+        Timer timer = meterRegistry.find(METRIC)
+                .tags("host", "127.0.0.1", "method", method, "endpoint", endpoint, "outcome", outcome)
+                .timer();
+        assertThat(timer).as("timer %s %s %s", method, endpoint, outcome).isNotNull();
+        return timer;
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        Behavior behavior = behaviors.poll();
+        switch (behavior != null ? behavior : Behavior.OK) {
+            case OK -> respond(exchange, 200, "{\"ok\":true}");
+            case SERVICE_UNAVAILABLE -> respond(exchange, 503, "{\"error\":\"unavailable\"}");
+            case NOT_FOUND -> respond(exchange, 404, "{\"error\":\"not_found\"}");
+            // Đóng exchange trước khi gửi header: HttpServer cắt luôn kết nối
+            case DROP_CONNECTION -> exchange.close();
+            case HANG -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.close();
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,175 @@
+package com.workhub.api.config;
+
+import com.workhub.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chuyển một bảng có dữ liệu, FK đi/đến và index phụ sang partition trên PostgreSQL thật.
+ * Dùng bảng riêng của test để không đụng schema của entity.
+ */
+class PartitionMigrationTest extends PostgresIntegrationTest {
+
+    private static final String TABLE = "migration_probe";
+    private static final String LEGACY = TABLE + "_p_legacy";
+    private static final int ROWS = 3000;
+    private static final TablePartitionManager.PartitionedTable PROBE = new TablePartitionManager.PartitionedTable(
+            TABLE, List.of("idx_probe_owner_created (owner_id, created_at, id)"));
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PartitionMigration migration;
+    private TablePartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        migration = new PartitionMigration(jdbcTemplate);
+        partitionManager = new TablePartitionManager(jdbcTemplate, new DataSourceTransactionManager(dataSource), migration);
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS probe_ref, " + TABLE + ", probe_owner CASCADE");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                "version VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT now(), notes TEXT)");
+        jdbcTemplate.update("DELETE FROM schema_migrations WHERE version = ?", PartitionMigration.version(TABLE));
+
+        jdbcTemplate.execute("CREATE TABLE probe_owner (id BIGSERIAL PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "owner_id BIGINT NOT NULL REFERENCES probe_owner (id), " +
+                "body TEXT, created_at TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE INDEX idx_probe_owner_created ON " + TABLE + " (owner_id, created_at, id)");
+        jdbcTemplate.execute("CREATE TABLE probe_ref (id BIGSERIAL PRIMARY KEY, " +
+                "probe_id BIGINT REFERENCES " + TABLE + " (id))");
+
+        jdbcTemplate.update("INSERT INTO probe_owner DEFAULT VALUES");
+        // Dòng trải đều 5 tháng gần nhất, một dòng thiếu created_at
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (owner_id, body, created_at) " +
+                "SELECT 1, 'row ' || g, now() - (g % 150) * INTERVAL '1 day' FROM generate_series(1, ?) g", ROWS - 1);
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (owner_id, body, created_at) VALUES (1, 'no date', NULL)");
+        jdbcTemplate.update("INSERT INTO probe_ref (probe_id) SELECT MIN(id) FROM " + TABLE);
+    }
+
+    @Test
+    void convertsInPlaceAndReportsDroppedForeignKeys() {
+        PartitionMigration.Result result = migration.migrate(PROBE);
+        List<String> dropped = result.droppedForeignKeys();
+
+        assertThat(result.skipped()).isFalse();
+        assertThat(dropped).singleElement().asString().contains("probe_ref").contains("REFERENCES " + TABLE);
+        assertThat(queryString("SELECT notes FROM schema_migrations WHERE version = ?",
+                PartitionMigration.version(TABLE))).contains("probe_ref");
+
+        assertThat(queryString("SELECT relkind::text FROM pg_class WHERE relname = ?", TABLE)).isEqualTo("p");
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE)).isEqualTo(ROWS);
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE + " WHERE created_at IS NULL")).isZero();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT a.attname FROM pg_index i JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey) " +
+                "WHERE i.indrelid = ?::regclass AND i.indisprimary ORDER BY a.attnum", String.class, TABLE))
+                .containsExactlyInAnyOrder("id", "created_at");
+
+        // Khóa chính của partition là index build CONCURRENTLY trước đó, không phải index mới; CHECK tạm đã bỏ
+        assertThat(count("SELECT COUNT(*) FROM pg_index WHERE indrelid = '" + LEGACY + "'::regclass AND indisunique"))
+                .isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM pg_constraint WHERE conrelid = '" + LEGACY + "'::regclass AND contype = 'c'"))
+                .isZero();
+        // Index phụ và FK đi của partition được gắn vào bảng cha
+        assertThat(count("SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'idx_probe_owner_created'::regclass"))
+                .isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM pg_constraint WHERE conrelid = '" + TABLE + "'::regclass AND contype = 'f'"))
+                .isEqualTo(1);
+
+        // Lần chạy thứ hai không làm gì
+        PartitionMigration.Result again = migration.migrate(PROBE);
+        assertThat(again.skipped()).isFalse();
+        assertThat(again.droppedForeignKeys()).isEmpty();
+    }
+
+    @Test
+    void skipsWithoutWaitingWhileAnotherInstanceHoldsTheLock() throws Exception {
+        try (Connection other = dataSource.getConnection(); Statement statement = other.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(hashtext('partition:" + TABLE + "'))");
+
+            assertThat(migration.migrate(PROBE).skipped()).isTrue();
+            assertThat(queryString("SELECT relkind::text FROM pg_class WHERE relname = ?", TABLE)).isEqualTo("r");
+            assertThat(migration.splitLegacyMonth(TABLE)).isFalse();
+
+            statement.execute("SELECT pg_advisory_unlock(hashtext('partition:" + TABLE + "'))");
+        }
+
+        // Lượt sau kiểm tra lại và chuyển đổi
+        assertThat(migration.migrate(PROBE).skipped()).isFalse();
+        assertThat(queryString("SELECT relkind::text FROM pg_class WHERE relname = ?", TABLE)).isEqualTo("p");
+    }
+
+    @Test
+    void legacyIsSplitIntoMonthlyPartitions() {
+        migration.migrate(PROBE);
+        partitionManager.ensurePartitions(TABLE);
+
+        int splits = 0;
+        while (partitionManager.splitLegacyMonth(TABLE)) {
+            splits++;
+            assertThat(splits).as("split runs").isLessThan(20);
+        }
+
+        assertThat(splits).isGreaterThan(1);
+        assertThat(count("SELECT COUNT(*) FROM pg_class WHERE relname = '" + LEGACY + "'")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE)).isEqualTo(ROWS);
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE + "_p_default")).isZero();
+        // Mỗi dòng nằm trong partition mang đúng tháng của nó
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE + " " +
+                "WHERE tableoid::regclass::text <> '" + TABLE + "_p' || to_char(created_at, 'YYYYMM')")).isZero();
+        // Partition tách ra có index phụ và FK như bảng cha
+        String oldest = jdbcTemplate.queryForObject(
+                "SELECT '" + TABLE + "_p' || to_char(MIN(created_at), 'YYYYMM') FROM " + TABLE, String.class);
+        assertThat(count("SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'idx_probe_owner_created'::regclass " +
+                "AND inhrelid IN (SELECT indexrelid FROM pg_index WHERE indrelid = '" + oldest + "'::regclass)"))
+                .isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM pg_constraint WHERE conrelid = '" + oldest + "'::regclass AND contype = 'f'"))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rowsInDefaultPartitionMoveToTheirMonth() {
+        migration.migrate(PROBE);
+        partitionManager.ensurePartitions(TABLE);
+
+        YearMonth far = YearMonth.now().plusMonths(8);
+        LocalDateTime farDate = far.atDay(10).atStartOfDay();
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (id, owner_id, body, created_at) VALUES (?, 1, 'future', ?)",
+                1_000_000L, Timestamp.valueOf(farDate));
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE + "_p_default")).isEqualTo(1);
+
+        partitionManager.ensurePartitions(TABLE);
+
+        String monthPartition = TABLE + "_p" + far.format(DateTimeFormatter.ofPattern("yyyyMM"));
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE + "_p_default")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM " + monthPartition)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM " + TABLE)).isEqualTo(ROWS + 1);
+        assertThat(partitionManager.partitions(TABLE))
+                .anySatisfy(partition -> assertThat(partition.name()).isEqualTo(monthPartition));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private String queryString(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, String.class, args);
+    }
+}
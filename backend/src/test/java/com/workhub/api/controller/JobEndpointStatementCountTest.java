@@ -0,0 +1,202 @@
+package com.workhub.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workhub.api.config.JobSearchIndexInitializer;
+import com.workhub.api.entity.EApplicationStatus;
+import com.workhub.api.entity.EJobStatus;
+import com.workhub.api.entity.Job;
+import com.workhub.api.entity.JobApplication;
+import com.workhub.api.entity.User;
+import com.workhub.api.service.BlockchainService;
+import com.workhub.api.service.JobApplicationService;
+import com.workhub.api.service.JobContractService;
+import com.workhub.api.service.JobHistoryService;
+import com.workhub.api.service.JobResponseAssembler;
+import com.workhub.api.service.JobService;
+import com.workhub.api.service.JobSkillIndex;
+import com.workhub.api.service.JobViewCounter;
+import com.workhub.api.service.JobWorkService;
+import com.workhub.api.service.NotificationService;
+import com.workhub.api.service.UserService;
+import com.workhub.api.support.PostgresIntegrationTest;
+import com.workhub.api.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Số câu SQL của từng endpoint đọc job (list, search, by-skills, chi tiết) đo qua MockMvc, từ controller xuống DB.
+ * Trang 3 job và trang 30 job phải tốn cùng số câu; trang chi tiết không tra employer bằng câu riêng.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JobService.class, JobResponseAssembler.class, JobSearchIndexInitializer.class, StatementCounter.class})
+class JobEndpointStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int JOBS = 30;
+    // Câu lấy trang + COUNT, cộng các câu của JobResponseAssembler (xem JobResponseAssemblerQueryCountTest)
+    private static final long MAX_STATEMENTS_PER_PAGE = 14;
+    private static final Pattern SELECT_FROM_USERS = Pattern.compile("\\bfrom users\\b");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobSearchIndexInitializer searchIndexInitializer;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private JobHistoryService jobHistoryService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private JobContractService jobContractService;
+
+    @MockBean
+    private JobSkillIndex jobSkillIndex;
+
+    @MockBean
+    private JobViewCounter jobViewCounter;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private List<Long> jobIds;
+
+    @BeforeEach
+    void setUp() {
+        searchIndexInitializer.run();
+        assertThat(searchIndexInitializer.isAvailable()).isTrue();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new JobController(jobService,
+                mock(JobApplicationService.class), mock(JobWorkService.class), jobHistoryService,
+                jobContractService, mock(BlockchainService.class))).build();
+        jobIds = seedOpenJobs();
+
+        when(jobSkillIndex.isReady()).thenReturn(true);
+        when(jobSkillIndex.findOpenJobIds(anyCollection(), any())).thenReturn(jobIds);
+    }
+
+    @Test
+    void listStatementsDoNotGrowWithPageSize() throws Exception {
+        assertPageIndependent("/api/jobs");
+    }
+
+    @Test
+    void searchStatementsDoNotGrowWithPageSize() throws Exception {
+        assertPageIndependent("/api/jobs/search?keyword=java");
+    }
+
+    @Test
+    void bySkillsStatementsDoNotGrowWithPageSize() throws Exception {
+        assertPageIndependent("/api/jobs/by-skills?skills=java");
+    }
+
+    @Test
+    void bySkillsFallbackStatementsDoNotGrowWithPageSize() throws Exception {
+        when(jobSkillIndex.isReady()).thenReturn(false);
+        assertPageIndependent("/api/jobs/by-skills?skills=java");
+    }
+
+    @Test
+    void detailLoadsEmployerWithTheJob() throws Exception {
+        Long jobId = jobIds.get(0);
+        entityManager.clear();
+        statementCounter.reset();
+
+        mockMvc.perform(get("/api/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.employer.fullName").value("employer"))
+                .andExpect(jsonPath("$.data.freelancer.fullName").value("freelancer"));
+
+        assertThat(statementCounter.statements())
+                .noneMatch(sql -> SELECT_FROM_USERS.matcher(sql.toLowerCase()).find());
+        assertThat(statementCounter.count()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    private void assertPageIndependent(String url) throws Exception {
+        long smallPage = statementsFor(url, 3);
+        long largePage = statementsFor(url, JOBS);
+
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(largePage).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    private long statementsFor(String url, int size) throws Exception {
+        entityManager.clear();
+        statementCounter.reset();
+        mockMvc.perform(get(url).param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(size));
+        return statementCounter.count();
+    }
+
+    // Job OPEN, mỗi job một employer riêng; job chẵn có đơn ACCEPTED của một freelancer riêng
+    private List<Long> seedOpenJobs() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            User employer = entityManager.persist(user("employer"));
+            Job job = entityManager.persist(Job.builder()
+                    .title("Lập trình Java " + i)
+                    .description("Mô tả")
+                    .skills(new HashSet<>(Set.of("java", "spring")))
+                    .status(EJobStatus.OPEN)
+                    .employer(employer)
+                    .build());
+            if (i % 2 == 0) {
+                entityManager.persist(JobApplication.builder()
+                        .job(job)
+                        .freelancer(entityManager.persist(user("freelancer")))
+                        .status(EApplicationStatus.ACCEPTED)
+                        .build());
+            }
+            ids.add(job.getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private User user(String name) {
+        return User.builder()
+                .email(name + "-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName(name)
+                .emailVerified(true)
+                .enabled(true)
+                .build();
+    }
+}
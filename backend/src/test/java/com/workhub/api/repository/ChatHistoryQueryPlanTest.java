@@ -0,0 +1,119 @@
+package com.workhub.api.repository;
+
+import com.workhub.api.entity.ChatMessage;
+import com.workhub.api.entity.Conversation;
+import com.workhub.api.entity.User;
+import com.workhub.api.support.PostgresIntegrationTest;
+import com.workhub.api.support.QueryPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lịch sử chat theo cursor: điều kiện cursor là Index Cond trên idx_chat_message_conversation_created,
+ * không dòng nào bị Filter loại và số block đọc không phụ thuộc đã cuộn ngược bao xa.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ChatHistoryQueryPlanTest extends PostgresIntegrationTest {
+
+    private static final int MESSAGE_COUNT = 80_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_OFFSET = 30_000;
+    // Trang tin nhắn cộng phần join tới tin được trả lời (ở đây không có)
+    private static final long MAX_CURSOR_BLOCKS = 60;
+
+    // Cùng join, điều kiện và thứ tự với ChatMessageRepository.findHistoryAfter
+    private static final String CURSOR_SQL =
+            "SELECT m.* FROM chat_messages m " +
+            "LEFT JOIN chat_messages r ON r.id = m.reply_to_id LEFT JOIN users s ON s.id = r.sender_id " +
+            "WHERE m.conversation_id = ? AND (m.created_at, m.id) < (?, ?) " +
+            "ORDER BY m.created_at DESC, m.id DESC LIMIT " + (PAGE_SIZE + 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    private Conversation conversation;
+
+    @BeforeEach
+    void seed() {
+        User initiator = entityManager.persist(user());
+        User receiver = entityManager.persist(user());
+        conversation = entityManager.persist(Conversation.builder().initiator(initiator).receiver(receiver).build());
+        Conversation other = entityManager.persist(Conversation.builder().initiator(receiver).receiver(initiator).build());
+        entityManager.flush();
+
+        // Tin nhắn của hai cuộc hội thoại xen kẽ nhau, mỗi tin cách nhau một giây
+        jdbcTemplate.update("INSERT INTO chat_messages (id, conversation_id, sender_id, content, message_type, status, " +
+                "is_edited, is_deleted, created_at) " +
+                "SELECT nextval('chat_messages_seq'), CASE WHEN g % 2 = 0 THEN ? ELSE ? END, " +
+                "CASE WHEN g % 3 = 0 THEN ? ELSE ? END, 'Tin nhắn ' || g, 'TEXT', 'READ', false, false, " +
+                "now() - g * interval '1 second' FROM generate_series(1, ?) g",
+                conversation.getId(), other.getId(), initiator.getId(), receiver.getId(), MESSAGE_COUNT);
+        jdbcTemplate.execute("ANALYZE chat_messages");
+    }
+
+    @Test
+    void deepCursorPageReadsOnlyOnePage() {
+        Object[] cursor = cursorAtDepth(DEEP_OFFSET);
+
+        QueryPlan plan = QueryPlan.explain(jdbcTemplate, CURSOR_SQL, conversation.getId(), cursor[0], cursor[1]);
+
+        assertThat(plan.nodeTypes()).doesNotContain("Sort");
+        assertThat(plan.indexNames()).contains("idx_chat_message_conversation_created");
+        // Join tới tin được trả lời có thể bị planner bỏ, khi đó cột không còn tiền tố m.
+        assertThat(plan.indexConditions())
+                .anyMatch(condition -> condition.matches(".*ROW\\((m\\.)?created_at, (m\\.)?id\\) <.*"));
+        assertThat(plan.rowsRemoved()).isZero();
+        assertThat(plan.sharedBlocks()).isLessThanOrEqualTo(MAX_CURSOR_BLOCKS);
+    }
+
+    @Test
+    void cursorPagesMatchOffsetOrder() {
+        List<ChatMessage> first = chatMessageRepository.findHistoryFirst(conversation, PageRequest.of(0, PAGE_SIZE));
+        ChatMessage last = first.get(first.size() - 1);
+        List<ChatMessage> second = chatMessageRepository.findHistoryAfter(conversation,
+                last.getCreatedAt(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+
+        List<Long> cursorIds = new ArrayList<>();
+        first.forEach(message -> cursorIds.add(message.getId()));
+        second.forEach(message -> cursorIds.add(message.getId()));
+        List<Long> offsetIds = jdbcTemplate.queryForList(
+                "SELECT id FROM chat_messages WHERE conversation_id = ? ORDER BY created_at DESC, id DESC LIMIT ?",
+                Long.class, conversation.getId(), PAGE_SIZE * 2);
+
+        assertThat(cursorIds).containsExactlyElementsOf(offsetIds);
+    }
+
+    private Object[] cursorAtDepth(int depth) {
+        return jdbcTemplate.queryForObject(
+                "SELECT created_at, id FROM chat_messages WHERE conversation_id = ? " +
+                "ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1",
+                (rs, rowNum) -> new Object[]{rs.getTimestamp(1), rs.getLong(2)}, conversation.getId(), depth - 1);
+    }
+
+    private User user() {
+        return User.builder()
+                .email("user-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName("User")
+                .build();
+    }
+}
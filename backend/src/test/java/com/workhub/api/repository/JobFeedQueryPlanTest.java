@@ -0,0 +1,132 @@
+package com.workhub.api.repository;
+
+import com.workhub.api.entity.EJobStatus;
+import com.workhub.api.entity.Job;
+import com.workhub.api.entity.User;
+import com.workhub.api.support.PostgresIntegrationTest;
+import com.workhub.api.support.QueryPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feed job theo cursor phải seek thẳng vào idx_job_status_created: điều kiện cursor nằm trong Index Cond,
+ * không dòng nào bị Filter loại và số block đọc không phụ thuộc trang sâu bao nhiêu, còn OFFSET phải đọc
+ * bỏ qua toàn bộ các trang trước. Dạng OR (created_at < ? OR (created_at = ? AND id < ?)) cũng trả đúng
+ * 21 dòng nhưng quét rồi lọc bỏ cả phần feed phía trước, nên test đo dòng bị lọc và buffer chứ không đo Actual Rows.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class JobFeedQueryPlanTest extends PostgresIntegrationTest {
+
+    private static final int JOB_COUNT = 80_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_OFFSET = 40_000;
+    // Một lần seek trên index cộng tối đa PAGE_SIZE + 1 trang heap
+    private static final long MAX_CURSOR_BLOCKS = 50;
+
+    // Cùng điều kiện và thứ tự với JobRepository.findOpenFeedAfter
+    private static final String CURSOR_SQL =
+            "SELECT * FROM jobs WHERE status = 'OPEN' " +
+            "AND (application_deadline IS NULL OR application_deadline > now()) " +
+            "AND (created_at, id) < (?, ?) " +
+            "ORDER BY created_at DESC, id DESC LIMIT " + (PAGE_SIZE + 1);
+
+    private static final String OFFSET_SQL =
+            "SELECT * FROM jobs WHERE status = 'OPEN' " +
+            "AND (application_deadline IS NULL OR application_deadline > now()) " +
+            "ORDER BY created_at DESC, id DESC LIMIT " + PAGE_SIZE + " OFFSET " + DEEP_OFFSET;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void seed() {
+        User employer = entityManager.persist(User.builder()
+                .email("employer-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName("Employer")
+                .build());
+        Long templateId = entityManager.persist(Job.builder()
+                .title("Template")
+                .description("Mô tả")
+                .status(EJobStatus.OPEN)
+                .employer(employer)
+                .build()).getId();
+        entityManager.flush();
+
+        // Nhân bản job mẫu, mỗi bản cách nhau một phút; 1/4 số job không ở trạng thái OPEN (còn 60k job OPEN)
+        String columns = jdbcTemplate.queryForObject(
+                "SELECT string_agg(quote_ident(column_name), ', ') FROM information_schema.columns " +
+                "WHERE table_name = 'jobs' AND column_name NOT IN ('id', 'created_at', 'status', 'search_vector')",
+                String.class);
+        jdbcTemplate.update("INSERT INTO jobs (" + columns + ", created_at, status) " +
+                "SELECT " + columns + ", now() - g * interval '1 minute', " +
+                "CASE WHEN g % 4 = 0 THEN 'COMPLETED' ELSE 'OPEN' END " +
+                "FROM jobs, generate_series(1, ?) g WHERE id = ?", JOB_COUNT, templateId);
+        jdbcTemplate.execute("ANALYZE jobs");
+    }
+
+    @Test
+    void deepCursorPageReadsOnlyOnePage() {
+        Object[] cursor = cursorAtDepth(DEEP_OFFSET);
+
+        QueryPlan plan = QueryPlan.explain(jdbcTemplate, CURSOR_SQL, cursor[0], cursor[1]);
+
+        assertThat(plan.nodeTypes()).doesNotContain("Sort");
+        assertThat(plan.indexNames()).contains("idx_job_status_created");
+        assertThat(plan.indexConditions()).anyMatch(condition -> condition.contains("ROW(created_at, id) <"));
+        assertThat(plan.rowsRemoved()).isZero();
+        assertThat(plan.sharedBlocks()).isLessThanOrEqualTo(MAX_CURSOR_BLOCKS);
+    }
+
+    @Test
+    void deepOffsetPageReadsAllSkippedRows() {
+        QueryPlan plan = QueryPlan.explain(jdbcTemplate, OFFSET_SQL);
+
+        assertThat(plan.sharedBlocks()).isGreaterThan(MAX_CURSOR_BLOCKS * 10);
+    }
+
+    @Test
+    void cursorPagesMatchOffsetOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Job> first = jobRepository.findOpenFeedFirst(EJobStatus.OPEN, now, PageRequest.of(0, PAGE_SIZE));
+        Job last = first.get(first.size() - 1);
+        List<Job> second = jobRepository.findOpenFeedAfter(EJobStatus.OPEN, now,
+                last.getCreatedAt(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+
+        List<Long> cursorIds = new ArrayList<>();
+        first.forEach(job -> cursorIds.add(job.getId()));
+        second.forEach(job -> cursorIds.add(job.getId()));
+        List<Long> offsetIds = jdbcTemplate.queryForList(
+                "SELECT id FROM jobs WHERE status = 'OPEN' ORDER BY created_at DESC, id DESC LIMIT ?",
+                Long.class, PAGE_SIZE * 2);
+
+        assertThat(cursorIds).containsExactlyElementsOf(offsetIds);
+    }
+
+    // (created_at, id) của dòng thứ depth trong feed, như cursor client gửi lên khi đã cuộn tới đó
+    private Object[] cursorAtDepth(int depth) {
+        return jdbcTemplate.queryForObject(
+                "SELECT created_at, id FROM jobs WHERE status = 'OPEN' ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1",
+                (rs, rowNum) -> new Object[]{rs.getTimestamp(1), rs.getLong(2)}, depth - 1);
+    }
+}
@@ -0,0 +1,114 @@
+package com.workhub.api.repository;
+
+import com.workhub.api.entity.Notification;
+import com.workhub.api.entity.User;
+import com.workhub.api.support.PostgresIntegrationTest;
+import com.workhub.api.support.QueryPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feed thông báo theo cursor: điều kiện cursor là Index Cond trên idx_notification_user_created,
+ * không dòng nào bị Filter loại và số block đọc không phụ thuộc độ sâu của trang.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class NotificationFeedQueryPlanTest extends PostgresIntegrationTest {
+
+    private static final int NOTIFICATION_COUNT = 80_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_OFFSET = 30_000;
+    private static final long MAX_CURSOR_BLOCKS = 50;
+
+    // Cùng điều kiện và thứ tự với NotificationRepository.findFeedAfter
+    private static final String CURSOR_SQL =
+            "SELECT * FROM notifications WHERE user_id = ? " +
+            "AND (created_at, id) < (?, ?) " +
+            "ORDER BY created_at DESC, id DESC LIMIT " + (PAGE_SIZE + 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        userId = entityManager.persist(user()).getId();
+        Long otherUserId = entityManager.persist(user()).getId();
+        entityManager.flush();
+
+        // Thông báo của hai user xen kẽ nhau, mỗi thông báo cách nhau một phút; một phần ba đã được gộp
+        // (last_aggregated_at mới hơn created_at) để thứ tự hoạt động khác thứ tự tạo
+        jdbcTemplate.update("INSERT INTO notifications (id, user_id, type, title, message, aggregate_count, is_read, " +
+                "created_at, last_aggregated_at) " +
+                "SELECT nextval('notifications_seq'), CASE WHEN g % 2 = 0 THEN ? ELSE ? END, 'NEW_APPLICATION', " +
+                "'Thông báo ' || g, 'Nội dung', 1, g % 3 = 0, now() - g * interval '1 minute', " +
+                "now() - g * interval '1 minute' + CASE WHEN g % 3 = 1 THEN g * interval '30 seconds' ELSE interval '0' END " +
+                "FROM generate_series(1, ?) g",
+                userId, otherUserId, NOTIFICATION_COUNT);
+        jdbcTemplate.execute("ANALYZE notifications");
+    }
+
+    @Test
+    void deepCursorPageReadsOnlyOnePage() {
+        Object[] cursor = cursorAtDepth(DEEP_OFFSET);
+
+        QueryPlan plan = QueryPlan.explain(jdbcTemplate, CURSOR_SQL, userId, cursor[0], cursor[1]);
+
+        assertThat(plan.nodeTypes()).doesNotContain("Sort");
+        assertThat(plan.indexNames()).contains("idx_notification_user_created");
+        assertThat(plan.indexConditions()).anyMatch(condition -> condition.contains("ROW(created_at, id) <"));
+        assertThat(plan.rowsRemoved()).isZero();
+        assertThat(plan.sharedBlocks()).isLessThanOrEqualTo(MAX_CURSOR_BLOCKS);
+    }
+
+    @Test
+    void cursorPagesMatchOffsetOrder() {
+        List<Notification> first = notificationRepository.findFeedFirst(userId, PageRequest.of(0, PAGE_SIZE));
+        Notification last = first.get(first.size() - 1);
+        List<Notification> second = notificationRepository.findFeedAfter(userId,
+                last.getCreatedAt(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+
+        List<Long> cursorIds = new ArrayList<>();
+        first.forEach(notification -> cursorIds.add(notification.getId()));
+        second.forEach(notification -> cursorIds.add(notification.getId()));
+        List<Long> offsetIds = jdbcTemplate.queryForList(
+                "SELECT id FROM notifications WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT ?",
+                Long.class, userId, PAGE_SIZE * 2);
+
+        assertThat(cursorIds).containsExactlyElementsOf(offsetIds);
+    }
+
+    private Object[] cursorAtDepth(int depth) {
+        return jdbcTemplate.queryForObject(
+                "SELECT created_at, id FROM notifications WHERE user_id = ? " +
+                "ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1",
+                (rs, rowNum) -> new Object[]{rs.getTimestamp(1), rs.getLong(2)}, userId, depth - 1);
+    }
+
+    private User user() {
+        return User.builder()
+                .email("user-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName("User")
+                .build();
+    }
+}
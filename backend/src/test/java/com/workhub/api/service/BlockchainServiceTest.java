@@ -0,0 +1,196 @@
+package com.workhub.api.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cấp sequence number và chờ xác nhận của BlockchainService, chạy với một fullnode Aptos giả lập
+ * (HttpServer của JDK) thay vì testnet.
+ */
+class BlockchainServiceTest {
+
+    private static final String PRIVATE_KEY = "0x" + "11".repeat(32);
+    private static final String FUNCTION = "0x1::escrow::admin_refund_expired";
+
+    private StubAptosNode node;
+    private BlockchainService blockchainService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = new StubAptosNode();
+        blockchainService = new BlockchainService(new RestTemplate());
+        ReflectionTestUtils.setField(blockchainService, "nodeUrl", node.url());
+        ReflectionTestUtils.setField(blockchainService, "apiKey", "");
+        ReflectionTestUtils.setField(blockchainService, "contractAddress", "0x1");
+        ReflectionTestUtils.setField(blockchainService, "adminPrivateKey", PRIVATE_KEY);
+        ReflectionTestUtils.setField(blockchainService, "chainId", 2);
+        ReflectionTestUtils.setField(blockchainService, "syncConfirmTimeoutSeconds", 1L);
+        blockchainService.init();
+        assertThat(blockchainService.isInitialized()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockchainService.shutdown();
+        node.stop();
+    }
+
+    @Test
+    void pipelinesSequenceNumbersWithoutWaitingForConfirmation() throws Exception {
+        node.onChainSequence.set(10);
+
+        CompletableFuture<String> first = blockchainService.submitTransactionAsync(FUNCTION, 1);
+        CompletableFuture<String> second = blockchainService.submitTransactionAsync(FUNCTION, 2);
+
+        assertThat(node.acceptedSequences).containsExactly(10L, 11L);
+        node.commitAll();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNotBlank();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isNotBlank();
+    }
+
+    @Test
+    void resyncSkipsSequenceNumbersStillInMempool() throws Exception {
+        node.onChainSequence.set(10);
+        blockchainService.submitTransactionAsync(FUNCTION, 1);
+
+        // Node từ chối lần gửi kế tiếp -> đồng bộ lại; on-chain vẫn là 10 vì seq 10 còn nằm trong mempool
+        node.rejectNextWithSequenceError.set(1);
+        blockchainService.submitTransactionAsync(FUNCTION, 2);
+
+        assertThat(node.acceptedSequences).containsExactly(10L, 11L);
+    }
+
+    @Test
+    void resyncJumpsToOnChainSequenceAfterExternalTransactions() throws Exception {
+        node.onChainSequence.set(10);
+        blockchainService.submitTransactionAsync(FUNCTION, 1);
+        node.commitAll();
+
+        // Giao dịch ngoài hệ thống đã dùng 11..14
+        node.onChainSequence.set(15);
+        node.rejectNextWithSequenceError.set(1);
+        blockchainService.submitTransactionAsync(FUNCTION, 2);
+
+        assertThat(node.acceptedSequences).containsExactly(10L, 15L);
+    }
+
+    @Test
+    void synchronousCallerGivesUpAfterShortBound() {
+        node.onChainSequence.set(0);
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> blockchainService.signRefundExpiredJob(42L))
+                .hasMessageContaining("Transaction timeout");
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started)).isLessThan(5);
+    }
+
+    @Test
+    void failedTransactionCompletesExceptionally() {
+        node.onChainSequence.set(0);
+        node.failTransactions = true;
+
+        CompletableFuture<String> future = blockchainService.submitTransactionAsync(FUNCTION, 1);
+        node.commitAll();
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .hasMessageContaining("EABORTED");
+    }
+
+    /**
+     * Fullnode giả lập: nhận giao dịch BCS, đọc sequence number ở byte 32..40 (ngay sau địa chỉ người gửi),
+     * giữ giao dịch "trong mempool" tới khi test gọi commitAll().
+     */
+    private static class StubAptosNode {
+
+        final AtomicLong onChainSequence = new AtomicLong();
+        final AtomicInteger rejectNextWithSequenceError = new AtomicInteger();
+        final List<Long> acceptedSequences = new CopyOnWriteArrayList<>();
+        final Map<String, Long> mempool = new ConcurrentHashMap<>();
+        final Set<String> committed = ConcurrentHashMap.newKeySet();
+        volatile boolean failTransactions;
+
+        private final HttpServer server;
+        private final AtomicInteger hashes = new AtomicInteger();
+
+        StubAptosNode() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/v1/accounts/", exchange ->
+                    respond(exchange, 200, "{\"sequence_number\":\"" + onChainSequence.get() + "\"}"));
+            server.createContext("/v1/transactions/by_hash/", this::transactionByHash);
+            server.createContext("/v1/transactions", this::submit);
+            server.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+        }
+
+        void commitAll() {
+            mempool.forEach((hash, sequence) -> {
+                committed.add(hash);
+                onChainSequence.accumulateAndGet(sequence + 1, Math::max);
+            });
+            mempool.clear();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void submit(HttpExchange exchange) throws IOException {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            long sequence = ByteBuffer.wrap(body, 32, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+            if (rejectNextWithSequenceError.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                respond(exchange, 400, "{\"error_code\":\"vm_error\",\"message\":\"SEQUENCE_NUMBER_TOO_OLD\"}");
+                return;
+            }
+            String hash = "0x" + Integer.toHexString(hashes.incrementAndGet());
+            acceptedSequences.add(sequence);
+            mempool.put(hash, sequence);
+            respond(exchange, 202, "{\"hash\":\"" + hash + "\"}");
+        }
+
+        private void transactionByHash(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            String hash = path.substring(path.lastIndexOf('/') + 1);
+            if (!committed.contains(hash)) {
+                respond(exchange, 404, "{\"error_code\":\"transaction_not_found\"}");
+            } else if (failTransactions) {
+                respond(exchange, 200, "{\"success\":false,\"vm_status\":\"Move abort: EABORTED\"}");
+            } else {
+                respond(exchange, 200, "{\"success\":true,\"vm_status\":\"Executed successfully\"}");
+            }
+        }
+
+        private void respond(HttpExchange exchange, int status, String json) throws IOException {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.workhub.api.service;
+
+import com.workhub.api.config.RedisConfig;
+import com.workhub.api.entity.EJobStatus;
+import com.workhub.api.entity.Job;
+import com.workhub.api.entity.User;
+import com.workhub.api.repository.DisputeRepository;
+import com.workhub.api.repository.DisputeRoundRepository;
+import com.workhub.api.repository.JobRepository;
+import com.workhub.api.repository.UserRepository;
+import com.workhub.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.GenericContainer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nhiều instance DeadlineScheduler trên cùng PostgreSQL và Redis thật (Testcontainers):
+ * - cụm bình thường: mỗi deadline chỉ được xử lý đúng một lần dù mọi instance cùng poll hàng đợi;
+ * - một instance chết giữa chừng: phần việc của nó được instance còn sống nhận lại, deadline vẫn chạy;
+ * - Redis sập: mọi instance cùng reconcile và xử lý thẳng, khóa dòng SKIP LOCKED chống trùng.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(JobSchedulerService.class)
+class DeadlineSchedulerFailoverTest extends PostgresIntegrationTest {
+
+    private static final int INSTANCES = 4;
+    private static final int OVERDUE_JOBS = 5;
+    private static final int UPCOMING_JOBS = 24;
+    // Đủ để node chết rơi khỏi scheduler:nodes (NODE_TTL 15s) hoặc mục của nó thành mồ côi (30s)
+    private static final Duration FAILOVER_TIMEOUT = Duration.ofSeconds(60);
+
+    @SuppressWarnings("resource")
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    static {
+        REDIS.start();
+    }
+
+    @Autowired
+    private JobSchedulerService jobSchedulerService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private DisputeRepository disputeRepository;
+
+    @Autowired
+    private DisputeRoundRepository disputeRoundRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private JobHistoryService jobHistoryService;
+
+    @MockBean
+    private DisputeService disputeService;
+
+    @MockBean
+    private BlockchainService blockchainService;
+
+    @MockBean
+    private JobSkillIndex jobSkillIndex;
+
+    private final List<Long> jobIds = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private User employer;
+
+    @BeforeEach
+    void setUp() {
+        employer = userRepository.save(User.builder()
+                .email("employer-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName("Employer")
+                .build());
+        for (int i = 0; i < OVERDUE_JOBS; i++) {
+            jobIds.add(jobRepository.save(Job.builder()
+                    .title("Job " + i)
+                    .description("Mô tả")
+                    .status(EJobStatus.OPEN)
+                    .applicationDeadline(LocalDateTime.now().minusMinutes(5))
+                    .employer(employer)
+                    .build()).getId());
+        }
+
+        // Giữ transaction xử lý mở lâu hơn để các instance thực sự chạy chồng lên nhau
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            return null;
+        }).when(notificationService).notifyJobExpired(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(Node::stop);
+        nodes.forEach(node -> node.connectionFactory.destroy());
+        jobRepository.deleteAllById(jobIds);
+        userRepository.delete(employer);
+    }
+
+    @Test
+    void queuedDeadlinesFireExactlyOnceAcrossLiveInstances() throws Exception {
+        for (int i = 0; i < INSTANCES; i++) {
+            nodes.add(startNode());
+        }
+        nodes.forEach(node -> node.cluster.heartbeat());
+        List<Long> upcoming = seedUpcomingJobs(nodes.get(0).scheduler, UPCOMING_JOBS);
+
+        awaitExpired(upcoming, Duration.ofSeconds(30));
+
+        assertFiredOnce(upcoming);
+    }
+
+    @Test
+    void deadlinesKeepFiringWhenAnInstanceDies() throws Exception {
+        for (int i = 0; i < INSTANCES; i++) {
+            nodes.add(startNode());
+        }
+        nodes.forEach(node -> node.cluster.heartbeat());
+
+        // Instance chết không kịp rời cụm (không gọi leave): các instance còn lại phải tự nhận phần của nó
+        Node dead = nodes.get(0);
+        dead.crash();
+        List<Long> upcoming = seedUpcomingJobs(nodes.get(1).scheduler, UPCOMING_JOBS);
+        while (upcoming.stream().noneMatch(dead.cluster::owns)) {
+            upcoming.addAll(seedUpcomingJobs(nodes.get(1).scheduler, 1));
+        }
+
+        awaitExpired(upcoming, FAILOVER_TIMEOUT);
+
+        assertFiredOnce(upcoming);
+    }
+
+    @Test
+    void overdueDeadlinesFireExactlyOnceAcrossInstancesWhenRedisIsDown() throws Exception {
+        List<DeadlineScheduler> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            instances.add(instanceWithRedisDown());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(INSTANCES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+        try {
+            for (DeadlineScheduler instance : instances) {
+                runs.add(pool.submit(() -> {
+                    start.await();
+                    instance.reconcile();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> run : runs) {
+                run.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(notificationService, times(OVERDUE_JOBS)).notifyJobExpired(any(), any());
+        for (Long id : jobIds) {
+            verify(notificationService, times(1)).notifyJobExpired(any(), argThat(job -> job.getId().equals(id)));
+            assertThat(jobRepository.findById(id).orElseThrow().getStatus()).isEqualTo(EJobStatus.EXPIRED);
+        }
+    }
+
+    // Deadline đến hạn sau 2 giây, được đăng ký vào hàng đợi Redis chung như khi job được lưu
+    private List<Long> seedUpcomingJobs(DeadlineScheduler scheduler, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Job job = jobRepository.save(Job.builder()
+                    .title("Upcoming " + i)
+                    .description("Mô tả")
+                    .status(EJobStatus.OPEN)
+                    .applicationDeadline(LocalDateTime.now().plusSeconds(2))
+                    .employer(employer)
+                    .build());
+            scheduler.armJob(job);
+            ids.add(job.getId());
+        }
+        jobIds.addAll(ids);
+        return ids;
+    }
+
+    private void awaitExpired(List<Long> ids, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (jobRepository.findAllById(ids).stream().allMatch(job -> job.getStatus() == EJobStatus.EXPIRED)) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+        throw new AssertionError("Deadlines did not fire within " + timeout);
+    }
+
+    private void assertFiredOnce(List<Long> ids) {
+        // Chờ thêm một nhịp poll để lần xử lý trùng (nếu có) kịp lộ ra
+        nodes.forEach(Node::pollOnce);
+        for (Long id : ids) {
+            verify(notificationService, times(1)).notifyJobExpired(any(), argThat(job -> job.getId().equals(id)));
+        }
+    }
+
+    private Node startNode() {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        RedisTemplate<String, Object> redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        if (nodes.isEmpty()) {
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                connection.serverCommands().flushAll();
+                return null;
+            });
+        }
+
+        SchedulerCluster cluster = new SchedulerCluster(stringRedisTemplate);
+        DeadlineScheduler scheduler = new DeadlineScheduler(redisTemplate, jobSchedulerService, jobRepository,
+                disputeRepository, disputeRoundRepository, new DistributedLockService(stringRedisTemplate), cluster);
+        Node node = new Node(connectionFactory, cluster, scheduler);
+        node.start();
+        return node;
+    }
+
+    /**
+     * Một instance: poll hàng đợi mỗi 100 ms và heartbeat mỗi giây như @Scheduled của ứng dụng (rút ngắn).
+     */
+    private static final class Node {
+
+        final LettuceConnectionFactory connectionFactory;
+        final SchedulerCluster cluster;
+        final DeadlineScheduler scheduler;
+        private final ScheduledExecutorService timers = Executors.newScheduledThreadPool(2);
+
+        Node(LettuceConnectionFactory connectionFactory, SchedulerCluster cluster, DeadlineScheduler scheduler) {
+            this.connectionFactory = connectionFactory;
+            this.cluster = cluster;
+            this.scheduler = scheduler;
+        }
+
+        void start() {
+            timers.scheduleWithFixedDelay(scheduler::pollDueDeadlines, 0, 100, TimeUnit.MILLISECONDS);
+            timers.scheduleWithFixedDelay(cluster::heartbeat, 1, 1, TimeUnit.SECONDS);
+        }
+
+        void pollOnce() {
+            if (!timers.isShutdown()) {
+                scheduler.pollDueDeadlines();
+            }
+        }
+
+        // Dừng đột ngột: không heartbeat, không poll, không rời cụm
+        void crash() {
+            timers.shutdownNow();
+        }
+
+        void stop() {
+            timers.shutdownNow();
+            scheduler.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DeadlineScheduler instanceWithRedisDown() {
+        RedisTemplate<String, Object> queueRedis = mock(RedisTemplate.class);
+        when(queueRedis.opsForZSet()).thenThrow(new RedisConnectionFailureException("Redis is down"));
+        StringRedisTemplate lockRedis = mock(StringRedisTemplate.class);
+        when(lockRedis.opsForValue()).thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        return new DeadlineScheduler(queueRedis, jobSchedulerService, jobRepository, disputeRepository,
+                disputeRoundRepository, new DistributedLockService(lockRedis), mock(SchedulerCluster.class));
+    }
+}
@@ -0,0 +1,338 @@
+package com.workhub.api.service;
+
+import com.workhub.api.controller.FileUploadController;
+import com.workhub.api.entity.EFileType;
+import com.workhub.api.entity.FileUpload;
+import com.workhub.api.entity.StoredBlob;
+import com.workhub.api.entity.User;
+import com.workhub.api.exception.GlobalExceptionHandler;
+import com.workhub.api.repository.FileUploadRepository;
+import com.workhub.api.repository.UserRepository;
+import com.workhub.api.security.UserDetailsImpl;
+import com.workhub.api.service.storage.StorageBackend;
+import com.workhub.api.service.storage.StorageBackends;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nhiều upload tài liệu đồng thời qua POST /api/files/document (MockMvc), với giới hạn đọc từ
+ * application.properties như production: file được stream (không gọi getBytes, không đọc cả file vào
+ * một mảng, mỗi lần đọc tối đa MAX_READ byte), số upload lên storage cùng lúc không vượt
+ * app.upload.max-concurrent, file vượt giới hạn bị từ chối trước khi đọc, và uploader chỉ được tra DB
+ * sau khi upload xong.
+ */
+class FileUploadServiceLoadTest {
+
+    private static final int UPLOADS = 40;
+    private static final int MAX_CONCURRENT = 8;
+    // Buffer của đường upload (hash + backend) là vài chục KB; đọc lớn hơn nghĩa là file bị gom vào heap
+    private static final int MAX_READ = 64 * 1024;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final FileBlobService fileBlobService = mock(FileBlobService.class);
+    private final StubBackend backend = new StubBackend();
+    private final UserDetailsImpl principal = UserDetailsImpl.builder()
+            .id(1L).email("uploader@test.local").fullName("Uploader").password("")
+            .emailVerified(true).enabled(true).authorities(List.of()).build();
+    private FileUploadService service;
+    private MockMvc mockMvc;
+    private long maxDocumentSize;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Properties production = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        maxDocumentSize = Long.parseLong(production.getProperty("app.upload.max-document-size"));
+        long maxMultipartFile = DataSize.parse(production.getProperty("spring.servlet.multipart.max-file-size")).toBytes();
+        // File lớn hơn max-document-size nhưng dưới giới hạn multipart vẫn tới được service và bị chặn ở đó
+        assertThat(maxDocumentSize).isLessThan(maxMultipartFile);
+
+        service = new FileUploadService(new StorageBackends(List.of(backend), StubBackend.NAME),
+                mock(FileUploadRepository.class), userRepository, fileBlobService);
+        ReflectionTestUtils.setField(service, "maxImageSize",
+                Long.parseLong(production.getProperty("app.upload.max-image-size")));
+        ReflectionTestUtils.setField(service, "maxDocumentSize", maxDocumentSize);
+        ReflectionTestUtils.setField(service, "allowedImageExtensions",
+                production.getProperty("app.upload.allowed-image-extensions"));
+        ReflectionTestUtils.setField(service, "allowedDocumentExtensions",
+                production.getProperty("app.upload.allowed-document-extensions"));
+        ReflectionTestUtils.setField(service, "maxConcurrentUploads", MAX_CONCURRENT);
+        service.init();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileUploadController(service))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        User uploader = User.builder().id(1L).email("uploader@test.local").fullName("Uploader").password("").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(uploader));
+        when(fileBlobService.reuse(anyString(), any(), anyString(), any())).thenReturn(Optional.empty());
+        when(fileBlobService.register(anyString(), any(), anyString(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            StorageBackend.StoredObject stored = invocation.getArgument(3);
+            Function<StoredBlob, FileUpload> rowFactory = invocation.getArgument(5);
+            return Optional.of(rowFactory.apply(StoredBlob.builder()
+                    .storageBackend(StubBackend.NAME)
+                    .fileType(invocation.getArgument(1))
+                    .contentHash(invocation.getArgument(2))
+                    .storageKey(stored.key())
+                    .url(stored.url())
+                    .secureUrl(stored.secureUrl())
+                    .sizeBytes(stored.sizeBytes())
+                    .build()));
+        });
+    }
+
+    @Test
+    void concurrentDocumentUploadsStreamWithinSlotBound() throws Exception {
+        List<GeneratedFile> files = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            files.add(new GeneratedFile("report-" + i + ".pdf", maxDocumentSize, i));
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(UPLOADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (GeneratedFile file : files) {
+                Callable<Object> request = () -> {
+                    start.await();
+                    return upload(file)
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.data.sizeBytes").value(maxDocumentSize));
+                };
+                requests.add(clients.submit(request));
+            }
+            start.countDown();
+            for (Future<?> request : requests) {
+                request.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertThat(backend.stored.get()).isEqualTo(UPLOADS);
+        assertThat(backend.bytes.get()).isEqualTo(UPLOADS * maxDocumentSize);
+        assertThat(backend.maxInFlight.get()).isLessThanOrEqualTo(MAX_CONCURRENT);
+        for (GeneratedFile file : files) {
+            assertThat(file.getBytesCalls.get()).as("getBytes on %s", file.getOriginalFilename()).isZero();
+            assertThat(file.bulkReads.get()).as("readAllBytes/readNBytes on %s", file.getOriginalFilename()).isZero();
+            assertThat(file.largestRead.get()).as("largest read on %s", file.getOriginalFilename())
+                    .isPositive()
+                    .isLessThanOrEqualTo(MAX_READ);
+            // Một lượt đọc để hash, một lượt để backend ghi
+            assertThat(file.bytesRead.get()).isEqualTo(2 * maxDocumentSize);
+        }
+    }
+
+    @Test
+    void documentOverTheLimitIsRejectedBeforeReading() throws Exception {
+        GeneratedFile file = new GeneratedFile("too-large.pdf", maxDocumentSize + 1, 1);
+
+        upload(file).andExpect(status().isBadRequest());
+
+        assertThat(file.openedStreams.get()).isZero();
+        assertThat(file.getBytesCalls.get()).isZero();
+        assertThat(backend.stored.get()).isZero();
+    }
+
+    @Test
+    void uploaderIsLoadedOnlyAfterStorageUpload() throws Exception {
+        AtomicBoolean lookedUpBeforeStore = new AtomicBoolean();
+        backend.onStore = () -> lookedUpBeforeStore.set(
+                !Mockito.mockingDetails(userRepository).getInvocations().isEmpty());
+
+        upload(new GeneratedFile("contract.pdf", 1024 * 1024, 7))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.uploaderId").value(1));
+
+        assertThat(lookedUpBeforeStore).isFalse();
+    }
+
+    // @AuthenticationPrincipal đọc SecurityContextHolder của thread đang gọi. File gắn thẳng vào request
+    // (không qua builder.file(), vốn có thể sao nội dung ra MockPart) để mọi lần đọc đều từ đường upload
+    private ResultActions upload(GeneratedFile file) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        try {
+            return mockMvc.perform(multipart("/api/files/document")
+                    .param("usage", "WORK_SUBMISSION")
+                    .with(request -> {
+                        ((MockMultipartHttpServletRequest) request).addFile(file);
+                        return request;
+                    }));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Backend giả: đọc hết stream theo từng khối nhỏ như khi gửi qua mạng, không giữ dữ liệu.
+     */
+    private static class StubBackend implements StorageBackend {
+
+        static final String NAME = "stub";
+
+        final AtomicInteger stored = new AtomicInteger();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile Runnable onStore = () -> { };
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public StoredObject store(InputStream content, StoreRequest request) throws IOException {
+            onStore.run();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                byte[] buffer = new byte[64 * 1024];
+                long total = 0;
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    total += read;
+                }
+                bytes.addAndGet(total);
+                String key = request.folder() + "/" + stored.incrementAndGet();
+                return new StoredObject(key, "stub://" + key, "stub://" + key, "pdf", total,
+                        null, null, null, null);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void delete(String key, EFileType fileType) {
+        }
+
+        @Override
+        public String publicUrl(FileUpload file) {
+            return "stub://" + file.getPublicId();
+        }
+    }
+
+    /**
+     * File multipart sinh nội dung khi đọc (mỗi seed một nội dung khác nhau), không có mảng byte nào giữ cả file;
+     * ghi lại cách đường upload đọc nó.
+     */
+    private static class GeneratedFile extends MockMultipartFile {
+
+        private final long size;
+        private final int seed;
+        final AtomicInteger getBytesCalls = new AtomicInteger();
+        final AtomicInteger openedStreams = new AtomicInteger();
+        final AtomicInteger bulkReads = new AtomicInteger();
+        final AtomicInteger largestRead = new AtomicInteger();
+        final AtomicLong bytesRead = new AtomicLong();
+
+        GeneratedFile(String filename, long size, int seed) {
+            super("file", filename, "application/pdf", new byte[0]);
+            this.size = size;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            getBytesCalls.incrementAndGet();
+            throw new UnsupportedOperationException("Upload path must stream the file");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            openedStreams.incrementAndGet();
+            return new InputStream() {
+                private long position;
+
+                @Override
+                public int read() {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    largestRead.accumulateAndGet(length, Math::max);
+                    if (position >= size) {
+                        return -1;
+                    }
+                    int count = (int) Math.min(length, size - position);
+                    for (int i = 0; i < count; i++) {
+                        buffer[offset + i] = (byte) ((position + i) * 31 + seed);
+                    }
+                    position += count;
+                    bytesRead.addAndGet(count);
+                    return count;
+                }
+
+                @Override
+                public byte[] readAllBytes() {
+                    bulkReads.incrementAndGet();
+                    throw new UnsupportedOperationException("Upload path must stream the file");
+                }
+
+                @Override
+                public byte[] readNBytes(int length) {
+                    bulkReads.incrementAndGet();
+                    throw new UnsupportedOperationException("Upload path must stream the file");
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
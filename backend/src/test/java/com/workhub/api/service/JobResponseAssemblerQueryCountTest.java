@@ -0,0 +1,122 @@
+package com.workhub.api.service;
+
+import com.workhub.api.entity.EApplicationStatus;
+import com.workhub.api.entity.Job;
+import com.workhub.api.entity.JobApplication;
+import com.workhub.api.entity.User;
+import com.workhub.api.repository.JobRepository;
+import com.workhub.api.support.PostgresIntegrationTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Số câu SQL khi dựng một trang JobResponse không được tăng theo số job trong trang (không N+1).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JobResponseAssembler.class)
+class JobResponseAssemblerQueryCountTest extends PostgresIntegrationTest {
+
+    // jobs, skill của job, employer (+ skill/role), đơn được chấp nhận kèm freelancer (+ skill/role)
+    private static final long MAX_STATEMENTS_PER_PAGE = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobResponseAssembler assembler;
+
+    @MockBean
+    private JobViewCounter jobViewCounter;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void statementCountIsIndependentOfPageSize() {
+        long smallPage = statementsToAssemble(seedJobs(3));
+        long largePage = statementsToAssemble(seedJobs(40));
+
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(largePage).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void singleJobUsesSamePathAsPage() {
+        List<Long> ids = seedJobs(1);
+        entityManager.clear();
+        Job job = jobRepository.findById(ids.get(0)).orElseThrow();
+        statistics.clear();
+
+        assertThat(assembler.toResponse(job).getFreelancer()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    private long statementsToAssemble(List<Long> jobIds) {
+        entityManager.clear();
+        statistics.clear();
+        List<Job> jobs = jobRepository.findAllById(jobIds);
+        assertThat(assembler.toResponses(jobs)).hasSize(jobIds.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Mỗi job một employer riêng; job chẵn có đơn ACCEPTED của một freelancer riêng
+    private List<Long> seedJobs(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User employer = entityManager.persist(user("employer"));
+            Job job = entityManager.persist(Job.builder()
+                    .title("Job " + i)
+                    .description("Mô tả")
+                    .skills(new HashSet<>(Set.of("java", "spring")))
+                    .employer(employer)
+                    .build());
+            if (i % 2 == 0) {
+                User freelancer = entityManager.persist(user("freelancer"));
+                entityManager.persist(JobApplication.builder()
+                        .job(job)
+                        .freelancer(freelancer)
+                        .status(EApplicationStatus.ACCEPTED)
+                        .build());
+            }
+            ids.add(job.getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private User user(String prefix) {
+        return User.builder()
+                .email(prefix + "-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName(prefix)
+                .emailVerified(true)
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.workhub.api.service;
+
+import com.workhub.api.entity.ENotificationType;
+import com.workhub.api.entity.User;
+import com.workhub.api.security.UserPrincipalCache;
+import com.workhub.api.support.PostgresIntegrationTest;
+import com.workhub.api.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Số câu lệnh gửi xuống DB khi fan-out thông báo tăng theo số batch, không theo số người nhận,
+ * và outbox vẫn nhận id theo đúng thứ tự insert.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({NotificationService.class, OutboxService.class, StatementCounter.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class NotificationFanOutStatementCountTest extends PostgresIntegrationTest {
+
+    // hibernate.jdbc.batch_size và allocationSize của notifications_seq
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private NotificationUnreadCounter unreadCounter;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    @Test
+    void statementsGrowWithBatchesNotRecipients() {
+        long few = statementsToNotify(seedUsers(10));
+        long many = statementsToNotify(seedUsers(200));
+
+        // Mỗi batch notifications: một nextval + một INSERT nhiều dòng; outbox: một INSERT cho cả lượt
+        assertThat(few).isLessThanOrEqualTo(maxStatements(10));
+        assertThat(many).isLessThanOrEqualTo(maxStatements(200));
+        assertThat(many).isLessThan(200);
+    }
+
+    @Test
+    void perRecipientBaselineExceedsTheBatchedBound() {
+        List<User> users = seedUsers(200);
+        long batched = statementsToNotify(users);
+
+        // Cách cũ: mỗi người nhận một lượt ghi riêng (flush sau từng người như transaction riêng)
+        statementCounter.reset();
+        for (User user : users) {
+            notificationService.notifyMany(List.of(user), ENotificationType.APPLICATION_REJECTED,
+                    "Đơn ứng tuyển bị từ chối", "Đơn ứng tuyển của bạn đã bị từ chối.", 1L, "JOB");
+            entityManager.flush();
+        }
+        long perRecipient = statementCounter.count();
+
+        // Bound chỉ có ý nghĩa nếu cách cũ vượt nó: ít nhất một notification + một outbox mỗi người
+        assertThat(perRecipient).isGreaterThanOrEqualTo(2L * users.size());
+        assertThat(perRecipient).isGreaterThan(maxStatements(users.size()));
+        assertThat(batched).isLessThanOrEqualTo(maxStatements(users.size()));
+    }
+
+    @Test
+    void outboxIdsFollowRecipientOrder() {
+        List<User> users = seedUsers(120);
+        notificationService.notifyMany(users, ENotificationType.APPLICATION_REJECTED,
+                "Tiêu đề", "Nội dung", 1L, "JOB");
+        entityManager.flush();
+
+        List<String> recipients = jdbcTemplate.queryForList(
+                "SELECT recipient FROM outbox_events WHERE recipient LIKE 'notifications:%' ORDER BY id",
+                String.class);
+        assertThat(recipients).containsSubsequence(users.stream()
+                .map(user -> "notifications:" + user.getId())
+                .toList());
+    }
+
+    private long statementsToNotify(List<User> users) {
+        statementCounter.reset();
+        notificationService.notifyMany(users, ENotificationType.APPLICATION_REJECTED,
+                "Đơn ứng tuyển bị từ chối", "Đơn ứng tuyển của bạn đã bị từ chối.", 1L, "JOB");
+        entityManager.flush();
+        return statementCounter.count();
+    }
+
+    private long maxStatements(int recipients) {
+        long batches = (recipients + BATCH_SIZE - 1) / BATCH_SIZE;
+        // +1 nextval khởi tạo của pooled optimizer
+        return batches * 2 + 2;
+    }
+
+    private List<User> seedUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(entityManager.persist(User.builder()
+                    .email("user-" + UUID.randomUUID() + "@test.local")
+                    .password("")
+                    .fullName("user " + i)
+                    .emailVerified(true)
+                    .enabled(true)
+                    .build()));
+        }
+        entityManager.flush();
+        return users;
+    }
+}
@@ -0,0 +1,124 @@
+package com.workhub.api.service;
+
+import com.workhub.api.dto.response.CursorPageResponse;
+import com.workhub.api.dto.response.NotificationResponse;
+import com.workhub.api.entity.EJobStatus;
+import com.workhub.api.entity.Job;
+import com.workhub.api.entity.User;
+import com.workhub.api.security.UserPrincipalCache;
+import com.workhub.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feed thông báo theo cursor khi một thông báo được gộp (có người ứng tuyển thêm) giữa hai lần lấy trang:
+ * mọi thông báo xuất hiện đúng một lần, đúng thứ tự tạo, và lần gộp được trả riêng qua getMergedSince.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({NotificationService.class, OutboxService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class NotificationFeedMergeTest extends PostgresIntegrationTest {
+
+    private static final int JOBS = 30;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @MockBean
+    private NotificationUnreadCounter unreadCounter;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    private User employer;
+    // Thứ tự tạo: jobs.get(0) cũ nhất
+    private final List<Job> jobs = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        employer = entityManager.persist(user("employer"));
+        for (int i = 0; i < JOBS; i++) {
+            Job job = entityManager.persist(Job.builder()
+                    .title("Job " + i)
+                    .description("Mô tả")
+                    .status(EJobStatus.OPEN)
+                    .employer(employer)
+                    .build());
+            jobs.add(job);
+            notificationService.notifyNewApplication(employer, job, entityManager.persist(user("freelancer")));
+            entityManager.flush();
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void mergeBetweenPageFetchesNeitherSkipsNorRepeatsRows() {
+        LocalDateTime firstFetchAt = LocalDateTime.now();
+        CursorPageResponse<NotificationResponse> first = feed(null);
+
+        // Thông báo của job cũ nhất (trang cuối, chưa tải) và của một job trên trang đầu đều được gộp
+        mergeApplication(jobs.get(0));
+        mergeApplication(jobs.get(JOBS - 2));
+
+        List<NotificationResponse> all = new ArrayList<>(first.getContent());
+        CursorPageResponse<NotificationResponse> page = first;
+        while (page.isHasNext()) {
+            page = feed(page.getNextCursor());
+            all.addAll(page.getContent());
+        }
+
+        List<Long> newestFirst = new ArrayList<>(jobs.stream().map(Job::getId).toList());
+        Collections.reverse(newestFirst);
+        assertThat(all).extracting(NotificationResponse::getReferenceId).containsExactlyElementsOf(newestFirst);
+
+        List<NotificationResponse> merged = notificationService.getMergedSince(employer.getId(), firstFetchAt).getData();
+        assertThat(merged).extracting(NotificationResponse::getReferenceId)
+                .containsExactly(jobs.get(JOBS - 2).getId(), jobs.get(0).getId());
+        assertThat(merged).allSatisfy(notification -> assertThat(notification.getAggregateCount()).isEqualTo(2));
+    }
+
+    private CursorPageResponse<NotificationResponse> feed(String cursor) {
+        return notificationService.getNotificationsFeed(employer.getId(), cursor, PAGE_SIZE).getData();
+    }
+
+    private void mergeApplication(Job job) {
+        notificationService.notifyNewApplication(employer, job, entityManager.persist(user("freelancer")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private User user(String name) {
+        return User.builder()
+                .email(name + "-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName(name)
+                .emailVerified(true)
+                .enabled(true)
+                .build();
+    }
+}
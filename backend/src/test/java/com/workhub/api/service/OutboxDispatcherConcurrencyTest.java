@@ -0,0 +1,141 @@
+package com.workhub.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workhub.api.entity.EOutboxEventType;
+import com.workhub.api.entity.OutboxEvent;
+import com.workhub.api.repository.OutboxEventRepository;
+import com.workhub.api.support.PostgresIntegrationTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nhiều OutboxDispatcher cùng drain một bảng outbox khi Redis không dùng được (mọi instance đều chạy):
+ * khóa dòng SKIP LOCKED đảm bảo mỗi event chỉ gửi một lần và event cùng recipient đi đúng thứ tự id.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatcherConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int INSTANCES = 4;
+    private static final int RECIPIENTS = 8;
+    private static final int EVENTS_PER_RECIPIENT = 60;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // (user, seq) theo đúng thứ tự được gửi, từ mọi instance
+    private final List<String[]> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void everyEventIsSentOnceAndInRecipientOrderWithoutRedis() throws Exception {
+        seedEvents();
+        List<OutboxDispatcher> dispatchers = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            dispatchers.add(dispatcherWithRedisDown());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(INSTANCES);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (outboxEventRepository.count() > 0 && System.nanoTime() < deadline) {
+                List<Future<?>> ticks = new ArrayList<>();
+                for (OutboxDispatcher dispatcher : dispatchers) {
+                    ticks.add(pool.submit(dispatcher::dispatchRealtime));
+                }
+                for (Future<?> tick : ticks) {
+                    tick.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(delivered).hasSize(RECIPIENTS * EVENTS_PER_RECIPIENT);
+
+        Map<String, Integer> lastSeq = new HashMap<>();
+        synchronized (delivered) {
+            for (String[] frame : delivered) {
+                int seq = Integer.parseInt(frame[1]);
+                Integer previous = lastSeq.put(frame[0], seq);
+                assertThat(seq).as("order for %s", frame[0]).isEqualTo(previous == null ? 0 : previous + 1);
+            }
+        }
+    }
+
+    // Xen kẽ recipient để mỗi lô chứa event của mọi recipient
+    private void seedEvents() {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int seq = 0; seq < EVENTS_PER_RECIPIENT; seq++) {
+            for (int r = 0; r < RECIPIENTS; r++) {
+                String user = "user-" + r;
+                events.add(OutboxEvent.builder()
+                        .type(EOutboxEventType.STOMP)
+                        .recipient(user)
+                        .payload("{\"user\":\"" + user + "\",\"destination\":\"/queue/test\",\"body\":{\"seq\":" + seq + "}}")
+                        .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                        .build());
+            }
+        }
+        // IDENTITY: saveAll ghi lần lượt, id theo đúng thứ tự trên
+        outboxEventRepository.saveAll(events);
+    }
+
+    private OutboxDispatcher dispatcherWithRedisDown() {
+        OutboxService outboxService = mock(OutboxService.class);
+        when(outboxService.takeWakeUp(anyCollection())).thenReturn(true);
+        DistributedLockService lockService = mock(DistributedLockService.class);
+        when(lockService.tryRunWithLock(anyString(), any(), any())).thenReturn(DistributedLockService.Outcome.UNAVAILABLE);
+
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            JsonNode body = invocation.getArgument(2);
+            delivered.add(new String[]{invocation.getArgument(0), body.path("seq").asText()});
+            // Giữ lô lâu hơn để các instance thực sự chạy chồng lên nhau
+            Thread.sleep(1);
+            return null;
+        }).when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+
+        return new OutboxDispatcher(outboxEventRepository, outboxService, lockService, messagingTemplate,
+                mock(NotificationService.class), mock(EmailService.class), mock(OtpService.class),
+                objectMapper, new SimpleMeterRegistry(), transactionManager);
+    }
+}
@@ -0,0 +1,275 @@
+package com.workhub.api.service;
+
+import com.workhub.api.WorkHubApplication;
+import com.workhub.api.entity.User;
+import com.workhub.api.repository.UserRepository;
+import com.workhub.api.security.jwt.JwtUtils;
+import com.workhub.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import org.testcontainers.containers.GenericContainer;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hai application context đầy đủ (hai "instance") dùng chung một PostgreSQL và một Redis (Testcontainers),
+ * client kết nối STOMP thật qua SockJS:
+ * - message server gửi tới user trên instance này tới được session đang mở ở instance kia (RedisBrokerRelay);
+ * - trạng thái online thấy được từ cả hai instance, user chỉ offline khi session cuối cùng trong cụm đóng;
+ * - nhiều session mở / đóng cùng lúc trên hai instance: đúng một lần "vừa online" và một lần "vừa offline".
+ */
+class PresenceClusterTest extends PostgresIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int RACE_USERS = 20;
+    private static final int SESSIONS_PER_NODE = 4;
+
+    @SuppressWarnings("resource")
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    static {
+        REDIS.start();
+    }
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static WebSocketStompClient stompClient;
+
+    @BeforeAll
+    static void startNodes() {
+        // Khởi động lần lượt: instance đầu tạo schema, instance sau chỉ thấy schema đã có
+        nodeA = startNode();
+        nodeB = startNode();
+        stompClient = new WebSocketStompClient(new SockJsClient(
+                List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void userMessageSentFromOneNodeReachesSessionOnTheOther() throws Exception {
+        User user = createUser();
+        StompSession session = connect(nodeA, user);
+        BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        session.subscribe("/user/queue/notifications", collectInto(received));
+
+        // SUBSCRIBE xử lý bất đồng bộ trên server: gửi lại tới khi session nhận được frame đầu tiên
+        SimpMessagingTemplate templateOnB = nodeB.getBean(SimpMessagingTemplate.class);
+        Map<String, Object> frame = null;
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (frame == null && System.nanoTime() < deadline) {
+            templateOnB.convertAndSendToUser(user.getEmail(), "/queue/notifications", Map.of("id", 42, "origin", "B"));
+            frame = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(frame).isNotNull();
+        assertThat(frame).containsEntry("id", 42).containsEntry("origin", "B");
+        session.disconnect();
+    }
+
+    @Test
+    void userStaysOnlineUntilTheLastSessionInTheClusterCloses() throws Exception {
+        User user = createUser();
+        OnlineStatusService statusOnA = nodeA.getBean(OnlineStatusService.class);
+        OnlineStatusService statusOnB = nodeB.getBean(OnlineStatusService.class);
+        assertThat(statusOnB.isUserOnline(user.getId())).isFalse();
+
+        StompSession tabOnA = connect(nodeA, user);
+        awaitTrue(() -> statusOnB.isUserOnline(user.getId()));
+        StompSession tabOnB = connect(nodeB, user);
+        awaitTrue(() -> hasLocalSession(nodeB, user));
+
+        tabOnA.disconnect();
+        awaitTrue(() -> !hasLocalSession(nodeA, user));
+        assertThat(statusOnA.isUserOnline(user.getId())).isTrue();
+        assertThat(statusOnB.isUserOnline(user.getId())).isTrue();
+
+        tabOnB.disconnect();
+        awaitTrue(() -> !statusOnA.isUserOnline(user.getId()));
+        assertThat(statusOnB.isUserOnline(user.getId())).isFalse();
+        assertThat(statusOnA.getLastActiveAt(user.getId())).isNotNull();
+    }
+
+    @Test
+    void concurrentSessionsOnBothNodesReportOneTransitionEachWay() throws Exception {
+        PresenceStore storeA = nodeA.getBean(PresenceStore.class);
+        PresenceStore storeB = nodeB.getBean(PresenceStore.class);
+        ExecutorService pool = Executors.newFixedThreadPool(2 * SESSIONS_PER_NODE);
+        try {
+            for (int i = 0; i < RACE_USERS; i++) {
+                long userId = 1_000_000L + i;
+                List<String> sessions = new ArrayList<>();
+                for (int s = 0; s < SESSIONS_PER_NODE; s++) {
+                    sessions.add(UUID.randomUUID().toString());
+                }
+
+                long cameOnline = race(pool, sessions, storeA, storeB, (store, session) -> store.addSession(userId, session));
+                assertThat(cameOnline).as("online transitions for user %d", userId).isEqualTo(1);
+                assertThat(storeB.isOnline(userId)).isTrue();
+
+                long wentOffline = race(pool, sessions, storeA, storeB, (store, session) -> store.removeSession(userId, session));
+                assertThat(wentOffline).as("offline transitions for user %d", userId).isEqualTo(1);
+                assertThat(storeA.isOnline(userId)).isFalse();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface SessionCall {
+        boolean apply(PresenceStore store, String sessionId);
+    }
+
+    // Mỗi session id chạy trên cả hai node (session "s" của node A và node B là hai member khác nhau)
+    private long race(ExecutorService pool, List<String> sessions, PresenceStore storeA, PresenceStore storeB,
+                      SessionCall call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (String session : sessions) {
+            for (PresenceStore store : List.of(storeA, storeB)) {
+                Callable<Boolean> task = () -> {
+                    start.await();
+                    return call.apply(store, session);
+                };
+                results.add(pool.submit(task));
+            }
+        }
+        start.countDown();
+        long transitions = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                transitions++;
+            }
+        }
+        return transitions;
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", POSTGRES.getJdbcUrl());
+        properties.put("spring.datasource.username", POSTGRES.getUsername());
+        properties.put("spring.datasource.password", POSTGRES.getPassword());
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.data.redis.host", REDIS.getHost());
+        properties.put("spring.data.redis.port", REDIS.getMappedPort(6379));
+        properties.put("app.websocket.broker-mode", "redis");
+        properties.put("app.jwt.secret", Base64.getEncoder().encodeToString(
+                "presence-cluster-test-secret-0123456789abcdef".getBytes()));
+        properties.put("app.jwt.expiration", 3_600_000);
+        properties.put("app.jwt.refresh-expiration", 86_400_000);
+        properties.put("app.otp.expiration", 300_000);
+        properties.put("app.otp.max-attempts", 5);
+        properties.put("app.otp.resend-cooldown", 60_000);
+        properties.put("spring.mail.username", "test@test.local");
+        properties.put("spring.mail.password", "unused");
+        properties.put("app.admin.email", "admin@test.local");
+        properties.put("app.admin.password", "admin-password");
+        properties.put("app.admin.full-name", "Admin");
+        properties.put("app.rate-limit.register.capacity", 100);
+        properties.put("app.rate-limit.register.refill-duration", 60);
+        properties.put("app.rate-limit.login.capacity", 100);
+        properties.put("app.rate-limit.login.refill-duration", 60);
+        properties.put("app.cors.allowed-origins", "http://localhost:3000");
+        properties.put("app.google.client-id", "unused");
+        properties.put("app.google.client-secret", "unused");
+        properties.put("cloudinary.cloud-name", "unused");
+        properties.put("cloudinary.api-key", "unused");
+        properties.put("cloudinary.api-secret", "unused");
+        properties.put("aptos.admin.private-key", "");
+        return new SpringApplicationBuilder(WorkHubApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    private User createUser() {
+        return nodeA.getBean(UserRepository.class).save(User.builder()
+                .email("presence-" + UUID.randomUUID() + "@test.local")
+                .password("")
+                .fullName("Presence")
+                .emailVerified(true)
+                .enabled(true)
+                .build());
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node, User user) throws Exception {
+        String token = node.getBean(JwtUtils.class).generateTokenFromEmail(user.getEmail(), user.getId(), "ROLE_USER");
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        return stompClient.connectAsync("http://127.0.0.1:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {
+                }).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static StompFrameHandler collectInto(BlockingQueue<Map<String, Object>> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<String, Object>) payload);
+            }
+        };
+    }
+
+    // User còn session STOMP mở trên instance này không (registry cập nhật theo SessionConnected/DisconnectEvent)
+    private static boolean hasLocalSession(ConfigurableApplicationContext node, User user) {
+        return node.getBean(SimpUserRegistry.class).getUser(user.getEmail()) != null;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within %s", TIMEOUT).isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.workhub.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Redis lỗi hoặc trả kết quả lạ: RateLimiter chuyển sang GCRA trên bộ nhớ, vẫn chặn đúng limit cho từng key.
+ */
+class RateLimiterFallbackTest {
+
+    private static final int LIMIT = 5;
+    private static final long WINDOW_SECONDS = 60;
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(stringRedisTemplate, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisErrorFallsBackToLocalLimit() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertLimitEnforced("user:1");
+        // Key khác có bucket riêng
+        assertThat(rateLimiter.tryAcquire("api-write", "user:2", LIMIT, WINDOW_SECONDS).allowed()).isTrue();
+        assertThat(meterRegistry.find("workhub.ratelimit.rejections").tag("tier", "fallback").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shortReplyFallsBackToLocalLimit() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L));
+
+        assertLimitEnforced("user:3");
+    }
+
+    private void assertLimitEnforced(String subject) {
+        for (int i = 0; i < LIMIT; i++) {
+            RateLimiter.Result result = rateLimiter.tryAcquire("api-write", subject, LIMIT, WINDOW_SECONDS);
+            assertThat(result.allowed()).as("request %d", i + 1).isTrue();
+            assertThat(result.remaining()).isEqualTo(LIMIT - 1 - i);
+        }
+
+        RateLimiter.Result rejected = rateLimiter.tryAcquire("api-write", subject, LIMIT, WINDOW_SECONDS);
+        assertThat(rejected.allowed()).isFalse();
+        // Một request được trả lại sau WINDOW_SECONDS / LIMIT giây
+        assertThat(rejected.retryAfterSeconds()).isBetween(1L, WINDOW_SECONDS / LIMIT);
+    }
+}
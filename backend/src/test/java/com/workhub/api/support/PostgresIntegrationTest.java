@@ -0,0 +1,18 @@
+package com.workhub.api.support;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Base cho test cần PostgreSQL thật (query native, partition, ON CONFLICT...).
+ * Một container dùng chung cho mọi test class để Spring tái sử dụng context.
+ */
+public abstract class PostgresIntegrationTest {
+
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+}
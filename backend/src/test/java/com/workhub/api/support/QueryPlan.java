@@ -0,0 +1,77 @@
+package com.workhub.api.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Kết quả EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) của một câu SQL.
+ * Test kế hoạch truy vấn so sánh số dòng bị lọc bỏ và số block đọc thay vì thời gian để không phụ thuộc tốc độ máy.
+ */
+public final class QueryPlan {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final JsonNode root;
+
+    private QueryPlan(JsonNode root) {
+        this.root = root;
+    }
+
+    public static QueryPlan explain(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, String.class, args);
+        try {
+            return new QueryPlan(OBJECT_MAPPER.readTree(json).get(0).get("Plan"));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot parse plan: " + json, e);
+        }
+    }
+
+    public List<String> nodeTypes() {
+        return collect("Node Type");
+    }
+
+    public List<String> indexNames() {
+        return collect("Index Name");
+    }
+
+    public List<String> indexConditions() {
+        return collect("Index Cond");
+    }
+
+    // Dòng đã đọc rồi mới bị loại (Filter, Join Filter, Index Recheck): phần việc index không gánh được
+    public long rowsRemoved() {
+        long[] total = {0};
+        visit(root, node -> total[0] += node.path("Rows Removed by Filter").asLong()
+                + node.path("Rows Removed by Join Filter").asLong()
+                + node.path("Rows Removed by Index Recheck").asLong());
+        return total[0];
+    }
+
+    // Node gốc đã cộng dồn block của các node con
+    public long sharedBlocks() {
+        return root.path("Shared Hit Blocks").asLong() + root.path("Shared Read Blocks").asLong();
+    }
+
+    private List<String> collect(String field) {
+        List<String> values = new ArrayList<>();
+        visit(root, node -> {
+            if (node.has(field)) {
+                values.add(node.get(field).asText());
+            }
+        });
+        return values;
+    }
+
+    private static void visit(JsonNode node, Consumer<JsonNode> visitor) {
+        visitor.accept(node);
+        for (JsonNode child : node.path("Plans")) {
+            visit(child, visitor);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.workhub.api.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đếm số lần gửi câu lệnh xuống DB (execute*, executeBatch tính một lần), gồm cả Hibernate lẫn JdbcTemplate,
+ * và giữ lại SQL của từng lần. Bọc DataSource của context; dùng bằng @Import(StatementCounter.class).
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private final AtomicLong executed = new AtomicLong();
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    public long count() {
+        return executed.get();
+    }
+
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public void reset() {
+        executed.set(0);
+        statements.clear();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countStatements(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countStatements(super.getConnection(username, password));
+        }
+    }
+
+    private Connection countStatements(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                        // prepareStatement/prepareCall nhận SQL ngay; createStatement nhận SQL lúc execute
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return countExecutions(statement, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object countExecutions(Statement statement, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        executed.incrementAndGet();
+                        statements.add(args != null && args.length > 0 && args[0] instanceof String sql
+                                ? sql : String.valueOf(preparedSql));
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -11,6 +11,10 @@ import {
   DropdownMenuTrigger,
 } from "@/components/ui/dropdown-menu";
 import { Skeleton } from "@/components/ui/skeleton";
+import { NotificationEvent, useNotificationSocket } from "@/hooks/useNotificationSocket";
+
+// Same size as the list returned by GET /api/notifications
+const MAX_NOTIFICATIONS = 20;
 
 export default function NotificationDropdown() {
   const [notifications, setNotifications] = useState<Notification[]>([]);
@@ -40,11 +44,35 @@ export default function NotificationDropdown() {
 
   useEffect(() => {
     fetchNotifications();
-    // Poll every 30 seconds
-    const interval = setInterval(fetchNotifications, 30000);
-    return () => clearInterval(interval);
   }, [fetchNotifications]);
 
+  // Live updates replace polling; each (re)connect refetches to cover frames missed while offline
+  const handleNotificationEvent = useCallback((event: NotificationEvent) => {
+    setUnreadCount(event.unreadCount);
+    switch (event.event) {
+      case "CREATED":
+      case "UPDATED": {
+        const incoming = event.notification;
+        if (incoming) {
+          setNotifications((prev) =>
+            [incoming, ...prev.filter((n) => n.id !== incoming.id)].slice(0, MAX_NOTIFICATIONS)
+          );
+        }
+        break;
+      }
+      case "READ":
+        setNotifications((prev) =>
+          prev.map((n) => (n.id === event.notificationId ? { ...n, isRead: true } : n))
+        );
+        break;
+      case "READ_ALL":
+        setNotifications((prev) => prev.map((n) => ({ ...n, isRead: true })));
+        break;
+    }
+  }, []);
+
+  useNotificationSocket({ onEvent: handleNotificationEvent, onConnect: fetchNotifications });
+
   const handleMarkAsRead = async (id: number) => {
     try {
       await api.markNotificationAsRead(id);
@@ -128,7 +156,7 @@ export default function NotificationDropdown() {
                     </p>
                   )}
                   <p className="text-[10px] text-gray-400 mt-1">
-                    {formatDateTime(notification.createdAt)}
+                    {formatDateTime(notification.lastAggregatedAt ?? notification.createdAt)}
                   </p>
                 </div>
 
@@ -48,7 +48,7 @@ export default function MessageBubble({
   const renderImageMessage = () => {
     if (!message.file) return null;
     
-    const { secureUrl, width, height, originalFilename } = message.file;
+    const { secureUrl, thumbnailUrl, mediumUrl, width, height, originalFilename } = message.file;
     const aspectRatio = width && height ? width / height : 1;
     const maxWidth = 280;
     const maxHeight = 320;
@@ -83,7 +83,7 @@ export default function MessageBubble({
         </button>
         <div className="relative max-w-[90vw] max-h-[90vh]">
           <Image
-            src={secureUrl}
+            src={mediumUrl || secureUrl}
             alt={originalFilename}
             width={width || 800}
             height={height || 600}
@@ -104,7 +104,7 @@ export default function MessageBubble({
           onClick={() => setShowFullImage(true)}
         >
           <Image
-            src={secureUrl}
+            src={thumbnailUrl || secureUrl}
             alt={originalFilename}
             fill
             className="object-cover"
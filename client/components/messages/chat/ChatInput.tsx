@@ -22,7 +22,7 @@ interface ChatInputProps {
   blockedByMe?: boolean;
 }
 
-const MAX_IMAGE_SIZE = 200 * 1024;
+const MAX_IMAGE_SIZE = 5 * 1024 * 1024;
 const MAX_FILE_SIZE = 5 * 1024 * 1024;
 const ALLOWED_IMAGE_TYPES = ["image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"];
 const ALLOWED_FILE_TYPES = ["application/pdf"];
@@ -88,7 +88,7 @@ const ChatInput = forwardRef<HTMLInputElement, ChatInputProps>(({
           return;
         }
         if (file.size > MAX_IMAGE_SIZE) {
-          setUploadError("Ảnh không được vượt quá 200KB");
+          setUploadError("Ảnh không được vượt quá 5MB");
           return;
         }
 
@@ -123,7 +123,7 @@ const ChatInput = forwardRef<HTMLInputElement, ChatInputProps>(({
         return;
       }
       if (file.size > MAX_IMAGE_SIZE) {
-        setUploadError("Ảnh không được vượt quá 200KB");
+        setUploadError("Ảnh không được vượt quá 5MB");
         return;
       }
       const preview = URL.createObjectURL(file);
@@ -329,7 +329,7 @@ const ChatInput = forwardRef<HTMLInputElement, ChatInputProps>(({
           className="p-1.5 shrink-0 disabled:opacity-50"
           onClick={handleImageSelect}
           disabled={uploading || !!editingMessage}
-          title="Gửi ảnh (max 200KB)"
+          title="Gửi ảnh (max 5MB)"
         >
           <Icon name="image" size={20} className="text-[#00b14f] hover:text-[#00a347]" />
         </button>
@@ -106,6 +106,7 @@ export default function ProfileCard({ user, onUpdate, isLoading }: ProfileCardPr
           <ImageUploadButton
             onUpload={handleCoverUpload}
             usage="COVER_IMAGE"
+            variant="medium"
             disabled={isLoading}
             className="absolute top-2 right-2 sm:top-4 sm:right-4 w-8 h-8 sm:w-10 sm:h-10 bg-white rounded-full shadow flex items-center justify-center hover:bg-gray-50 disabled:opacity-50"
           >
@@ -134,6 +135,7 @@ export default function ProfileCard({ user, onUpdate, isLoading }: ProfileCardPr
             <ImageUploadButton
               onUpload={handleAvatarUpload}
               usage="AVATAR"
+              variant="thumbnail"
               disabled={isLoading}
               className="absolute bottom-1 right-1 sm:bottom-2 sm:right-2 w-7 h-7 sm:w-8 sm:h-8 bg-white rounded-full shadow flex items-center justify-center hover:bg-gray-50 border border-gray-200 disabled:opacity-50"
             >
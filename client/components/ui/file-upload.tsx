@@ -137,6 +137,8 @@ export function FileUpload({
 interface ImageUploadButtonProps {
   onUpload: (url: string) => void;
   usage: FileUsage;
+  // Which rendition onUpload receives; small images have no variants and fall back to the original
+  variant?: "thumbnail" | "medium" | "original";
   disabled?: boolean;
   maxSize?: number;
   className?: string;
@@ -146,8 +148,9 @@ interface ImageUploadButtonProps {
 export function ImageUploadButton({
   onUpload,
   usage,
+  variant = "medium",
   disabled,
-  maxSize = 200 * 1024,
+  maxSize = 5 * 1024 * 1024,
   className,
   children,
 }: ImageUploadButtonProps) {
@@ -175,7 +178,10 @@ export function ImageUploadButton({
     try {
       const response = await api.uploadImage(file, usage);
       if (response.status === "SUCCESS" && response.data) {
-        onUpload(response.data.secureUrl);
+        const { thumbnailUrl, mediumUrl, secureUrl } = response.data;
+        const url =
+          variant === "thumbnail" ? thumbnailUrl || mediumUrl : variant === "medium" ? mediumUrl : undefined;
+        onUpload(url || secureUrl);
       } else {
         toast.error(response.message || "Upload thất bại");
       }
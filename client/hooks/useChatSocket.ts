@@ -1,14 +1,11 @@
 "use client";
 
-import { useEffect, useRef, useCallback, useState } from "react";
-import { Client, IMessage } from "@stomp/stompjs";
-import SockJS from "sockjs-client";
+import { useEffect, useCallback, useState } from "react";
+import { IMessage } from "@stomp/stompjs";
 import { useAuth } from "@/context/AuthContext";
 import { getAccessToken } from "@/constant/auth";
 import { ChatMessage, ChatConversation } from "@/lib/api";
-
-const API_URL = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080";
-const WS_URL = `${API_URL}/ws`;
+import { acquireStompClient, onStompStatus, publishStomp, subscribeStomp } from "@/lib/stompClient";
 
 interface UseChatSocketOptions {
   onNewMessage?: (message: ChatMessage) => void;
@@ -17,14 +14,13 @@ interface UseChatSocketOptions {
   onConversationUpdated?: (conversation: ChatConversation) => void;
   onChatRequest?: (conversation: ChatConversation) => void;
   onRequestAccepted?: (conversation: ChatConversation) => void;
-  onOnlineStatus?: (data: { userId: number; online: boolean }) => void;
+  onOnlineStatus?: (data: { userId: number; online: boolean; lastActiveAt?: string }) => void;
   onMessageStatus?: (data: { messageId?: number; conversationId: number; status: string; readBy?: number }) => void;
   onRateLimitError?: (data: { type: string; message: string }) => void;
 }
 
 export function useChatSocket(options: UseChatSocketOptions = {}) {
   const { isAuthenticated } = useAuth();
-  const clientRef = useRef<Client | null>(null);
   const [connected, setConnected] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
@@ -42,123 +38,84 @@ export function useChatSocket(options: UseChatSocketOptions = {}) {
 
   // Send message via WebSocket
   const sendMessage = useCallback((receiverId: number, content: string, replyToId?: number, messageType: string = "TEXT") => {
-    if (clientRef.current?.connected) {
-      clientRef.current.publish({
-        destination: "/app/chat.send",
-        body: JSON.stringify({ receiverId, content, messageType, replyToId }),
-      });
-    }
+    publishStomp("/app/chat.send", JSON.stringify({ receiverId, content, messageType, replyToId }));
   }, []);
 
-  // Connect to WebSocket
+  // Subscribe on the tab's shared STOMP connection (also used by useNotificationSocket)
   useEffect(() => {
     if (!isAuthenticated) {
       return;
     }
 
-    const token = getAccessToken();
-    if (!token) {
+    if (!getAccessToken()) {
       console.warn("No access token available for WebSocket");
       return;
     }
-    
-    const client = new Client({
-      webSocketFactory: () => new SockJS(WS_URL),
-      connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
-      debug: (str) => {
-        if (process.env.NODE_ENV === "development") {
-          console.log("[STOMP]", str);
-        }
-      },
-      reconnectDelay: 5000,
-      heartbeatIncoming: 4000,
-      heartbeatOutgoing: 4000,
-    });
 
-    client.onConnect = () => {
-      setConnected(true);
-      setError(null);
-      console.log("WebSocket connected");
-
-      // Subscribe to user-specific queues
-      // Spring's convertAndSendToUser automatically routes to the authenticated user
-      // so we subscribe to /user/queue/xxx (without email in path)
+    const release = acquireStompClient();
 
+    // Spring's convertAndSendToUser automatically routes to the authenticated user
+    // so we subscribe to /user/queue/xxx (without email in path)
+    const unsubscribers = [
       // New messages
-      client.subscribe("/user/queue/messages", (message: IMessage) => {
-        const data = JSON.parse(message.body) as ChatMessage;
-        onNewMessage?.(data);
-      });
+      subscribeStomp("/user/queue/messages", (message: IMessage) => {
+        onNewMessage?.(JSON.parse(message.body) as ChatMessage);
+      }),
 
       // Message updated
-      client.subscribe("/user/queue/message-updated", (message: IMessage) => {
-        const data = JSON.parse(message.body) as ChatMessage;
-        onMessageUpdated?.(data);
-      });
+      subscribeStomp("/user/queue/message-updated", (message: IMessage) => {
+        onMessageUpdated?.(JSON.parse(message.body) as ChatMessage);
+      }),
 
       // Message deleted
-      client.subscribe("/user/queue/message-deleted", (message: IMessage) => {
-        const data = JSON.parse(message.body) as ChatMessage;
-        onMessageDeleted?.(data);
-      });
+      subscribeStomp("/user/queue/message-deleted", (message: IMessage) => {
+        onMessageDeleted?.(JSON.parse(message.body) as ChatMessage);
+      }),
 
       // Conversation updates
-      client.subscribe("/user/queue/conversations", (message: IMessage) => {
-        const data = JSON.parse(message.body) as ChatConversation;
-        onConversationUpdated?.(data);
-      });
+      subscribeStomp("/user/queue/conversations", (message: IMessage) => {
+        onConversationUpdated?.(JSON.parse(message.body) as ChatConversation);
+      }),
 
       // New chat requests
-      client.subscribe("/user/queue/chat-requests", (message: IMessage) => {
-        const data = JSON.parse(message.body) as ChatConversation;
-        onChatRequest?.(data);
-      });
+      subscribeStomp("/user/queue/chat-requests", (message: IMessage) => {
+        onChatRequest?.(JSON.parse(message.body) as ChatConversation);
+      }),
 
       // Request accepted
-      client.subscribe("/user/queue/request-accepted", (message: IMessage) => {
-        const data = JSON.parse(message.body) as ChatConversation;
-        onRequestAccepted?.(data);
-      });
+      subscribeStomp("/user/queue/request-accepted", (message: IMessage) => {
+        onRequestAccepted?.(JSON.parse(message.body) as ChatConversation);
+      }),
 
-      // Online status
-      client.subscribe("/user/queue/online-status", (message: IMessage) => {
-        const data = JSON.parse(message.body);
-        onOnlineStatus?.(data);
-      });
+      // Online status (server batches changes into { updates: [...] })
+      subscribeStomp("/user/queue/presence", (message: IMessage) => {
+        const data = JSON.parse(message.body) as { updates: { userId: number; online: boolean; lastActiveAt?: string }[] };
+        data.updates.forEach((update) => onOnlineStatus?.(update));
+      }),
 
       // Message status (sent/delivered/read)
-      client.subscribe("/user/queue/message-status", (message: IMessage) => {
-        const data = JSON.parse(message.body);
-        onMessageStatus?.(data);
-      });
+      subscribeStomp("/user/queue/message-status", (message: IMessage) => {
+        onMessageStatus?.(JSON.parse(message.body));
+      }),
 
       // Rate limit and other errors
-      client.subscribe("/user/queue/errors", (message: IMessage) => {
+      subscribeStomp("/user/queue/errors", (message: IMessage) => {
         const data = JSON.parse(message.body);
         if (data.type === "RATE_LIMIT") {
           onRateLimitError?.(data);
         }
-      });
-    };
-
-    client.onDisconnect = () => {
-      setConnected(false);
-      console.log("WebSocket disconnected");
-    };
+      }),
+    ];
 
-    client.onStompError = (frame) => {
-      setError(frame.headers.message || "WebSocket error");
-      console.error("STOMP error:", frame);
-    };
-
-    client.activate();
-    clientRef.current = client;
+    const removeStatusListener = onStompStatus((status) => {
+      setConnected(status.connected);
+      setError(status.error);
+    });
 
     return () => {
-      if (clientRef.current) {
-        clientRef.current.deactivate();
-        clientRef.current = null;
-      }
+      removeStatusListener();
+      unsubscribers.forEach((unsubscribe) => unsubscribe());
+      release();
     };
   }, [
     isAuthenticated,
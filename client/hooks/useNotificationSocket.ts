@@ -0,0 +1,69 @@
+"use client";
+
+import { useEffect, useRef, useState } from "react";
+import { IMessage } from "@stomp/stompjs";
+import { useAuth } from "@/context/AuthContext";
+import { getAccessToken } from "@/constant/auth";
+import { Notification } from "@/lib/api";
+import { acquireStompClient, onStompStatus, subscribeStomp } from "@/lib/stompClient";
+
+export type NotificationEventType = "CREATED" | "UPDATED" | "READ" | "READ_ALL";
+
+// Frame pushed by the server on /user/queue/notifications; unreadCount is recounted server-side
+export interface NotificationEvent {
+  event: NotificationEventType;
+  unreadCount: number;
+  notification?: Notification;
+  notificationId?: number;
+}
+
+interface UseNotificationSocketOptions {
+  onEvent?: (event: NotificationEvent) => void;
+  // Runs on every (re)connect so callers can refetch what they missed while offline
+  onConnect?: () => void;
+}
+
+export function useNotificationSocket(options: UseNotificationSocketOptions = {}) {
+  const { isAuthenticated } = useAuth();
+  const [connected, setConnected] = useState(false);
+
+  // Keep the latest callbacks without reconnecting when the caller re-renders
+  const onEventRef = useRef(options.onEvent);
+  const onConnectRef = useRef(options.onConnect);
+  onEventRef.current = options.onEvent;
+  onConnectRef.current = options.onConnect;
+
+  useEffect(() => {
+    if (!isAuthenticated) {
+      return;
+    }
+
+    if (!getAccessToken()) {
+      return;
+    }
+
+    // Rides on the tab's shared STOMP connection instead of opening a second socket
+    const release = acquireStompClient();
+    const unsubscribe = subscribeStomp("/user/queue/notifications", (message: IMessage) => {
+      onEventRef.current?.(JSON.parse(message.body) as NotificationEvent);
+    });
+
+    // Subscribed first, so nothing pushed after the refetch starts is lost
+    let wasConnected = false;
+    const removeStatusListener = onStompStatus((status) => {
+      setConnected(status.connected);
+      if (status.connected && !wasConnected) {
+        onConnectRef.current?.();
+      }
+      wasConnected = status.connected;
+    });
+
+    return () => {
+      removeStatusListener();
+      unsubscribe();
+      release();
+    };
+  }, [isAuthenticated]);
+
+  return { connected };
+}
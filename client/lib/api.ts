@@ -520,7 +520,7 @@ export const api = {
 
   // ==================== FILE UPLOAD ====================
   
-  // Upload image (max 200KB)
+  // Upload image (max 5MB); the response carries thumbnail/medium variant URLs
   uploadImage: async (file: File, usage: string): Promise<ApiResponse<FileUploadResponse>> => {
     const formData = new FormData();
     formData.append("file", file);
@@ -582,6 +582,8 @@ export interface FileUploadResponse {
   readableSize: string;
   width?: number;
   height?: number;
+  thumbnailUrl?: string;
+  mediumUrl?: string;
   usage: string;
   referenceType?: string;
   referenceId?: number;
@@ -718,7 +720,11 @@ export interface Notification {
   referenceId?: number;
   referenceType?: string;
   isRead: boolean;
+  aggregateCount: number;
+  actorName?: string;
   createdAt: string;
+  // Last time the notification was created or merged; the feed is ordered by it
+  lastAggregatedAt: string;
 }
 
 export const NOTIFICATION_TYPE_CONFIG: Record<NotificationType, { icon: string; color: string }> = {
@@ -966,6 +972,8 @@ export interface ChatMessageFile {
   readableSize: string;
   width?: number;
   height?: number;
+  thumbnailUrl?: string;
+  mediumUrl?: string;
 }
 
 export interface ChatMessage {
@@ -0,0 +1,145 @@
+import { Client, IMessage, StompSubscription } from "@stomp/stompjs";
+import SockJS from "sockjs-client";
+import { getAccessToken } from "@/constant/auth";
+
+const API_URL = process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080";
+const WS_URL = `${API_URL}/ws`;
+
+// One STOMP connection per tab, shared by every socket hook (chat, notifications).
+// Hooks acquire the client while mounted; the last release closes the socket.
+
+export interface StompStatus {
+  connected: boolean;
+  error: string | null;
+}
+
+type MessageHandler = (message: IMessage) => void;
+type StatusListener = (status: StompStatus) => void;
+
+interface Registration {
+  destination: string;
+  handler: MessageHandler;
+  subscription?: StompSubscription;
+}
+
+let client: Client | null = null;
+let holders = 0;
+let status: StompStatus = { connected: false, error: null };
+const registrations = new Set<Registration>();
+const statusListeners = new Set<StatusListener>();
+
+function setStatus(next: StompStatus) {
+  status = next;
+  statusListeners.forEach((listener) => listener(status));
+}
+
+function subscribe(registration: Registration) {
+  if (client?.connected) {
+    registration.subscription = client.subscribe(registration.destination, registration.handler);
+  }
+}
+
+function createClient(): Client {
+  const stomp = new Client({
+    webSocketFactory: () => new SockJS(WS_URL),
+    debug: (str) => {
+      if (process.env.NODE_ENV === "development") {
+        console.log("[STOMP]", str);
+      }
+    },
+    reconnectDelay: 5000,
+    heartbeatIncoming: 4000,
+    heartbeatOutgoing: 4000,
+  });
+
+  // Read the token on every (re)connect so a refreshed access token is picked up
+  stomp.beforeConnect = () => {
+    const token = getAccessToken();
+    stomp.connectHeaders = token ? { Authorization: `Bearer ${token}` } : {};
+  };
+
+  stomp.onConnect = () => {
+    console.log("WebSocket connected");
+    // Subscriptions do not survive a reconnect; replay them before telling listeners
+    registrations.forEach(subscribe);
+    setStatus({ connected: true, error: null });
+  };
+
+  stomp.onDisconnect = () => {
+    console.log("WebSocket disconnected");
+    setStatus({ connected: false, error: status.error });
+  };
+
+  stomp.onWebSocketClose = () => {
+    if (status.connected) {
+      setStatus({ connected: false, error: status.error });
+    }
+  };
+
+  stomp.onStompError = (frame) => {
+    console.error("STOMP error:", frame);
+    setStatus({ connected: stomp.connected, error: frame.headers.message || "WebSocket error" });
+  };
+
+  return stomp;
+}
+
+/**
+ * Opens the shared connection if this is the first holder. Call the returned function on unmount.
+ */
+export function acquireStompClient(): () => void {
+  holders += 1;
+  if (!client) {
+    client = createClient();
+    client.activate();
+  }
+
+  let released = false;
+  return () => {
+    if (released) {
+      return;
+    }
+    released = true;
+    holders -= 1;
+    if (holders === 0 && client) {
+      client.deactivate();
+      client = null;
+      setStatus({ connected: false, error: null });
+    }
+  };
+}
+
+/**
+ * Subscribes now if connected and again after every reconnect. Returns the unsubscribe function.
+ */
+export function subscribeStomp(destination: string, handler: MessageHandler): () => void {
+  const registration: Registration = { destination, handler };
+  registrations.add(registration);
+  subscribe(registration);
+
+  return () => {
+    registrations.delete(registration);
+    if (client?.connected) {
+      registration.subscription?.unsubscribe();
+    }
+  };
+}
+
+/**
+ * Calls the listener with the current status right away and on every change.
+ */
+export function onStompStatus(listener: StatusListener): () => void {
+  statusListeners.add(listener);
+  listener(status);
+  return () => {
+    statusListeners.delete(listener);
+  };
+}
+
+export function publishStomp(destination: string, body: string): boolean {
+  if (!client?.connected) {
+    return false;
+  }
+  client.publish({ destination, body });
+  return true;
+}
@@ -1,5 +1,28 @@
 import type { NextConfig } from "next";
 
+type RemotePattern = NonNullable<NonNullable<NextConfig["images"]>["remotePatterns"]>[number];
+
+// Files kept by the backend's local storage are served from {app.storage.local.public-base-url}/files/...
+// (STORAGE_PUBLIC_BASE_URL on the backend); defaults to the API URL, which is where they live unless a CDN fronts them.
+function localStoragePattern(): RemotePattern | null {
+  const base = process.env.NEXT_PUBLIC_STORAGE_URL || process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080";
+  let url: URL;
+  try {
+    url = new URL(base);
+  } catch {
+    return null;
+  }
+  const basePath = url.pathname.replace(/\/+$/, "");
+  return {
+    protocol: url.protocol === "https:" ? "https" : "http",
+    hostname: url.hostname,
+    port: url.port,
+    pathname: `${basePath}/files/**`,
+  };
+}
+
+const localFiles = localStoragePattern();
+
 const nextConfig: NextConfig = {
   images: {
     remotePatterns: [
@@ -13,6 +36,7 @@ const nextConfig: NextConfig = {
         hostname: "res.cloudinary.com",
         pathname: "/**",
       },
+      ...(localFiles ? [localFiles] : []),
     ],
   },
 };